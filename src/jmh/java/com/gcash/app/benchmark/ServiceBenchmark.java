@@ -0,0 +1,102 @@
+package com.gcash.app.benchmark;
+
+import com.gcash.app.Model.CheckBalance;
+import com.gcash.app.Model.Money;
+import com.gcash.app.Model.Transactions;
+import com.gcash.app.Security.UserAuthentication;
+import com.gcash.app.Service.BalanceService;
+import com.gcash.app.Service.TransactionService;
+import com.gcash.app.util.DatabaseConnection;
+import com.gcash.app.util.EmbeddedDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the public service methods against an embedded H2 database in MySQL mode.
+ * Seed size is configurable with -p userCount=... -p transactionsPerUser=...
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ServiceBenchmark {
+    private static final Money ONE_PESO = Money.ofPesos(1);
+
+    @Param("1000")
+    public int userCount;
+
+    @Param("50")
+    public int transactionsPerUser;
+
+    private UserAuthentication auth;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        EmbeddedDatabase database = EmbeddedDatabase.create("benchmark");
+        database.reset();
+        database.seed(userCount, transactionsPerUser, 1_000_000);
+        database.install();
+        auth = new UserAuthentication();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseConnection.shutdown();
+    }
+
+    @Benchmark
+    public boolean cashin() {
+        return TransactionService.cashin(ONE_PESO, randomUser());
+    }
+
+    @Benchmark
+    public int cashTransfer() {
+        int from = randomUser();
+        int to = from % userCount + 1;
+        return TransactionService.cashTransfer(ONE_PESO, from, to);
+    }
+
+    @Benchmark
+    public List<Transactions> viewUserAll() {
+        return TransactionService.viewUserAll(randomUser());
+    }
+
+    @Benchmark
+    public CheckBalance checkBalanceCached() {
+        return BalanceService.checkBalance(randomUser());
+    }
+
+    @Benchmark
+    public CheckBalance checkBalanceUncached() {
+        int userId = randomUser();
+        BalanceService.invalidateBalance(userId);
+        return BalanceService.checkBalance(userId);
+    }
+
+    @Benchmark
+    public int login() {
+        return auth.login(EmbeddedDatabase.email(randomUser()), EmbeddedDatabase.SEED_PIN);
+    }
+
+    private int randomUser() {
+        return ThreadLocalRandom.current().nextInt(1, userCount + 1);
+    }
+}
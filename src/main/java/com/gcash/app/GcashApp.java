@@ -1,15 +1,35 @@
 package com.gcash.app;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 import com.gcash.app.Model.Users;
+import com.gcash.app.Model.AccountSummary;
 import com.gcash.app.Model.CheckBalance;
+import com.gcash.app.Model.ExportFilter;
+import com.gcash.app.Model.ExportFormat;
+import com.gcash.app.Model.Money;
+import com.gcash.app.Model.ReconciliationReport;
+import com.gcash.app.Model.TransactionFormatter;
+import com.gcash.app.Model.TransactionPage;
 import com.gcash.app.Model.Transactions;
 import com.gcash.app.Security.UserAuthentication;
 import com.gcash.app.Security.SessionManager;
 import com.gcash.app.Service.TransactionService;
 import com.gcash.app.Service.BalanceService;
+import com.gcash.app.Service.ExportService;
+import com.gcash.app.Service.ReconciliationService;
+import com.gcash.app.Service.SummaryService;
+import com.gcash.app.Service.UserService;
+import com.gcash.app.util.AppConfig;
+import com.gcash.app.util.Metrics;
 
 /**
  * GcashApp - A simple banking application
@@ -19,9 +39,33 @@ import com.gcash.app.Service.BalanceService;
 public class GcashApp {
     private static final UserAuthentication auth = new UserAuthentication();
     private static final Scanner scanner = new Scanner(System.in);
+    private static final TransactionFormatter transactionOutput = TransactionFormatter.toStandardOutput();
     private static int currentUserId = -1;
 
     public static void main(String[] args) {
+        // Maintenance commands: recompute every account summary from the transaction history,
+        // check every balance against its transactions, or export the transaction table
+        if (args.length > 0 && args[0].equals("rebuild-summaries")) {
+            int rebuilt = SummaryService.rebuild();
+            if (rebuilt >= 0) {
+                System.out.println("Rebuilt " + rebuilt + " account summaries");
+            }
+            System.exit(rebuilt < 0 ? 1 : 0);
+        }
+        if (args.length > 0 && args[0].equals("reconcile")) {
+            ReconciliationReport report = ReconciliationService.reconcile();
+            if (report != null) {
+                report.print(System.out);
+            }
+            System.exit(report != null && report.isConsistent() ? 0 : 1);
+        }
+        if (args.length > 0 && args[0].equals("export")) {
+            System.exit(runExport(args));
+        }
+
+        Metrics.start();
+        UserService.load();
+
         System.out.println("Welcome to GCash App!");
         System.out.println("---------------------");
         System.out.println("© 2025 GCash Banking Services");
@@ -39,6 +83,71 @@ public class GcashApp {
         }
     }
 
+    /**
+     * Export command: export file=PATH [format=csv|binary] [from=yyyy-MM-dd] [to=yyyy-MM-dd]
+     * [account=ID] [parallelism=N]; the to date is exclusive
+     * @return Process exit code
+     */
+    private static int runExport(String[] args) {
+        Path file = null;
+        ExportFormat format = ExportFormat.CSV;
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        Integer account = null;
+        int parallelism = AppConfig.EXPORT_THREADS;
+
+        try {
+            for (int i = 1; i < args.length; i++) {
+                int eq = args[i].indexOf('=');
+                String key = eq < 0 ? args[i] : args[i].substring(0, eq);
+                String value = eq < 0 ? "" : args[i].substring(eq + 1);
+                switch (key) {
+                    case "file":
+                        file = Paths.get(value);
+                        break;
+                    case "format":
+                        format = ExportFormat.valueOf(value.toUpperCase());
+                        break;
+                    case "from":
+                        from = LocalDate.parse(value).atStartOfDay();
+                        break;
+                    case "to":
+                        to = LocalDate.parse(value).atStartOfDay();
+                        break;
+                    case "account":
+                        account = Integer.parseInt(value);
+                        break;
+                    case "parallelism":
+                        parallelism = Integer.parseInt(value);
+                        break;
+                    default:
+                        System.err.println("Unknown export option: " + args[i]);
+                        return 2;
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            System.err.println("Invalid export option: " + e.getMessage());
+            return 2;
+        }
+
+        if (file == null) {
+            System.err.println("Usage: export file=PATH [format=csv|binary] [from=yyyy-MM-dd] [to=yyyy-MM-dd] "
+                    + "[account=ID] [parallelism=N]");
+            return 2;
+        }
+
+        long start = System.nanoTime();
+        long rows = ExportService.export(file, format, new ExportFilter(from, to, account, account), parallelism);
+        if (rows < 0) {
+            return 1;
+        }
+
+        long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        System.out.println("Exported " + rows + " transactions to " + file + " in " + elapsedMs + " ms ("
+                + rows * 1000 / elapsedMs + " rows/s)");
+        return 0;
+    }
+
     /**
      * Displays the main menu for non-logged in users
      */
@@ -183,9 +292,11 @@ public class GcashApp {
 
         int userId = auth.login(identifier, pin);
 
-        if (userId != -1) {
+        if (userId > 0) {
             currentUserId = userId;
             System.out.println("Login successful! Welcome back.");
+        } else if (userId == UserAuthentication.LOGIN_THROTTLED) {
+            System.out.println("Too many login attempts. Please try again later.");
         } else {
             System.out.println("Login failed. Invalid credentials or user not found.");
         }
@@ -229,10 +340,15 @@ public class GcashApp {
         CheckBalance balance = BalanceService.checkBalance(currentUserId);
 
         if (balance != null) {
-            System.out.println("Your current balance: ₱" + String.format("%.2f", balance.getAmount()));
+            System.out.println("Your current balance: ₱" + balance.getAmount());
         } else {
             System.out.println("Unable to retrieve your balance. Please try again later.");
         }
+
+        AccountSummary summary = SummaryService.getSummary(currentUserId);
+        if (summary != null) {
+            System.out.println(summary);
+        }
     }
 
     /**
@@ -243,10 +359,9 @@ public class GcashApp {
 
         System.out.print("Enter amount to add: ");
         try {
-            double amount = scanner.nextDouble();
-            scanner.nextLine(); // Clear the newline
+            Money amount = Money.parse(scanner.nextLine().trim());
 
-            if (amount <= 0) {
+            if (!amount.isPositive()) {
                 System.out.println("Invalid amount. Please enter a positive number.");
                 return;
             }
@@ -254,10 +369,13 @@ public class GcashApp {
             boolean success = TransactionService.cashin(amount, currentUserId);
 
             if (success) {
-                System.out.println("Cash-in successful! ₱" + String.format("%.2f", amount) + " has been added to your account.");
+                System.out.println("Cash-in successful! ₱" + amount + " has been added to your account.");
             } else {
                 System.out.println("Cash-in failed. Please try again later.");
             }
+        } catch (NumberFormatException e) {
+            // The line was already consumed, nothing left to clear
+            System.out.println("Invalid amount. Please enter a valid number.");
         } catch (Exception e) {
             System.out.println("Invalid amount. Please enter a valid number.");
             scanner.nextLine(); // Clear invalid input
@@ -277,7 +395,7 @@ public class GcashApp {
             return;
         }
 
-        System.out.println("Your current balance: ₱" + String.format("%.2f", balance.getAmount()));
+        System.out.println("Your current balance: ₱" + balance.getAmount());
 
         // Get recipient user ID
         System.out.print("Enter recipient user ID: ");
@@ -292,16 +410,15 @@ public class GcashApp {
 
             // Get amount to transfer
             System.out.print("Enter amount to transfer: ");
-            double amount = scanner.nextDouble();
-            scanner.nextLine(); // Clear the newline
+            Money amount = Money.parse(scanner.nextLine().trim());
 
             // Validate amount
-            if (amount <= 0) {
+            if (!amount.isPositive()) {
                 System.out.println("Invalid amount. Please enter a positive number.");
                 return;
             }
 
-            if (amount > balance.getAmount()) {
+            if (amount.isGreaterThan(balance.getAmount())) {
                 System.out.println("Insufficient funds. Transfer cancelled.");
                 return;
             }
@@ -309,7 +426,7 @@ public class GcashApp {
             // Confirm transfer
             System.out.println("\nTransfer Details:");
             System.out.println("Recipient: User #" + recipientId);
-            System.out.println("Amount: ₱" + String.format("%.2f", amount));
+            System.out.println("Amount: ₱" + amount);
             System.out.print("Confirm transfer (Y/N): ");
             String confirm = scanner.nextLine();
 
@@ -323,7 +440,7 @@ public class GcashApp {
 
             switch (result) {
                 case 0:
-                    System.out.println("Transfer successful! ₱" + String.format("%.2f", amount) +
+                    System.out.println("Transfer successful! ₱" + amount +
                             " has been sent to User #" + recipientId);
                     break;
                 case 1:
@@ -338,6 +455,9 @@ public class GcashApp {
                 default:
                     System.out.println("Transfer failed due to a system error. Please try again later.");
             }
+        } catch (NumberFormatException e) {
+            // The line was already consumed, nothing left to clear
+            System.out.println("Invalid amount. Please enter a valid number.");
         } catch (Exception e) {
             System.out.println("Invalid input. Please enter valid numbers.");
             scanner.nextLine(); // Clear invalid input
@@ -352,7 +472,8 @@ public class GcashApp {
 
         System.out.println("1. View My Transactions");
         System.out.println("2. View Specific Transaction");
-        System.out.println("3. Back");
+        System.out.println("3. Print Full History");
+        System.out.println("4. Back");
         System.out.print("Choice: ");
 
         try {
@@ -367,6 +488,9 @@ public class GcashApp {
                     viewSpecificTransaction();
                     break;
                 case 3:
+                    printFullHistory();
+                    break;
+                case 4:
                     return;
                 default:
                     System.out.println("Invalid choice. Please try again.");
@@ -378,22 +502,66 @@ public class GcashApp {
     }
 
     /**
-     * View all transactions for the current user
+     * View the current user's transactions one page at a time
      */
     private static void viewUserTransactions() {
         System.out.println("\n=== My Transactions ===");
 
-        List<Transactions> transactions = TransactionService.viewUserAll(currentUserId);
+        TransactionPage page = TransactionService.viewUserPage(currentUserId, null, AppConfig.HISTORY_PAGE_SIZE);
 
-        if (transactions.isEmpty()) {
+        if (page.getTransactions().isEmpty()) {
             System.out.println("No transactions found.");
             return;
         }
 
         System.out.println("Your transaction history:");
         System.out.println("------------------------");
-        for (Transactions t : transactions) {
-            System.out.println(t.toString());
+        while (true) {
+            try {
+                for (Transactions t : page.getTransactions()) {
+                    transactionOutput.write(t);
+                }
+                transactionOutput.flush();
+            } catch (IOException e) {
+                System.out.println("Unable to print transactions: " + e.getMessage());
+                return;
+            }
+
+            if (!page.hasMore()) {
+                return;
+            }
+
+            System.out.print("\nShow more transactions? (Y/N): ");
+            if (!scanner.nextLine().equalsIgnoreCase("Y")) {
+                return;
+            }
+            page = TransactionService.viewUserPage(currentUserId, page.getNextCursor(), AppConfig.HISTORY_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Print the current user's whole history without paging, streamed from the database
+     */
+    private static void printFullHistory() {
+        System.out.println("\n=== Full Transaction History ===");
+
+        try {
+            long count = TransactionService.streamUserAll(currentUserId, t -> {
+                try {
+                    transactionOutput.write(t);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            transactionOutput.flush();
+
+            if (count < 0) {
+                System.out.println("Unable to retrieve your transactions. Please try again later.");
+            } else {
+                System.out.println(count + " transactions.");
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Unable to print transactions: " + e.getMessage());
         }
     }
 
@@ -0,0 +1,455 @@
+package com.gcash.app.Ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.gcash.app.Model.Money;
+import com.gcash.app.util.AppConfig;
+import com.gcash.app.util.DatabaseConnection;
+import com.gcash.app.util.SqlStatements;
+
+/**
+ * In-memory, account-sharded ledger for the high-volume tier.
+ *
+ * Each account belongs to one shard, chosen by its ID. A shard's balances are owned by a
+ * single writer thread and every posting is forced to the shard's memory-mapped
+ * write-ahead log before it is acknowledged. On start the balances are rebuilt by
+ * replaying all logs. A transfer between shards is logged once, in the sender's shard,
+ * and the credit is then handed to the recipient's shard; the caller's future completes
+ * after both sides are applied.
+ *
+ * When a LedgerProjector is attached, every durable posting is also written to MySQL
+ * asynchronously, so transaction history reads keep working from the database.
+ *
+ * Result codes match TransactionService: 0=success, 1=insufficient funds or invalid
+ * amount, 2=invalid user, 3=same user.
+ */
+public class Ledger implements Closeable {
+    private static final long MISSING = Long.MIN_VALUE;
+
+    private static volatile Ledger active;
+
+    private final Path directory;
+    private final LedgerShard[] shards;
+    private final long segmentBytes;
+    private final int queueCapacity;
+    private final int maxBatchSize;
+
+    // Accounts whose opening is durable; lets a shard check a recipient it doesn't own
+    private final Set<Long> accounts = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    private LedgerProjector projector;
+    private volatile boolean started;
+
+    /**
+     * Create a ledger using the LEDGER_* settings in AppConfig
+     * @param directory Directory holding the shard logs
+     */
+    public Ledger(Path directory) {
+        this(directory, AppConfig.LEDGER_SHARDS, AppConfig.LEDGER_WAL_SEGMENT_BYTES,
+                AppConfig.LEDGER_QUEUE_CAPACITY, AppConfig.LEDGER_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * @param directory Directory holding the shard logs
+     * @param shardCount Number of shards; must stay the same across restarts
+     * @param segmentBytes Size of each memory-mapped log segment
+     * @param queueCapacity Pending operations per shard before callers block
+     * @param maxBatchSize Maximum operations per log force
+     */
+    public Ledger(Path directory, int shardCount, long segmentBytes, int queueCapacity, int maxBatchSize) {
+        if (shardCount <= 0 || queueCapacity <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Invalid ledger settings");
+        }
+
+        this.directory = directory;
+        this.shards = new LedgerShard[shardCount];
+        this.segmentBytes = segmentBytes;
+        this.queueCapacity = queueCapacity;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * The ledger the services should use, or null when ledger mode is off.
+     * With -Dgcash.ledger.enabled=true a ledger is opened from AppConfig on first use.
+     * @return The active ledger, or null
+     */
+    public static Ledger active() {
+        Ledger ledger = active;
+        if (ledger != null || !AppConfig.LEDGER_ENABLED) {
+            return ledger;
+        }
+
+        synchronized (Ledger.class) {
+            if (active == null) {
+                active = openDefault();
+            }
+            return active;
+        }
+    }
+
+    /**
+     * Make the services use the given ledger instead of the configured one
+     * @param ledger Started ledger, or null to switch ledger mode off
+     */
+    public static synchronized void install(Ledger ledger) {
+        active = ledger;
+    }
+
+    /**
+     * @param projector Projector to receive durable postings; set before start()
+     */
+    public void setProjector(LedgerProjector projector) {
+        if (started) {
+            throw new IllegalStateException("Ledger already started");
+        }
+        this.projector = projector;
+    }
+
+    /**
+     * Replay the logs and start the shard writers. Postings the projector has not
+     * yet written to MySQL are queued for it again.
+     * @throws IOException If a log cannot be opened or read
+     */
+    public synchronized void start() throws IOException {
+        if (started) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+        Map<Integer, Long> checkpoints = Collections.emptyMap();
+        if (projector != null) {
+            try {
+                checkpoints = projector.loadCheckpoints();
+            } catch (SQLException e) {
+                throw new IOException("Could not load ledger projection checkpoints", e);
+            }
+        }
+
+        for (int i = 0; i < shards.length; i++) {
+            WriteAheadLog log = new WriteAheadLog(directory.resolve("shard-" + i + ".wal"), i, segmentBytes);
+            shards[i] = new LedgerShard(i, log, queueCapacity, maxBatchSize);
+        }
+
+        // Replay shard by shard; postings only add and subtract, so cross-shard order doesn't matter
+        PendingProjection pending = new PendingProjection();
+        for (LedgerShard shard : shards) {
+            long projectedUpTo = checkpoints.getOrDefault(shard.getIndex(), 0L);
+            shard.replayLog(posting -> {
+                applyReplayed(posting);
+                if (projector != null && posting.getSequence() > projectedUpTo) {
+                    pending.add(posting);
+                }
+            });
+        }
+
+        if (projector != null) {
+            // Openings first: they set a balance row that replayed credits from other shards add to
+            projector.enqueue(pending.opens);
+            projector.enqueue(pending.others);
+            for (LedgerShard shard : shards) {
+                shard.setListener(projector::enqueue);
+            }
+            projector.start();
+        }
+
+        for (LedgerShard shard : shards) {
+            shard.start();
+        }
+        started = true;
+    }
+
+    /**
+     * Stop the shard writers after they finish queued work, then drain the projector
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!started) {
+            return;
+        }
+        started = false;
+
+        try {
+            for (LedgerShard shard : shards) {
+                shard.stop();
+            }
+            if (projector != null) {
+                projector.stop();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (LedgerShard shard : shards) {
+                shard.closeLog();
+            }
+        }
+    }
+
+    /**
+     * Open an account for every user in MySQL with their current balance (zero if they have
+     * no balance row). Switching ledger mode on for an existing database needs this before
+     * the first request, since the ledger only knows accounts opened through its logs.
+     * @return Number of accounts opened
+     * @throws SQLException If the users cannot be read
+     * @throws IllegalStateException If the ledger already has accounts
+     */
+    public int importAccounts() throws SQLException {
+        if (!accounts.isEmpty()) {
+            throw new IllegalStateException("Ledger already has " + accounts.size() + " accounts");
+        }
+
+        List<CompletableFuture<Boolean>> opened = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SqlStatements.LEDGER_IMPORT_ACCOUNTS,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            pstmt.setFetchSize(AppConfig.LEDGER_IMPORT_FETCH_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    BigDecimal amount = rs.getBigDecimal(2);
+                    opened.add(openAccount(rs.getInt(1), amount == null ? Money.ZERO : Money.fromBigDecimal(amount)));
+                }
+            }
+        }
+
+        int count = 0;
+        for (CompletableFuture<Boolean> future : opened) {
+            if (future.join()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Open an account, e.g. when a user registers or is imported from MySQL
+     * @param userId User ID
+     * @param openingBalance Starting balance
+     * @return Future completed with true if opened, false if the account already exists
+     */
+    public CompletableFuture<Boolean> openAccount(long userId, Money openingBalance) {
+        if (userId <= 0 || openingBalance == null || openingBalance.isNegative()) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        long opening = openingBalance.getCentavos();
+        return shardOf(userId).submit(shard -> {
+            if (shard.balances().containsKey(userId)) {
+                return 0;
+            }
+            shard.append(Posting.Type.OPEN, userId, 0, opening);
+            shard.balances().put(userId, opening);
+            return 1;
+        }).thenApply(opened -> {
+            if (opened == 1) {
+                accounts.add(userId);
+            }
+            return opened == 1;
+        });
+    }
+
+    /**
+     * Credit an account
+     * @param userId User ID
+     * @param amount Amount to add
+     * @return Future completed with 0=success, 1=invalid amount, 2=invalid user
+     */
+    public CompletableFuture<Integer> cashIn(long userId, Money amount) {
+        if (amount == null || !amount.isPositive()) {
+            return CompletableFuture.completedFuture(1);
+        }
+        if (userId <= 0) {
+            return CompletableFuture.completedFuture(2);
+        }
+
+        long centavos = amount.getCentavos();
+        return shardOf(userId).submit(shard -> {
+            long balance = shard.balances().get(userId, MISSING);
+            if (balance == MISSING) {
+                return 2;
+            }
+            Math.addExact(balance, centavos); // Reject before logging if the balance would overflow
+            shard.append(Posting.Type.CASH_IN, userId, 0, centavos);
+            shard.balances().put(userId, balance + centavos);
+            return 0;
+        }).thenApply(Long::intValue);
+    }
+
+    /**
+     * Move money between two accounts
+     * @param fromUserId User ID sending the money
+     * @param toUserId User ID receiving the money
+     * @param amount Amount to transfer
+     * @return Future completed with a result code as for TransactionService.cashTransfer
+     */
+    public CompletableFuture<Integer> transfer(long fromUserId, long toUserId, Money amount) {
+        if (amount == null || !amount.isPositive()) {
+            return CompletableFuture.completedFuture(1);
+        }
+        if (fromUserId <= 0 || toUserId <= 0) {
+            return CompletableFuture.completedFuture(2);
+        }
+        if (fromUserId == toUserId) {
+            return CompletableFuture.completedFuture(3);
+        }
+
+        long centavos = amount.getCentavos();
+        LedgerShard source = shardOf(fromUserId);
+        LedgerShard target = shardOf(toUserId);
+        boolean sameShard = source == target;
+
+        CompletableFuture<Long> debited = source.submit(shard -> {
+            long balance = shard.balances().get(fromUserId, MISSING);
+            if (balance == MISSING || !accounts.contains(toUserId)) {
+                return 2;
+            }
+            if (balance < centavos) {
+                return 1;
+            }
+            shard.append(Posting.Type.TRANSFER, fromUserId, toUserId, centavos);
+            shard.balances().put(fromUserId, balance - centavos);
+            if (sameShard) {
+                shard.balances().addTo(toUserId, centavos);
+            }
+            return 0;
+        });
+
+        if (sameShard) {
+            return debited.thenApply(Long::intValue);
+        }
+
+        // The posting is durable once debited completes; apply the credit on the recipient's writer
+        return debited.thenCompose(code -> code != 0
+                ? CompletableFuture.completedFuture(code.intValue())
+                : target.submitInternal(shard -> {
+                    shard.balances().addTo(toUserId, centavos);
+                    return 0;
+                }).thenApply(Long::intValue));
+    }
+
+    /**
+     * Read an account's balance
+     * @param userId User ID
+     * @return Future completed with the balance, or null if the account doesn't exist
+     */
+    public CompletableFuture<Money> balance(long userId) {
+        if (userId <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return shardOf(userId).submit(shard -> shard.balances().get(userId, MISSING))
+                .thenApply(centavos -> centavos == MISSING ? null : Money.ofCentavos(centavos));
+    }
+
+    /**
+     * Sum of all balances, read shard by shard. Cross-shard credits in flight may be
+     * missing from the sum, so only compare it against an expected total when idle.
+     * @return Total money held by all accounts
+     */
+    public Money totalBalance() {
+        long total = 0;
+        for (LedgerShard shard : shards) {
+            total += shard.submit(s -> {
+                long[] sum = new long[1];
+                s.balances().forEach((account, balance) -> sum[0] += balance);
+                return sum[0];
+            }).join();
+        }
+        return Money.ofCentavos(total);
+    }
+
+    public boolean hasAccount(long userId) {
+        return accounts.contains(userId);
+    }
+
+    public int getAccountCount() {
+        return accounts.size();
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    private LedgerShard shardOf(long userId) {
+        if (!started) {
+            throw new IllegalStateException("Ledger not started");
+        }
+        return shards[(int) (userId % shards.length)];
+    }
+
+    /**
+     * Apply a posting read from a log; runs before the writers start
+     */
+    private void applyReplayed(Posting posting) {
+        long amount = posting.getAmountCentavos();
+        switch (posting.getType()) {
+            case OPEN:
+                shards[(int) (posting.getAccountId() % shards.length)].balances()
+                        .addTo(posting.getAccountId(), amount);
+                accounts.add(posting.getAccountId());
+                break;
+            case CASH_IN:
+                shards[(int) (posting.getAccountId() % shards.length)].balances()
+                        .addTo(posting.getAccountId(), amount);
+                break;
+            case TRANSFER:
+                shards[(int) (posting.getAccountId() % shards.length)].balances()
+                        .addTo(posting.getAccountId(), -amount);
+                shards[(int) (posting.getCounterpartyId() % shards.length)].balances()
+                        .addTo(posting.getCounterpartyId(), amount);
+                break;
+            default:
+                throw new IllegalStateException("Unknown posting type: " + posting.getType());
+        }
+    }
+
+    private static Ledger openDefault() {
+        Ledger ledger = new Ledger(Paths.get(AppConfig.LEDGER_DIRECTORY));
+        if (AppConfig.LEDGER_PROJECTION_ENABLED) {
+            ledger.setProjector(new LedgerProjector(AppConfig.LEDGER_PROJECTION_BATCH_SIZE));
+        }
+
+        try {
+            ledger.start();
+            // A new log knows no accounts; take over the existing users before serving anything
+            if (ledger.getAccountCount() == 0) {
+                ledger.importAccounts();
+            }
+        } catch (IOException | SQLException e) {
+            try {
+                ledger.close();
+            } catch (IOException ignored) {
+                // Already failing; the original error is the one to report
+            }
+            throw new IllegalStateException("Could not open ledger in " + AppConfig.LEDGER_DIRECTORY, e);
+        }
+        return ledger;
+    }
+
+    /**
+     * Postings replayed from the logs that still have to reach MySQL
+     */
+    private static final class PendingProjection {
+        private final List<Posting> opens = new ArrayList<>();
+        private final List<Posting> others = new ArrayList<>();
+
+        private void add(Posting posting) {
+            (posting.getType() == Posting.Type.OPEN ? opens : others).add(posting);
+        }
+    }
+}
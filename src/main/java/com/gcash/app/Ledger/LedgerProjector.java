@@ -0,0 +1,277 @@
+package com.gcash.app.Ledger;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.gcash.app.Model.TransactionKind;
+import com.gcash.app.util.AppConfig;
+import com.gcash.app.util.DatabaseConnection;
+import com.gcash.app.util.EventLog;
+import com.gcash.app.util.SqlStatements;
+
+/**
+ * Writes durable ledger postings to the MySQL balance and transaction tables in the background.
+ *
+ * Each batch is applied in one transaction together with the last projected sequence of every
+ * shard it touched (table ledger_checkpoint), so after a restart the ledger re-sends exactly
+ * the postings MySQL has not seen. A failed batch is rolled back and retried until it succeeds
+ * or the projector is stopped.
+ */
+public class LedgerProjector {
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final BlockingQueue<Posting> queue = new LinkedBlockingQueue<>();
+    private final int batchSize;
+
+    private Thread worker;
+    private volatile boolean running;
+
+    private final AtomicLong projectedCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+
+    /**
+     * @param batchSize Maximum postings per MySQL transaction
+     */
+    public LedgerProjector(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Read the last projected sequence of each shard
+     * @return Shard index to sequence; shards never projected are absent
+     * @throws SQLException If the checkpoint table cannot be read
+     */
+    public Map<Integer, Long> loadCheckpoints() throws SQLException {
+        Map<Integer, Long> checkpoints = new HashMap<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SqlStatements.LEDGER_CHECKPOINT_SELECT);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                checkpoints.put(rs.getInt("shard_id"), rs.getLong("sequence"));
+            }
+        }
+        return checkpoints;
+    }
+
+    /**
+     * Queue postings for projection, in log order per shard
+     * @param postings Durable postings
+     */
+    public void enqueue(List<Posting> postings) {
+        queue.addAll(postings);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        worker = new Thread(this::run, "gcash-ledger-projector");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Project everything already queued, then stop. If the database fails meanwhile, or the worker
+     * is still busy after LEDGER_PROJECTION_STOP_TIMEOUT_MS, the rest is left to the next start.
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.join(AppConfig.LEDGER_PROJECTION_STOP_TIMEOUT_MS);
+            if (worker.isAlive()) {
+                EventLog.warn("ledger_projection.stop_timeout").with("backlog", queue.size()).log();
+                worker.interrupt();
+                worker.join();
+            }
+            worker = null;
+        }
+    }
+
+    /**
+     * @return Postings waiting to be written to MySQL
+     */
+    public int getBacklog() {
+        return queue.size();
+    }
+
+    public long getProjectedCount() {
+        return projectedCount.get();
+    }
+
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    private void run() {
+        List<Posting> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                Posting first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                for (int attempt = 0; ; attempt++) {
+                    try {
+                        project(batch);
+                        projectedCount.addAndGet(batch.size());
+                        break;
+                    } catch (SQLException e) {
+                        failureCount.incrementAndGet();
+                        if (!running) {
+                            // The postings are durable in the log and re-sent from the checkpoints on restart
+                            EventLog.error("ledger_projection.abandoned")
+                                    .with("postings", batch.size() + queue.size())
+                                    .with("error", e.getMessage()).log();
+                            return;
+                        }
+                        EventLog.warn("ledger_projection.retry").with("attempt", attempt + 1)
+                                .with("error", e.getMessage()).log();
+                        Thread.sleep(AppConfig.TRANSFER_RETRY_BACKOFF_MS << Math.min(attempt, 10));
+                    }
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Apply a batch and advance the shard checkpoints in one transaction
+     */
+    private void project(List<Posting> batch) throws SQLException {
+        Connection conn = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+
+            try (PreparedStatement openBalance = conn.prepareStatement(SqlStatements.BALANCE_UPSERT_SET);
+                 PreparedStatement creditBalance = conn.prepareStatement(SqlStatements.BALANCE_UPSERT_ADD);
+                 PreparedStatement debitBalance = conn.prepareStatement(SqlStatements.BALANCE_SUBTRACT);
+                 PreparedStatement ledger = conn.prepareStatement(SqlStatements.TRANSACTION_INSERT_TRANSFER);
+                 PreparedStatement checkpoint = conn.prepareStatement(SqlStatements.LEDGER_CHECKPOINT_UPSERT)) {
+
+                Map<Integer, Long> lastSequence = new HashMap<>();
+
+                for (Posting posting : batch) {
+                    lastSequence.put(posting.getShard(), posting.getSequence());
+                    Timestamp date = new Timestamp(posting.getTimestampMillis());
+                    int account = (int) posting.getAccountId();
+
+                    switch (posting.getType()) {
+                        case OPEN:
+                            openBalance.setBigDecimal(1, posting.getAmount().toBigDecimal());
+                            openBalance.setInt(2, account);
+                            openBalance.addBatch();
+                            break;
+                        case CASH_IN:
+                            creditBalance.setBigDecimal(1, posting.getAmount().toBigDecimal());
+                            creditBalance.setInt(2, account);
+                            creditBalance.addBatch();
+                            addLedgerRow(ledger, posting.getAmount().toBigDecimal(), "Cash In",
+                                    TransactionKind.CASH_IN, account, date, 0, 0);
+                            break;
+                        case TRANSFER:
+                            int recipient = (int) posting.getCounterpartyId();
+                            debitBalance.setBigDecimal(1, posting.getAmount().toBigDecimal());
+                            debitBalance.setInt(2, account);
+                            debitBalance.addBatch();
+                            creditBalance.setBigDecimal(1, posting.getAmount().toBigDecimal());
+                            creditBalance.setInt(2, recipient);
+                            creditBalance.addBatch();
+                            addLedgerRow(ledger, posting.getAmount().negate().toBigDecimal(),
+                                    "Transfer to User #" + recipient, TransactionKind.TRANSFER_OUT,
+                                    account, date, recipient, account);
+                            addLedgerRow(ledger, posting.getAmount().toBigDecimal(),
+                                    "Transfer from User #" + account, TransactionKind.TRANSFER_IN,
+                                    recipient, date, recipient, account);
+                            break;
+                        default:
+                            throw new IllegalStateException("Unknown posting type: " + posting.getType());
+                    }
+                }
+
+                // Openings set a balance that the credits and debits then adjust
+                openBalance.executeBatch();
+                creditBalance.executeBatch();
+                debitBalance.executeBatch();
+                ledger.executeBatch();
+
+                for (Map.Entry<Integer, Long> entry : lastSequence.entrySet()) {
+                    checkpoint.setInt(1, entry.getKey());
+                    checkpoint.setLong(2, entry.getValue());
+                    checkpoint.addBatch();
+                }
+                checkpoint.executeBatch();
+            }
+
+            conn.commit();
+        } catch (SQLException e) {
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException ex) {
+                EventLog.error("rollback.error").with("error", ex.getMessage()).log();
+            }
+            throw e;
+        } finally {
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                }
+            } catch (SQLException e) {
+                EventLog.error("connection.close_error").with("error", e.getMessage()).log();
+            }
+        }
+    }
+
+    /**
+     * Add a transaction row; transfer IDs of 0 are stored as NULL
+     */
+    private static void addLedgerRow(PreparedStatement ledger, BigDecimal amount, String name, TransactionKind kind,
+                                     int accountId, Timestamp date, int transferToId, int transferFromId)
+            throws SQLException {
+        ledger.setBigDecimal(1, amount);
+        ledger.setString(2, name);
+        ledger.setInt(3, accountId);
+        ledger.setTimestamp(4, date);
+        if (transferToId == 0) {
+            ledger.setNull(5, Types.INTEGER);
+            ledger.setNull(6, Types.INTEGER);
+        } else {
+            ledger.setInt(5, transferToId);
+            ledger.setInt(6, transferFromId);
+        }
+        ledger.setInt(7, kind.getCode());
+        ledger.addBatch();
+    }
+}
@@ -0,0 +1,230 @@
+package com.gcash.app.Ledger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * One partition of the ledger. A single writer thread owns the balances and the log,
+ * so operations run one after another without locks. The writer drains operations in
+ * batches, forces the log once per batch and only then completes the batch's futures.
+ */
+final class LedgerShard {
+    private static final long POLL_INTERVAL_MS = 100;
+
+    /**
+     * Work run on the writer thread with exclusive access to the shard
+     */
+    interface Operation {
+        long apply(LedgerShard shard) throws IOException;
+    }
+
+    private final int index;
+    private final WriteAheadLog log;
+    private final LongLongMap balances = new LongLongMap(1024);
+    private final BlockingQueue<Command> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private final int maxBatchSize;
+
+    private final List<Posting> appended = new ArrayList<>();
+    private volatile Consumer<List<Posting>> listener;
+
+    private Thread writer;
+    // Enqueue under the read lock and stop under the write lock, so nothing is queued after the final drain
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private volatile IOException failure;
+
+    LedgerShard(int index, WriteAheadLog log, int queueCapacity, int maxBatchSize) {
+        this.index = index;
+        this.log = log;
+        this.capacity = new Semaphore(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    /**
+     * Balances; only touch from the writer thread, or before start()
+     */
+    LongLongMap balances() {
+        return balances;
+    }
+
+    /**
+     * Append a posting to the log from inside an operation
+     */
+    Posting append(Posting.Type type, long account, long counterparty, long amount) throws IOException {
+        Posting posting = log.append(type, account, counterparty, amount, System.currentTimeMillis());
+        appended.add(posting);
+        return posting;
+    }
+
+    /**
+     * @param listener Receives each batch of postings once it is durable
+     */
+    void setListener(Consumer<List<Posting>> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Replay the log; call before start()
+     */
+    void replayLog(Consumer<Posting> consumer) throws IOException {
+        log.replay(consumer);
+    }
+
+    void closeLog() throws IOException {
+        log.close();
+    }
+
+    void start() {
+        running = true;
+        writer = new Thread(this::runWriter, "gcash-ledger-shard-" + index);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    void stop() throws InterruptedException {
+        stateLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        if (writer != null) {
+            writer.join();
+        }
+
+        // Anything left if the writer was interrupted or failed before its last drain
+        Command command;
+        while ((command = queue.poll()) != null) {
+            complete(command, new IOException("Ledger shard " + index + " is not running"));
+        }
+    }
+
+    /**
+     * Queue an operation for a caller, blocking while the shard's queue is full
+     */
+    CompletableFuture<Long> submit(Operation operation) {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        try {
+            capacity.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return result;
+        }
+        enqueue(new Command(operation, result, true));
+        return result;
+    }
+
+    /**
+     * Queue follow-up work from another shard's writer; never blocks, so two shards
+     * crediting each other cannot deadlock on full queues
+     */
+    CompletableFuture<Long> submitInternal(Operation operation) {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        enqueue(new Command(operation, result, false));
+        return result;
+    }
+
+    private void enqueue(Command command) {
+        stateLock.readLock().lock();
+        try {
+            if (running) {
+                queue.add(command);
+                return;
+            }
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        complete(command, new IOException("Ledger shard " + index + " is not running"));
+    }
+
+    private void runWriter() {
+        List<Command> batch = new ArrayList<>(maxBatchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                Command first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            for (Command command : batch) {
+                if (failure != null) {
+                    break;
+                }
+                try {
+                    command.value = command.operation.apply(this);
+                } catch (IOException e) {
+                    failure = e;
+                } catch (RuntimeException e) {
+                    command.error = e;
+                }
+            }
+
+            if (failure == null && !appended.isEmpty()) {
+                try {
+                    log.force();
+                } catch (RuntimeException e) {
+                    // MappedByteBuffer.force reports I/O errors unchecked
+                    failure = new IOException("Could not force ledger log of shard " + index, e);
+                }
+            }
+
+            if (failure == null && !appended.isEmpty() && listener != null) {
+                listener.accept(new ArrayList<>(appended));
+            }
+            appended.clear();
+
+            for (Command command : batch) {
+                // After a log failure the in-memory state may be ahead of the disk; acknowledge nothing
+                complete(command, failure != null ? failure : command.error);
+            }
+            batch.clear();
+        }
+    }
+
+    private void complete(Command command, Throwable error) {
+        if (command.external) {
+            capacity.release();
+        }
+        if (error != null) {
+            command.result.completeExceptionally(error);
+        } else {
+            command.result.complete(command.value);
+        }
+    }
+
+    private static final class Command {
+        private final Operation operation;
+        private final CompletableFuture<Long> result;
+        private final boolean external;
+        private long value;
+        private RuntimeException error;
+
+        private Command(Operation operation, CompletableFuture<Long> result, boolean external) {
+            this.operation = operation;
+            this.result = result;
+            this.external = external;
+        }
+    }
+}
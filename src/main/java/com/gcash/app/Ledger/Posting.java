@@ -0,0 +1,105 @@
+package com.gcash.app.Ledger;
+
+import com.gcash.app.Model.Money;
+
+/**
+ * One durable ledger entry, as written to a shard's write-ahead log.
+ * A transfer is a single posting in the sender's shard that debits the
+ * account and credits the counterparty.
+ */
+public final class Posting {
+
+    public enum Type {
+        OPEN(1), CASH_IN(2), TRANSFER(3);
+
+        private final int code;
+
+        Type(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        /**
+         * @param code Code stored in the log
+         * @return The type, or null if the code is not a known type
+         */
+        public static Type fromCode(int code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final int shard;
+    private final long sequence;
+    private final Type type;
+    private final long accountId;
+    private final long counterpartyId;
+    private final long amountCentavos;
+    private final long timestampMillis;
+
+    public Posting(int shard, long sequence, Type type, long accountId, long counterpartyId,
+                   long amountCentavos, long timestampMillis) {
+        this.shard = shard;
+        this.sequence = sequence;
+        this.type = type;
+        this.accountId = accountId;
+        this.counterpartyId = counterpartyId;
+        this.amountCentavos = amountCentavos;
+        this.timestampMillis = timestampMillis;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    /**
+     * @return Position in the shard's log, starting at 1
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return Account opened or credited, or the sender of a transfer
+     */
+    public long getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * @return Recipient of a transfer, 0 for other types
+     */
+    public long getCounterpartyId() {
+        return counterpartyId;
+    }
+
+    public Money getAmount() {
+        return Money.ofCentavos(amountCentavos);
+    }
+
+    public long getAmountCentavos() {
+        return amountCentavos;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Posting{shard=" + shard + ", sequence=" + sequence + ", type=" + type
+                + ", account=" + accountId + ", counterparty=" + counterpartyId
+                + ", amount=" + getAmount() + '}';
+    }
+}
@@ -0,0 +1,165 @@
+package com.gcash.app.Ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of one shard's postings in a memory-mapped file.
+ *
+ * The file is mapped one fixed-size segment at a time and grows a segment at a time.
+ * Records have a fixed size and never span segments. Unused space is zero, so replay
+ * stops at the first record with type 0, a bad checksum or an out-of-order sequence.
+ *
+ * Record layout (48 bytes): sequence (long), type (int), checksum (int), account (long),
+ * counterparty (long), amount in centavos (long), timestamp in millis (long).
+ */
+final class WriteAheadLog implements Closeable {
+    static final int RECORD_SIZE = 48;
+
+    private final int shard;
+    private final FileChannel channel;
+    private final long segmentBytes;
+
+    private MappedByteBuffer buffer;
+    private long bufferStart = -1;
+    private long position;
+    private long nextSequence = 1;
+
+    /**
+     * @param file Log file, created if missing
+     * @param shard Shard the log belongs to
+     * @param segmentBytes Size of each mapped segment; rounded down to whole records
+     * @throws IOException If the file cannot be opened
+     */
+    WriteAheadLog(Path file, int shard, long segmentBytes) throws IOException {
+        if (segmentBytes < RECORD_SIZE || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid segment size: " + segmentBytes);
+        }
+
+        this.shard = shard;
+        this.segmentBytes = segmentBytes - segmentBytes % RECORD_SIZE;
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Read every valid record from the start of the file and position the log after the last one.
+     * Anything after the first invalid record was never acknowledged and is discarded.
+     * @param consumer Receives each posting in order
+     * @throws IOException If the file cannot be read
+     */
+    void replay(Consumer<Posting> consumer) throws IOException {
+        position = 0;
+        nextSequence = 1;
+
+        while (true) {
+            mapSegmentFor(position);
+            int offset = (int) (position - bufferStart);
+
+            long sequence = buffer.getLong(offset);
+            int typeCode = buffer.getInt(offset + 8);
+            int checksum = buffer.getInt(offset + 12);
+            long account = buffer.getLong(offset + 16);
+            long counterparty = buffer.getLong(offset + 24);
+            long amount = buffer.getLong(offset + 32);
+            long timestamp = buffer.getLong(offset + 40);
+
+            Posting.Type type = Posting.Type.fromCode(typeCode);
+            if (type == null || sequence != nextSequence
+                    || checksum != checksum(sequence, typeCode, account, counterparty, amount, timestamp)) {
+                break;
+            }
+
+            consumer.accept(new Posting(shard, sequence, type, account, counterparty, amount, timestamp));
+            nextSequence++;
+            position += RECORD_SIZE;
+        }
+
+        // Clear a torn tail so stale records beyond it can never be replayed later
+        for (int i = (int) (position - bufferStart); i < segmentBytes; i++) {
+            buffer.put(i, (byte) 0);
+        }
+        buffer.force();
+        channel.truncate(bufferStart + segmentBytes);
+    }
+
+    /**
+     * Write a record; it is durable only after the next force()
+     * @return The posting as written, with its sequence number
+     * @throws IOException If the next segment cannot be mapped
+     */
+    Posting append(Posting.Type type, long account, long counterparty, long amount, long timestamp)
+            throws IOException {
+        mapSegmentFor(position);
+        int offset = (int) (position - bufferStart);
+        long sequence = nextSequence;
+
+        buffer.putLong(offset, sequence);
+        buffer.putInt(offset + 8, type.getCode());
+        buffer.putInt(offset + 12, checksum(sequence, type.getCode(), account, counterparty, amount, timestamp));
+        buffer.putLong(offset + 16, account);
+        buffer.putLong(offset + 24, counterparty);
+        buffer.putLong(offset + 32, amount);
+        buffer.putLong(offset + 40, timestamp);
+
+        nextSequence++;
+        position += RECORD_SIZE;
+        return new Posting(shard, sequence, type, account, counterparty, amount, timestamp);
+    }
+
+    /**
+     * Flush written records to the storage device
+     */
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * @return Sequence number the next appended record will get
+     */
+    long getNextSequence() {
+        return nextSequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer != null) {
+            buffer.force();
+        }
+        channel.close();
+    }
+
+    /**
+     * Make the segment containing the given file position the current buffer
+     */
+    private void mapSegmentFor(long filePosition) throws IOException {
+        long start = filePosition - filePosition % segmentBytes;
+        if (start == bufferStart) {
+            return;
+        }
+
+        if (buffer != null) {
+            buffer.force();
+        }
+        // Mapping past the end of the file extends it with zeros
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, start, segmentBytes);
+        bufferStart = start;
+    }
+
+    private static int checksum(long sequence, int type, long account, long counterparty, long amount,
+                                long timestamp) {
+        long h = sequence * 0x9E3779B97F4A7C15L;
+        h = (h ^ type) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ account) * 0x94D049BB133111EBL;
+        h = (h ^ counterparty) * 0x9E3779B97F4A7C15L;
+        h = (h ^ amount) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ timestamp) * 0x94D049BB133111EBL;
+        int c = (int) (h ^ (h >>> 32));
+        return c == 0 ? 1 : c; // Never 0, so a zero-filled record can't pass
+    }
+}
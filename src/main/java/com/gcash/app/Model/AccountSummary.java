@@ -0,0 +1,99 @@
+package com.gcash.app.Model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of one account, read from account_summary
+ */
+public class AccountSummary {
+    private final int userId;
+    private final int cashInCount;
+    private final Money cashInTotal;
+    private final Money cashInThisMonth;
+    private final int sentCount;
+    private final Money sentTotal;
+    private final int receivedCount;
+    private final Money receivedTotal;
+    private final LocalDateTime lastActivity;
+
+    public AccountSummary(int userId, int cashInCount, Money cashInTotal, Money cashInThisMonth,
+                          int sentCount, Money sentTotal, int receivedCount, Money receivedTotal,
+                          LocalDateTime lastActivity) {
+        this.userId = userId;
+        this.cashInCount = cashInCount;
+        this.cashInTotal = cashInTotal;
+        this.cashInThisMonth = cashInThisMonth;
+        this.sentCount = sentCount;
+        this.sentTotal = sentTotal;
+        this.receivedCount = receivedCount;
+        this.receivedTotal = receivedTotal;
+        this.lastActivity = lastActivity;
+    }
+
+    /**
+     * Summary of an account with no transactions yet
+     * @param userId User ID
+     * @return Summary with every total at zero
+     */
+    public static AccountSummary empty(int userId) {
+        return new AccountSummary(userId, 0, Money.ZERO, Money.ZERO, 0, Money.ZERO, 0, Money.ZERO, null);
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getCashInCount() {
+        return cashInCount;
+    }
+
+    public Money getCashInTotal() {
+        return cashInTotal;
+    }
+
+    public Money getCashInThisMonth() {
+        return cashInThisMonth;
+    }
+
+    public int getSentCount() {
+        return sentCount;
+    }
+
+    public Money getSentTotal() {
+        return sentTotal;
+    }
+
+    public int getReceivedCount() {
+        return receivedCount;
+    }
+
+    public Money getReceivedTotal() {
+        return receivedTotal;
+    }
+
+    /**
+     * @return Time of the latest transaction, or null if there are none
+     */
+    public LocalDateTime getLastActivity() {
+        return lastActivity;
+    }
+
+    public int getTransactionCount() {
+        return cashInCount + sentCount + receivedCount;
+    }
+
+    /**
+     * @return Cash-ins plus transfers received minus transfers sent, which equals the balance
+     */
+    public Money getRunningBalance() {
+        return cashInTotal.plus(receivedTotal).minus(sentTotal);
+    }
+
+    @Override
+    public String toString() {
+        return "Transactions: " + getTransactionCount() +
+                " | Cash in: " + cashInTotal + " (" + cashInCount + ", " + cashInThisMonth + " this month)" +
+                " | Sent: " + sentTotal + " (" + sentCount + ")" +
+                " | Received: " + receivedTotal + " (" + receivedCount + ")";
+    }
+}
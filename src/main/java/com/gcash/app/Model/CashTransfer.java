@@ -4,7 +4,7 @@ import java.time.LocalDateTime;
 
 public class CashTransfer {
     private int id;
-    private double amount;
+    private Money amount = Money.ZERO;
     private String name;
     private int account_id;
     private LocalDateTime date;
@@ -16,7 +16,7 @@ public class CashTransfer {
         this.date = LocalDateTime.now();
     }
 
-    public CashTransfer(double amount, int fromUserId, int toUserId) {
+    public CashTransfer(Money amount, int fromUserId, int toUserId) {
         this.amount = amount;
         this.account_id = fromUserId;
         this.transferToID = toUserId;
@@ -25,7 +25,7 @@ public class CashTransfer {
         this.date = LocalDateTime.now();
     }
 
-    public CashTransfer(int id, double amount, String name, int account_id, LocalDateTime date,
+    public CashTransfer(int id, Money amount, String name, int account_id, LocalDateTime date,
                         Integer transferToID, Integer transferFromID) {
         this.id = id;
         this.amount = amount;
@@ -45,11 +45,11 @@ public class CashTransfer {
         this.id = id;
     }
 
-    public double getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
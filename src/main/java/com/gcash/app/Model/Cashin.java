@@ -4,7 +4,7 @@ import java.time.LocalDateTime;
 
 public class Cashin {
     private int id;
-    private double amount;
+    private Money amount = Money.ZERO;
     private String name;
     private int account_id;
     private LocalDateTime date;
@@ -16,21 +16,21 @@ public class Cashin {
         this.date = LocalDateTime.now();
     }
 
-    public Cashin(double amount, int account_id) {
+    public Cashin(Money amount, int account_id) {
         this.amount = amount;
         this.account_id = account_id;
         this.name = "Cash In";
         this.date = LocalDateTime.now();
     }
 
-    public Cashin(double amount, String name, int account_id) {
+    public Cashin(Money amount, String name, int account_id) {
         this.amount = amount;
         this.name = name;
         this.account_id = account_id;
         this.date = LocalDateTime.now();
     }
 
-    public Cashin(int id, double amount, String name, int account_id, LocalDateTime date,
+    public Cashin(int id, Money amount, String name, int account_id, LocalDateTime date,
                   Integer transferToID, Integer transferFromID) {
         this.id = id;
         this.amount = amount;
@@ -50,11 +50,11 @@ public class Cashin {
         this.id = id;
     }
 
-    public double getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
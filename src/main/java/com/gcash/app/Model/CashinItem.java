@@ -0,0 +1,22 @@
+package com.gcash.app.Model;
+
+/**
+ * One entry of a bulk cash-in: the account to credit and the amount
+ */
+public class CashinItem {
+    private final int userId;
+    private final Money amount;
+
+    public CashinItem(int userId, Money amount) {
+        this.userId = userId;
+        this.amount = amount;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+}
@@ -0,0 +1,11 @@
+package com.gcash.app.Model;
+
+/**
+ * Outcome of one entry of a bulk cash-in
+ */
+public enum CashinResult {
+    SUCCESS,
+    INVALID_AMOUNT,
+    INVALID_USER,
+    DATABASE_ERROR
+}
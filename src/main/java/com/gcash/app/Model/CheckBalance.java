@@ -2,18 +2,18 @@ package com.gcash.app.Model;
 
 public class CheckBalance {
     private int id;
-    private double amount;
+    private Money amount = Money.ZERO;
     private int user_id;
 
     // Constructors
     public CheckBalance() {}
 
-    public CheckBalance(double amount, int user_id) {
+    public CheckBalance(Money amount, int user_id) {
         this.amount = amount;
         this.user_id = user_id;
     }
 
-    public CheckBalance(int id, double amount, int user_id) {
+    public CheckBalance(int id, Money amount, int user_id) {
         this.id = id;
         this.amount = amount;
         this.user_id = user_id;
@@ -28,11 +28,11 @@ public class CheckBalance {
         this.id = id;
     }
 
-    public double getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
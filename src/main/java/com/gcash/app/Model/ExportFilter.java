@@ -0,0 +1,57 @@
+package com.gcash.app.Model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Rows to include in a transaction export; null bounds are open
+ */
+public class ExportFilter {
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final Integer firstAccountId;
+    private final Integer lastAccountId;
+
+    /**
+     * @param from Earliest date, inclusive, or null
+     * @param to Latest date, exclusive, or null
+     * @param firstAccountId Lowest account ID, inclusive, or null
+     * @param lastAccountId Highest account ID, inclusive, or null
+     */
+    public ExportFilter(LocalDateTime from, LocalDateTime to, Integer firstAccountId, Integer lastAccountId) {
+        this.from = from;
+        this.to = to;
+        this.firstAccountId = firstAccountId;
+        this.lastAccountId = lastAccountId;
+    }
+
+    /**
+     * @return Filter that keeps every row
+     */
+    public static ExportFilter all() {
+        return new ExportFilter(null, null, null, null);
+    }
+
+    /**
+     * @param accountId The one account to export
+     * @return Filter that keeps every row of the account
+     */
+    public static ExportFilter account(int accountId) {
+        return new ExportFilter(null, null, accountId, accountId);
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public Integer getFirstAccountId() {
+        return firstAccountId;
+    }
+
+    public Integer getLastAccountId() {
+        return lastAccountId;
+    }
+}
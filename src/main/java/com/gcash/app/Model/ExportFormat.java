@@ -0,0 +1,20 @@
+package com.gcash.app.Model;
+
+/**
+ * File formats of a transaction export
+ */
+public enum ExportFormat {
+    /**
+     * UTF-8 CSV with a header row:
+     * id,amount,name,kind,account_id,date,transfer_to,transfer_from
+     */
+    CSV,
+
+    /**
+     * Big-endian records after the header "GCTX" + version (short):
+     * id int, amount in centavos long, kind byte, account_id int,
+     * date long (epoch seconds of the stored local time read as UTC),
+     * transfer_to int, transfer_from int (0 when absent), name as length short + UTF-8 bytes
+     */
+    BINARY
+}
@@ -0,0 +1,189 @@
+package com.gcash.app.Model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable peso amount stored as a whole number of centavos.
+ * Arithmetic is exact and throws ArithmeticException on overflow instead of wrapping.
+ */
+public final class Money implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    private static final int SCALE = 2;
+    private static final long CENTAVOS_PER_PESO = 100;
+
+    private final long centavos;
+
+    private Money(long centavos) {
+        this.centavos = centavos;
+    }
+
+    public static Money ofCentavos(long centavos) {
+        return centavos == 0 ? ZERO : new Money(centavos);
+    }
+
+    public static Money ofPesos(long pesos) {
+        return ofCentavos(Math.multiplyExact(pesos, CENTAVOS_PER_PESO));
+    }
+
+    /**
+     * Convert a DECIMAL column value, rounding half-even to centavos
+     * @param value Value read from JDBC, may be null
+     * @return The amount, or null if value is null
+     */
+    public static Money fromBigDecimal(BigDecimal value) {
+        if (value == null) {
+            return null;
+        }
+        return ofCentavos(value.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Parse a plain decimal amount such as "150", "-20.5" or "1000.25"
+     * @param text Amount with at most two decimal places
+     * @return The parsed amount
+     * @throws NumberFormatException If the text is not a valid amount or is out of range
+     */
+    public static Money parse(String text) {
+        if (text == null) {
+            throw new NumberFormatException("Amount is null");
+        }
+
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+
+        long value = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        try {
+            for (; i < length; i++) {
+                char c = text.charAt(i);
+                if (c == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                } else if (c >= '0' && c <= '9') {
+                    if (fractionDigits >= SCALE) {
+                        throw new NumberFormatException("More than " + SCALE + " decimal places: " + text);
+                    }
+                    value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+                    digits++;
+                    if (fractionDigits >= 0) {
+                        fractionDigits++;
+                    }
+                } else {
+                    throw new NumberFormatException("Invalid amount: " + text);
+                }
+            }
+
+            if (digits == 0) {
+                throw new NumberFormatException("Invalid amount: " + text);
+            }
+
+            for (int scale = Math.max(fractionDigits, 0); scale < SCALE; scale++) {
+                value = Math.multiplyExact(value, 10);
+            }
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+
+        return ofCentavos(negative ? -value : value);
+    }
+
+    public long getCentavos() {
+        return centavos;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(centavos, SCALE);
+    }
+
+    public Money plus(Money other) {
+        return ofCentavos(Math.addExact(centavos, other.centavos));
+    }
+
+    public Money minus(Money other) {
+        return ofCentavos(Math.subtractExact(centavos, other.centavos));
+    }
+
+    public Money negate() {
+        return ofCentavos(Math.negateExact(centavos));
+    }
+
+    public Money abs() {
+        return centavos < 0 ? negate() : this;
+    }
+
+    public int signum() {
+        return Long.signum(centavos);
+    }
+
+    public boolean isPositive() {
+        return centavos > 0;
+    }
+
+    public boolean isNegative() {
+        return centavos < 0;
+    }
+
+    public boolean isZero() {
+        return centavos == 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return centavos < other.centavos;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return centavos > other.centavos;
+    }
+
+    /**
+     * Append the amount as plain digits with two decimal places, e.g. "-1250.05"
+     * @param sb Builder to append to
+     * @return The same builder
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        long value = centavos;
+        if (value < 0) {
+            sb.append('-');
+            if (value == Long.MIN_VALUE) {
+                // -Long.MIN_VALUE overflows; split off the last digit first
+                sb.append(-(value / 1000)).append(-(value / 100 % 10)).append('.');
+                long fraction = -(value % 100);
+                return sb.append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+            }
+            value = -value;
+        }
+
+        long fraction = value % CENTAVOS_PER_PESO;
+        return sb.append(value / CENTAVOS_PER_PESO)
+                .append('.')
+                .append((char) ('0' + fraction / 10))
+                .append((char) ('0' + fraction % 10));
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(centavos, other.centavos);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money && ((Money) o).centavos == centavos);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(24)).toString();
+    }
+}
@@ -0,0 +1,154 @@
+package com.gcash.app.Model;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of comparing every balance row with the sum of that account's transactions
+ */
+public class ReconciliationReport {
+
+    /**
+     * An account whose balance does not match its transaction history
+     */
+    public static class Mismatch {
+        private final int userId;
+        private final Money balance;
+        private final Money ledgerTotal;
+
+        public Mismatch(int userId, Money balance, Money ledgerTotal) {
+            this.userId = userId;
+            this.balance = balance;
+            this.ledgerTotal = ledgerTotal;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        /**
+         * @return Stored balance, or null if the account has transactions but no balance row
+         */
+        public Money getBalance() {
+            return balance;
+        }
+
+        /**
+         * @return Sum of the account's transaction amounts, zero if it has none
+         */
+        public Money getLedgerTotal() {
+            return ledgerTotal;
+        }
+
+        /**
+         * @return Stored balance minus the ledger total; a missing balance row counts as zero
+         */
+        public Money getDifference() {
+            return (balance == null ? Money.ZERO : balance).minus(ledgerTotal);
+        }
+
+        @Override
+        public String toString() {
+            return "User #" + userId + ": balance " + (balance == null ? "missing" : balance.toString()) +
+                    ", transactions " + ledgerTotal + ", difference " + getDifference();
+        }
+    }
+
+    private final long accountsChecked;
+    private final long transactionRows;
+    private final long mismatchCount;
+    private final List<Mismatch> mismatches;
+    private final int partitions;
+    private final int failedPartitions;
+    private final long elapsedNanos;
+
+    public ReconciliationReport(long accountsChecked, long transactionRows, long mismatchCount,
+                                List<Mismatch> mismatches, int partitions, int failedPartitions,
+                                long elapsedNanos) {
+        this.accountsChecked = accountsChecked;
+        this.transactionRows = transactionRows;
+        this.mismatchCount = mismatchCount;
+        this.mismatches = mismatches;
+        this.partitions = partitions;
+        this.failedPartitions = failedPartitions;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getAccountsChecked() {
+        return accountsChecked;
+    }
+
+    public long getTransactionRows() {
+        return transactionRows;
+    }
+
+    /**
+     * @return Number of mismatched accounts, which may exceed getMismatches().size()
+     */
+    public long getMismatchCount() {
+        return mismatchCount;
+    }
+
+    /**
+     * @return Mismatched accounts in user ID order, capped at RECONCILE_MAX_REPORTED_MISMATCHES
+     */
+    public List<Mismatch> getMismatches() {
+        return mismatches;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * @return Account ranges that could not be read; their accounts are not in the counts
+     */
+    public int getFailedPartitions() {
+        return failedPartitions;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return true if every range was read and every balance matched
+     */
+    public boolean isConsistent() {
+        return mismatchCount == 0 && failedPartitions == 0;
+    }
+
+    public double getAccountsPerSecond() {
+        return perSecond(accountsChecked);
+    }
+
+    public double getRowsPerSecond() {
+        return perSecond(transactionRows);
+    }
+
+    private double perSecond(long count) {
+        return elapsedNanos == 0 ? 0.0 : count * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * Print the summary line, throughput and every reported mismatch
+     * @param out Destination
+     */
+    public void print(PrintStream out) {
+        out.printf("Reconciled %d accounts (%d transaction rows) in %d ms across %d partitions%n",
+                accountsChecked, transactionRows, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), partitions);
+        out.printf("Throughput: %.0f accounts/s, %.0f rows/s%n", getAccountsPerSecond(), getRowsPerSecond());
+        if (failedPartitions > 0) {
+            out.println("Failed partitions: " + failedPartitions);
+        }
+
+        out.println("Mismatches: " + mismatchCount);
+        for (Mismatch mismatch : mismatches) {
+            out.println("  " + mismatch);
+        }
+        if (mismatchCount > mismatches.size()) {
+            out.println("  ... " + (mismatchCount - mismatches.size()) + " more not listed");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.gcash.app.Model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position in a transaction history ordered by date and id, newest first.
+ * A page requested "before" a cursor starts with the row right after it.
+ */
+public class TransactionCursor {
+    private final LocalDateTime date;
+    private final int id;
+
+    public TransactionCursor(LocalDateTime date, int id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    /**
+     * Cursor pointing at the given transaction
+     * @param transaction Last transaction of the previous page
+     * @return Cursor for the next page
+     */
+    public static TransactionCursor after(Transactions transaction) {
+        return new TransactionCursor(transaction.getDate(), transaction.getId());
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public int getId() {
+        return id;
+    }
+}
@@ -0,0 +1,106 @@
+package com.gcash.app.Model;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.time.LocalDateTime;
+
+/**
+ * Writes transaction listings line by line into a buffered writer.
+ * Each line is built in one reused StringBuilder and copied into one reused
+ * char array, so printing a long history allocates nothing per row.
+ * Not thread-safe; use one formatter per output.
+ */
+public final class TransactionFormatter implements Flushable {
+    private static final int OUTPUT_BUFFER_CHARS = 64 * 1024;
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(128);
+    private char[] chars = new char[128];
+
+    /**
+     * @param out Destination; wrap it in a BufferedWriter unless it buffers already
+     */
+    public TransactionFormatter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Formatter over System.out with a large buffer; call flush() before prompting the user
+     * @return New formatter
+     */
+    public static TransactionFormatter toStandardOutput() {
+        String encoding = System.getProperty("stdout.encoding");
+        Charset charset = encoding != null ? Charset.forName(encoding) : Charset.defaultCharset();
+        return new TransactionFormatter(
+                new BufferedWriter(new OutputStreamWriter(System.out, charset), OUTPUT_BUFFER_CHARS));
+    }
+
+    /**
+     * Write one transaction followed by a line break
+     * @param transaction Transaction to print
+     * @throws IOException If the output fails
+     */
+    public void write(Transactions transaction) throws IOException {
+        line.setLength(0);
+        append(line, transaction).append('\n');
+
+        int length = line.length();
+        if (length > chars.length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        line.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Append the display form of a transaction, e.g.
+     * "[2025-03-01 14:05:09] ID: 42 | TRANSFER OUT | ₱-300.00 | Transfer to User #2"
+     * @param sb Builder to append to
+     * @param transaction Transaction to format
+     * @return The same builder
+     */
+    public static StringBuilder append(StringBuilder sb, Transactions transaction) {
+        sb.append('[');
+        appendDate(sb, transaction.getDate());
+        sb.append("] ID: ").append(transaction.getId())
+                .append(" | ").append(transaction.getKind().getLabel())
+                .append(" | ₱");
+
+        Money amount = transaction.getAmount();
+        if (!amount.isNegative()) {
+            sb.append('+');
+        }
+        amount.appendTo(sb); // Writes its own '-'
+        return sb.append(" | ").append(transaction.getName());
+    }
+
+    /**
+     * Append yyyy-MM-dd HH:mm:ss without going through a DateTimeFormatter
+     */
+    private static void appendDate(StringBuilder sb, LocalDateTime date) {
+        if (date == null) {
+            sb.append("unknown date");
+            return;
+        }
+
+        sb.append(date.getYear()).append('-');
+        appendTwoDigits(sb, date.getMonthValue()).append('-');
+        appendTwoDigits(sb, date.getDayOfMonth()).append(' ');
+        appendTwoDigits(sb, date.getHour()).append(':');
+        appendTwoDigits(sb, date.getMinute()).append(':');
+        appendTwoDigits(sb, date.getSecond());
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder sb, int value) {
+        return sb.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
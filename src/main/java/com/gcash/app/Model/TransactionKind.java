@@ -0,0 +1,57 @@
+package com.gcash.app.Model;
+
+/**
+ * Type of a transaction row, stored as a small code in transaction.kind
+ */
+public enum TransactionKind {
+    UNKNOWN(0, "TRANSACTION"),
+    CASH_IN(1, "CASH IN"),
+    TRANSFER_OUT(2, "TRANSFER OUT"),
+    TRANSFER_IN(3, "TRANSFER IN");
+
+    private static final TransactionKind[] BY_CODE = values();
+
+    private final int code;
+    private final String label;
+
+    TransactionKind(int code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return Upper-case label shown in transaction listings
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @param code Value of transaction.kind
+     * @return The kind, or UNKNOWN for an unrecognised code
+     */
+    public static TransactionKind fromCode(int code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : UNKNOWN;
+    }
+
+    /**
+     * Derive the kind of a row from the accounts it references, for rows written before the kind column
+     * @param accountId Account the row belongs to
+     * @param transferToId Transfer recipient, or null for a cash-in
+     * @param transferFromId Transfer sender, or null for a cash-in
+     * @return The kind
+     */
+    public static TransactionKind classify(int accountId, Integer transferToId, Integer transferFromId) {
+        if (transferToId == null) {
+            return CASH_IN;
+        }
+        if (transferFromId != null && transferFromId == accountId) {
+            return TRANSFER_OUT;
+        }
+        return transferToId == accountId ? TRANSFER_IN : UNKNOWN;
+    }
+}
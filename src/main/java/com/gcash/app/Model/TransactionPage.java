@@ -0,0 +1,31 @@
+package com.gcash.app.Model;
+
+import java.util.List;
+
+/**
+ * One page of a transaction history plus the cursor for the next page
+ */
+public class TransactionPage {
+    private final List<Transactions> transactions;
+    private final TransactionCursor nextCursor;
+
+    public TransactionPage(List<Transactions> transactions, TransactionCursor nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Transactions> getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * @return Cursor to pass for the next page, or null if this is the last page
+     */
+    public TransactionCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -4,8 +4,9 @@ import java.time.LocalDateTime;
 
 public class Transactions {
     private int id;
-    private double amount;
+    private Money amount = Money.ZERO;
     private String name;
+    private TransactionKind kind = TransactionKind.UNKNOWN;
     private int account_id;
     private LocalDateTime date;
     private Integer transferToID;
@@ -14,11 +15,18 @@ public class Transactions {
     // Constructors
     public Transactions() {}
 
-    public Transactions(int id, double amount, String name, int account_id, LocalDateTime date,
+    public Transactions(int id, Money amount, String name, int account_id, LocalDateTime date,
                         Integer transferToID, Integer transferFromID) {
+        this(id, amount, name, TransactionKind.classify(account_id, transferToID, transferFromID),
+                account_id, date, transferToID, transferFromID);
+    }
+
+    public Transactions(int id, Money amount, String name, TransactionKind kind, int account_id,
+                        LocalDateTime date, Integer transferToID, Integer transferFromID) {
         this.id = id;
         this.amount = amount;
         this.name = name;
+        this.kind = kind;
         this.account_id = account_id;
         this.date = date;
         this.transferToID = transferToID;
@@ -34,11 +42,11 @@ public class Transactions {
         this.id = id;
     }
 
-    public double getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -50,6 +58,14 @@ public class Transactions {
         this.name = name;
     }
 
+    public TransactionKind getKind() {
+        return kind;
+    }
+
+    public void setKind(TransactionKind kind) {
+        this.kind = kind;
+    }
+
     public int getAccount_id() {
         return account_id;
     }
@@ -84,25 +100,6 @@ public class Transactions {
 
     @Override
     public String toString() {
-        String transactionType;
-        if (name.startsWith("Cash In")) {
-            transactionType = "CASH IN";
-        } else if (name.startsWith("Transfer to")) {
-            transactionType = "TRANSFER OUT";
-        } else if (name.startsWith("Transfer from")) {
-            transactionType = "TRANSFER IN";
-        } else {
-            transactionType = "TRANSACTION";
-        }
-
-        String amountStr = String.format("%.2f", Math.abs(amount));
-        if (amount >= 0) {
-            amountStr = "+" + amountStr;
-        } else {
-            amountStr = "-" + amountStr;
-        }
-
-        return String.format("[%s] ID: %d | %s | ₱%s | %s",
-                date.toString(), id, transactionType, amountStr, name);
-    }
-}
\ No newline at end of file
+        return TransactionFormatter.append(new StringBuilder(96), this).toString();
+    }
+}
@@ -0,0 +1,176 @@
+package com.gcash.app.Security;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.gcash.app.util.EvictionSampler;
+
+/**
+ * In-memory login throttle keyed by identifier and by source address.
+ *
+ * Each key has a sliding-window counter: the attempts of the current fixed window plus the
+ * previous window's attempts weighted by how much of it still overlaps the sliding window.
+ * That approximates a true sliding log with two ints per key. Each map is bounded; when one
+ * is full, the least recently touched of a few randomly sampled keys is evicted. Keys that are
+ * currently over their limit are passed over, so flooding the map with throwaway identifiers
+ * does not reset the throttle of the keys being attacked.
+ */
+public class LoginRateLimiter {
+    private final int identifierLimit;
+    private final int sourceLimit;
+    private final long windowNanos;
+    private final int maxKeys;
+
+    private final ConcurrentHashMap<String, Window> identifiers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Window> sources = new ConcurrentHashMap<>();
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder identifierRejections = new LongAdder();
+    private final LongAdder sourceRejections = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param identifierLimit Attempts allowed per identifier per window
+     * @param sourceLimit Attempts allowed per source per window
+     * @param windowMs Length of the sliding window
+     * @param maxKeys Keys tracked per map before the oldest are evicted
+     */
+    public LoginRateLimiter(int identifierLimit, int sourceLimit, long windowMs, int maxKeys) {
+        if (identifierLimit <= 0 || sourceLimit <= 0 || windowMs <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("Invalid login rate limit settings");
+        }
+
+        this.identifierLimit = identifierLimit;
+        this.sourceLimit = sourceLimit;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Count a login attempt, or reject it if the source or identifier is over its limit
+     * @param identifier Email or phone number being logged into
+     * @param source Client address, or null when there is none (e.g. the console)
+     * @return true if the attempt may proceed
+     */
+    public boolean tryAcquire(String identifier, String source) {
+        long now = System.nanoTime();
+
+        // The source is checked first, so a spray across many identifiers is cut off there
+        if (source != null && !window(sources, source, sourceLimit).tryAcquire(now, windowNanos, sourceLimit)) {
+            sourceRejections.increment();
+            return false;
+        }
+        Window identifierWindow = window(identifiers, normalize(identifier), identifierLimit);
+        if (!identifierWindow.tryAcquire(now, windowNanos, identifierLimit)) {
+            identifierRejections.increment();
+            return false;
+        }
+
+        allowed.increment();
+        return true;
+    }
+
+    /**
+     * Forget an identifier's failed attempts after it logs in successfully
+     * @param identifier Email or phone number
+     */
+    public void recordSuccess(String identifier) {
+        identifiers.remove(normalize(identifier));
+    }
+
+    /**
+     * Drop every counter, e.g. between tests
+     */
+    public void clear() {
+        identifiers.clear();
+        sources.clear();
+    }
+
+    public int size() {
+        return identifiers.size() + sources.size();
+    }
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    public long getIdentifierRejectionCount() {
+        return identifierRejections.sum();
+    }
+
+    public long getSourceRejectionCount() {
+        return sourceRejections.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "keys=" + size() + " allowed=" + getAllowedCount()
+                + " rejected[identifier=" + getIdentifierRejectionCount()
+                + " source=" + getSourceRejectionCount() + "] evictions=" + getEvictionCount();
+    }
+
+    private Window window(ConcurrentHashMap<String, Window> windows, String key, int limit) {
+        Window window = windows.get(key);
+        if (window != null) {
+            return window;
+        }
+
+        if (windows.size() >= maxKeys) {
+            evictOne(windows, limit);
+        }
+        return windows.computeIfAbsent(key, k -> new Window());
+    }
+
+    /**
+     * Evict the least recently touched of a few randomly sampled keys, keeping keys that are over their limit
+     */
+    private void evictOne(ConcurrentHashMap<String, Window> windows, int limit) {
+        long now = System.nanoTime();
+        String victim = EvictionSampler.selectVictim(windows, window -> window.touchedNanos,
+                window -> window.isLimited(now, windowNanos, limit));
+        if (victim != null && windows.remove(victim) != null) {
+            evictions.increment();
+        }
+    }
+
+    private static String normalize(String identifier) {
+        return identifier.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Attempt counts of the current and previous fixed windows of one key
+     */
+    private static final class Window {
+        private long index = Long.MIN_VALUE;
+        private int current;
+        private int previous;
+        private volatile long touchedNanos;
+
+        private synchronized boolean tryAcquire(long now, long windowNanos, int limit) {
+            touchedNanos = now;
+            if (isLimited(now, windowNanos, limit)) {
+                return false;
+            }
+            current++;
+            return true;
+        }
+
+        private synchronized boolean isLimited(long now, long windowNanos, int limit) {
+            long nowIndex = Math.floorDiv(now, windowNanos);
+            if (nowIndex != index) {
+                previous = nowIndex == index + 1 ? current : 0;
+                current = 0;
+                index = nowIndex;
+            }
+
+            double overlap = 1.0 - (double) Math.floorMod(now, windowNanos) / windowNanos;
+            return previous * overlap + current >= limit;
+        }
+    }
+}
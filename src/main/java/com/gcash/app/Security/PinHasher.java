@@ -0,0 +1,105 @@
+package com.gcash.app.Security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 PIN hashing with one reusable digest and scratch buffers per thread.
+ * Hashing a PIN allocates only the returned array or string.
+ */
+public final class PinHasher {
+    public static final int HASH_LENGTH = 32;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private PinHasher() {
+    }
+
+    /**
+     * Hash a PIN to its raw digest, as stored in the BINARY(32) pin_hash column
+     * @param pin PIN to hash
+     * @return New 32-byte SHA-256 digest
+     */
+    public static byte[] hash(String pin) {
+        return digest(pin).clone();
+    }
+
+    /**
+     * Hash a PIN to lowercase hex, as stored in the legacy pin column
+     * @param pin PIN to hash
+     * @return 64-character hex SHA-256 digest
+     */
+    public static String hashHex(String pin) {
+        return toHex(digest(pin));
+    }
+
+    /**
+     * Compare a PIN against a stored digest in constant time
+     * @param pin PIN to check
+     * @param expected Stored 32-byte digest
+     * @return true if the PIN hashes to the expected digest
+     */
+    public static boolean matches(String pin, byte[] expected) {
+        return expected != null && MessageDigest.isEqual(digest(pin), expected);
+    }
+
+    /**
+     * Encode bytes as lowercase hex using a lookup table
+     * @param bytes Bytes to encode
+     * @return Hex string, two characters per byte
+     */
+    public static String toHex(byte[] bytes) {
+        char[] hex = bytes.length == HASH_LENGTH ? SCRATCH.get().hex : new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xff;
+            hex[i * 2] = HEX_DIGITS[b >>> 4];
+            hex[i * 2 + 1] = HEX_DIGITS[b & 0x0f];
+        }
+        return new String(hex, 0, bytes.length * 2);
+    }
+
+    /**
+     * Hash into the calling thread's scratch buffer; the result is overwritten by the next call
+     */
+    private static byte[] digest(String pin) {
+        Scratch scratch = SCRATCH.get();
+        MessageDigest digest = scratch.digest;
+
+        for (int i = 0; i < pin.length(); i++) {
+            char c = pin.charAt(i);
+            if (c >= 0x80) {
+                // Non-ASCII input: fall back to a full UTF-8 encode
+                digest.reset();
+                digest.update(pin.getBytes(StandardCharsets.UTF_8));
+                break;
+            }
+            digest.update((byte) c);
+        }
+
+        try {
+            digest.digest(scratch.hash, 0, HASH_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException("SHA-256 digest failed", e);
+        }
+        return scratch.hash;
+    }
+
+    private static final class Scratch {
+        private final MessageDigest digest;
+        private final byte[] hash = new byte[HASH_LENGTH];
+        private final char[] hex = new char[HASH_LENGTH * 2];
+
+        private Scratch() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                // Every Java platform is required to support SHA-256
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
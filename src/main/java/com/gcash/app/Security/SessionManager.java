@@ -1,22 +1,45 @@
 package com.gcash.app.Security;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.time.temporal.ChronoUnit;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 import com.gcash.app.util.AppConfig;
 
 public class SessionManager {
-    private static final Map<Integer, Session> sessions = new HashMap<>();
+    private static final long TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(AppConfig.SESSION_TIMEOUT_MINUTES);
+
+    private static final Map<Integer, Session> sessions = new ConcurrentHashMap<>();
+    private static final AtomicLong nextSessionId = new AtomicLong();
+
+    private static volatile ScheduledExecutorService sweeper;
+    private static final AtomicLong sweepCount = new AtomicLong();
+    private static final AtomicLong expiredCount = new AtomicLong();
+    private static volatile long lastSweepNanos;
 
     public static class Session {
+        private final long id;
         private final int userId;
-        private LocalDateTime lastActivity;
+        // System.nanoTime() of the last activity; monotonic and allocation-free to update
+        private volatile long lastActivityNanos;
 
         public Session(int userId) {
+            this.id = nextSessionId.incrementAndGet();
             this.userId = userId;
-            this.lastActivity = LocalDateTime.now();
+            this.lastActivityNanos = System.nanoTime();
+        }
+
+        /**
+         * @return ID unique to this login; a later login of the same user gets a new one
+         */
+        public long getId() {
+            return id;
         }
 
         public int getUserId() {
@@ -24,26 +47,41 @@ public class SessionManager {
         }
 
         public LocalDateTime getLastActivity() {
-            return lastActivity;
+            long idleNanos = System.nanoTime() - lastActivityNanos;
+            return LocalDateTime.now().minus(idleNanos / 1000, ChronoUnit.MICROS);
         }
 
         public void updateActivity() {
-            this.lastActivity = LocalDateTime.now();
+            this.lastActivityNanos = System.nanoTime();
         }
 
         public boolean isExpired() {
-            return lastActivity.plusMinutes(AppConfig.SESSION_TIMEOUT_MINUTES)
-                    .isBefore(LocalDateTime.now());
+            return isExpired(System.nanoTime());
+        }
+
+        private boolean isExpired(long nowNanos) {
+            return nowNanos - lastActivityNanos > TIMEOUT_NANOS;
         }
     }
 
     public static boolean createSession(int userId) {
+        return openSession(userId) != 0;
+    }
+
+    /**
+     * Start a new session for the user, replacing any earlier one
+     * @param userId User ID
+     * @return ID of the new session, or 0 if the user ID is invalid
+     */
+    public static long openSession(int userId) {
         if (userId <= 0) {
-            return false;
+            return 0;
         }
 
-        sessions.put(userId, new Session(userId));
-        return true;
+        startSweeper();
+        Session session = new Session(userId);
+        sessions.put(userId, session);
+        return session.getId();
     }
 
     public static boolean isSessionValid(int userId) {
@@ -53,7 +91,32 @@ public class SessionManager {
         }
 
         if (session.isExpired()) {
-            sessions.remove(userId);
+            if (sessions.remove(userId, session)) {
+                expiredCount.incrementAndGet();
+            }
+            return false;
+        }
+
+        session.updateActivity();
+        return true;
+    }
+
+    /**
+     * Check that the user's session is still the one with the given ID, and refresh it if so
+     * @param userId User ID
+     * @param sessionId ID returned by openSession() at login
+     * @return false if the session ended or was replaced by a later login
+     */
+    public static boolean isSessionValid(int userId, long sessionId) {
+        Session session = sessions.get(userId);
+        if (session == null || session.getId() != sessionId) {
+            return false;
+        }
+
+        if (session.isExpired()) {
+            if (sessions.remove(userId, session)) {
+                expiredCount.incrementAndGet();
+            }
             return false;
         }
 
@@ -61,7 +124,86 @@ public class SessionManager {
         return true;
     }
 
+    /**
+     * Check without refreshing it that the session with the given ID is still the user's live session
+     * @param userId User ID
+     * @param sessionId Session ID
+     * @return true if the session exists, matches and has not timed out
+     */
+    public static boolean isSessionCurrent(int userId, long sessionId) {
+        Session session = sessions.get(userId);
+        return session != null && session.getId() == sessionId && !session.isExpired();
+    }
+
     public static boolean invalidateSession(int userId) {
         return sessions.remove(userId) != null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Number of sessions currently held, including expired ones not yet swept
+     * @return Session count
+     */
+    public static int getSessionCount() {
+        return sessions.size();
+    }
+
+    public static long getSweepCount() {
+        return sweepCount.get();
+    }
+
+    public static long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    /**
+     * @return Duration of the most recent sweep in nanoseconds
+     */
+    public static long getLastSweepNanos() {
+        return lastSweepNanos;
+    }
+
+    /**
+     * Remove every session that has been idle past the timeout at the given time
+     * @param nowNanos Current System.nanoTime()
+     * @return Number of sessions removed
+     */
+    static int sweep(long nowNanos) {
+        long start = System.nanoTime();
+        int removed = 0;
+
+        for (Session session : sessions.values()) {
+            // Conditional remove so a session refreshed or replaced meanwhile survives
+            if (session.isExpired(nowNanos) && sessions.remove(session.getUserId(), session)) {
+                removed++;
+            }
+        }
+
+        expiredCount.addAndGet(removed);
+        sweepCount.incrementAndGet();
+        lastSweepNanos = System.nanoTime() - start;
+        return removed;
+    }
+
+    /**
+     * Start the background sweeper on first use so abandoned sessions are reclaimed
+     */
+    private static void startSweeper() {
+        if (sweeper != null) {
+            return;
+        }
+
+        synchronized (SessionManager.class) {
+            if (sweeper == null) {
+                ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread t = new Thread(r, "gcash-session-sweeper");
+                    t.setDaemon(true);
+                    return t;
+                });
+                executor.scheduleWithFixedDelay(() -> sweep(System.nanoTime()),
+                        AppConfig.SESSION_SWEEP_INTERVAL_SECONDS, AppConfig.SESSION_SWEEP_INTERVAL_SECONDS,
+                        TimeUnit.SECONDS);
+                sweeper = executor;
+            }
+        }
+    }
+}
@@ -4,12 +4,20 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletionException;
 import java.util.regex.Pattern;
 
+import com.gcash.app.Ledger.Ledger;
+import com.gcash.app.Model.Money;
 import com.gcash.app.Model.Users;
+import com.gcash.app.Service.UserService;
+import com.gcash.app.util.AppConfig;
 import com.gcash.app.util.DatabaseConnection;
+import com.gcash.app.util.EventLog;
+import com.gcash.app.util.Metrics;
+import com.gcash.app.util.ServiceMetric;
+import com.gcash.app.util.SqlStatements;
+import com.gcash.app.util.SqlTimer;
 
 public class UserAuthentication {
 
@@ -25,32 +33,49 @@ public class UserAuthentication {
     private static final Pattern PIN_PATTERN =
             Pattern.compile("^\\d{4}$");
 
+    private static final ServiceMetric REGISTER = Metrics.register("UserAuthentication.register", "ok", "failed");
+    private static final ServiceMetric LOGIN =
+            Metrics.register("UserAuthentication.login", "success", "failure", "throttled");
+
+    /**
+     * Returned by login() when the attempt was rejected by the rate limiter
+     */
+    public static final int LOGIN_THROTTLED = -2;
+
+    private static final LoginRateLimiter rateLimiter = new LoginRateLimiter(AppConfig.MAX_LOGIN_ATTEMPTS,
+            AppConfig.LOGIN_SOURCE_MAX_ATTEMPTS, AppConfig.LOGIN_WINDOW_MS, AppConfig.LOGIN_LIMITER_MAX_KEYS);
+
     /**
      * Register a new user
      * @param user User object containing registration information
      * @return User ID if successful, -1 if failed
      */
     public int register(Users user) {
+        long start = System.nanoTime();
+        long sqlStart = SqlTimer.current();
+        int userId = performRegister(user);
+        REGISTER.record(userId > 0 ? 0 : 1, start, sqlStart);
+        return userId;
+    }
+
+    private int performRegister(Users user) {
         // Validate input fields
         if (!validateRegistration(user)) {
             return -1;
         }
 
         // Hash the PIN before storing
-        String hashedPin = hashPin(user.getPin());
-        if (hashedPin == null) {
-            return -1;
-        }
+        byte[] pinHash = PinHasher.hash(user.getPin());
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(
-                     "INSERT INTO users (name, email, number, pin) VALUES (?, ?, ?, ?)",
-                     PreparedStatement.RETURN_GENERATED_KEYS)) {
+                     SqlStatements.USER_INSERT, PreparedStatement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, user.getName());
             pstmt.setString(2, user.getEmail());
             pstmt.setString(3, user.getNumber());
-            pstmt.setString(4, hashedPin);
+            pstmt.setString(4, PinHasher.toHex(pinHash));
+            pstmt.setBytes(5, pinHash);
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows == 0) {
@@ -59,17 +84,37 @@ public class UserAuthentication {
 
             try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
+                    int userId = generatedKeys.getInt(1);
+                    UserService.userAdded(userId);
+                    DatabaseConnection.recordWrite(userId);
+                    openLedgerAccount(userId);
+                    return userId;
                 } else {
                     return -1;
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Registration error: " + e.getMessage());
+            EventLog.error("register.error").with("error", e.getMessage()).log();
             return -1;
         }
     }
 
+    /**
+     * Open the new user's account when balances live in the in-memory ledger
+     */
+    private void openLedgerAccount(int userId) {
+        Ledger ledger = Ledger.active();
+        if (ledger == null) {
+            return;
+        }
+
+        try {
+            ledger.openAccount(userId, Money.ZERO).join();
+        } catch (CompletionException e) {
+            EventLog.error("register.ledger_error").with("user", userId).with("error", e.getCause().getMessage()).log();
+        }
+    }
+
     /**
      * Validate registration fields
      * @param user User to validate
@@ -110,9 +155,45 @@ public class UserAuthentication {
      * Login user with number/email and PIN
      * @param userIdentifier Email or phone number
      * @param pin PIN code
-     * @return User ID if successful, -1 if failed
+     * @return User ID if successful, LOGIN_THROTTLED if rate limited, -1 if failed
      */
     public int login(String userIdentifier, String pin) {
+        return login(userIdentifier, pin, null);
+    }
+
+    /**
+     * Login user with number/email and PIN, throttled per identifier and per source.
+     * A rejected attempt returns before the PIN is hashed or the database is queried.
+     * @param userIdentifier Email or phone number
+     * @param pin PIN code
+     * @param source Client address to throttle by, or null for none
+     * @return User ID if successful, LOGIN_THROTTLED if rate limited, -1 if failed
+     */
+    public int login(String userIdentifier, String pin, String source) {
+        return login(userIdentifier, pin, source, true);
+    }
+
+    /**
+     * Check credentials like login() without opening a session, for callers that open it
+     * themselves with SessionManager.openSession() and need the session ID
+     * @param userIdentifier Email or phone number
+     * @param pin PIN code
+     * @param source Client address to throttle by, or null for none
+     * @return User ID if successful, LOGIN_THROTTLED if rate limited, -1 if failed
+     */
+    public int authenticate(String userIdentifier, String pin, String source) {
+        return login(userIdentifier, pin, source, false);
+    }
+
+    private int login(String userIdentifier, String pin, String source, boolean openSession) {
+        long start = System.nanoTime();
+        long sqlStart = SqlTimer.current();
+        int userId = performLogin(userIdentifier, pin, source, openSession);
+        LOGIN.record(userId > 0 ? 0 : userId == LOGIN_THROTTLED ? 2 : 1, start, sqlStart);
+        return userId;
+    }
+
+    private int performLogin(String userIdentifier, String pin, String source, boolean openSession) {
         // Check for null values
         if (userIdentifier == null || pin == null) {
             return -1;
@@ -128,31 +209,43 @@ public class UserAuthentication {
             return -1;
         }
 
-        String hashedPin = hashPin(pin);
-        if (hashedPin == null) {
-            return -1;
+        // Look up by a single indexed column; an OR across email and number defeats the indexes
+        String sql;
+        if (EMAIL_PATTERN.matcher(userIdentifier).matches()) {
+            sql = SqlStatements.USER_LOGIN_BY_EMAIL;
+        } else if (PHONE_PATTERN.matcher(userIdentifier).matches()) {
+            sql = SqlStatements.USER_LOGIN_BY_NUMBER;
+        } else {
+            return -1; // Neither an email nor a phone number, no such user
+        }
+
+        if (!rateLimiter.tryAcquire(userIdentifier, source)) {
+            return LOGIN_THROTTLED;
         }
 
+        byte[] pinHash = PinHasher.hash(pin);
+
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT id FROM users WHERE (email = ? OR number = ?) AND pin = ?")) {
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, userIdentifier);
-            pstmt.setString(2, userIdentifier);
-            pstmt.setString(3, hashedPin);
+            pstmt.setBytes(2, pinHash);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
                     int userId = rs.getInt("id");
+                    rateLimiter.recordSuccess(userIdentifier);
                     // Create a session for the user
-                    SessionManager.createSession(userId);
+                    if (openSession) {
+                        SessionManager.createSession(userId);
+                    }
                     return userId;
                 } else {
                     return -1; // Login failed
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Login error: " + e.getMessage());
+            EventLog.error("login.error").with("error", e.getMessage()).log();
             return -1;
         }
     }
@@ -179,37 +272,23 @@ public class UserAuthentication {
             return false;
         }
 
-        String hashedOldPin = hashPin(oldPin);
-        String hashedNewPin = hashPin(newPin);
-
-        if (hashedOldPin == null || hashedNewPin == null) {
-            return false;
-        }
+        byte[] oldPinHash = PinHasher.hash(oldPin);
+        byte[] newPinHash = PinHasher.hash(newPin);
 
+        // Verify the old PIN and store the new one in a single statement
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement verifyStmt = conn.prepareStatement(
-                     "SELECT id FROM users WHERE id = ? AND pin = ?");
-             PreparedStatement updateStmt = conn.prepareStatement(
-                     "UPDATE users SET pin = ? WHERE id = ?")) {
-
-            // First verify the old PIN
-            verifyStmt.setInt(1, userId);
-            verifyStmt.setString(2, hashedOldPin);
-
-            ResultSet rs = verifyStmt.executeQuery();
-            if (!rs.next()) {
-                return false; // Old PIN doesn't match
-            }
+             PreparedStatement updateStmt = conn.prepareStatement(SqlStatements.USER_UPDATE_PIN)) {
 
-            // Update to new PIN
-            updateStmt.setString(1, hashedNewPin);
-            updateStmt.setInt(2, userId);
+            updateStmt.setString(1, PinHasher.toHex(newPinHash));
+            updateStmt.setBytes(2, newPinHash);
+            updateStmt.setInt(3, userId);
+            updateStmt.setBytes(4, oldPinHash);
 
             int affectedRows = updateStmt.executeUpdate();
-            return affectedRows > 0;
+            return affectedRows > 0; // 0 when the old PIN doesn't match
 
         } catch (SQLException e) {
-            System.err.println("Change PIN error: " + e.getMessage());
+            EventLog.error("change_pin.error").with("user", userId).with("error", e.getMessage()).log();
             return false;
         }
     }
@@ -224,28 +303,10 @@ public class UserAuthentication {
     }
 
     /**
-     * Hash PIN using SHA-256 algorithm
-     * @param pin PIN to hash
-     * @return Hashed PIN or null if error
+     * Get the login rate limiter, e.g. to read its rejection counters
+     * @return The shared rate limiter
      */
-    private String hashPin(String pin) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(pin.getBytes());
-            StringBuilder hexString = new StringBuilder();
-
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            System.err.println("Hashing error: " + e.getMessage());
-            return null;
-        }
+    public static LoginRateLimiter getRateLimiter() {
+        return rateLimiter;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,387 @@
+package com.gcash.app.Server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.gcash.app.Model.CheckBalance;
+import com.gcash.app.Model.Money;
+import com.gcash.app.Model.TransactionCursor;
+import com.gcash.app.Model.TransactionPage;
+import com.gcash.app.Model.Transactions;
+import com.gcash.app.Model.Users;
+import com.gcash.app.Security.SessionManager;
+import com.gcash.app.Security.UserAuthentication;
+import com.gcash.app.Service.BalanceService;
+import com.gcash.app.Service.TransactionService;
+import com.gcash.app.Service.UserService;
+import com.gcash.app.util.AppConfig;
+import com.gcash.app.util.EventLog;
+import com.gcash.app.util.Metrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Headless HTTP front end for the service layer, so one JVM can serve many customers at once.
+ *
+ * Requests and responses are small JSON objects. Log in to get a token and send it as
+ * "Authorization: Bearer &lt;token&gt;" on every other call.
+ *
+ * <pre>
+ * POST /register  {"name", "email", "number", "pin"}  -> {"userId"}
+ * POST /login     {"identifier", "pin"}               -> {"userId", "token"}
+ * POST /logout                                        -> {"ok"}
+ * GET  /balance                                       -> {"userId", "amount"}
+ * POST /cashin    {"amount"}                          -> {"ok"}
+ * POST /transfer  {"to", "amount"}                    -> {"code"} as returned by cashTransfer
+ * GET  /history?limit=20&amp;before=cursor                -> {"transactions": [...], "next"}
+ * </pre>
+ *
+ * Each request runs on its own virtual thread when the JVM supports them (Java 21+),
+ * otherwise on a bounded platform thread pool.
+ */
+public class GcashServer {
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+    private final UserAuthentication auth = new UserAuthentication();
+    private final SessionTokens tokens = new SessionTokens();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Create a server bound to the given port; call start() to accept requests
+     * @param port Port to listen on, 0 for any free port
+     * @throws IOException If the port cannot be bound
+     */
+    public GcashServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), AppConfig.SERVER_BACKLOG);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+
+        server.createContext("/register", exchange -> dispatch(exchange, "POST", false, this::register));
+        server.createContext("/login", exchange -> dispatch(exchange, "POST", false,
+                (params, userId, token) -> login(params, exchange.getRemoteAddress().getAddress().getHostAddress())));
+        server.createContext("/logout", exchange -> dispatch(exchange, "POST", true, this::logout));
+        server.createContext("/balance", exchange -> dispatch(exchange, "GET", true, this::balance));
+        server.createContext("/cashin", exchange -> dispatch(exchange, "POST", true, this::cashin));
+        server.createContext("/transfer", exchange -> dispatch(exchange, "POST", true, this::transfer));
+        server.createContext("/history", exchange -> dispatch(exchange, "GET", true, this::history));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : AppConfig.SERVER_PORT;
+        GcashServer gcashServer = new GcashServer(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(gcashServer::stop, "gcash-server-shutdown"));
+        gcashServer.start();
+        Metrics.start();
+        UserService.load();
+        System.out.println("GCash server listening on port " + gcashServer.getPort());
+    }
+
+    public void start() {
+        tokens.start(AppConfig.SESSION_SWEEP_INTERVAL_SECONDS);
+        server.start();
+    }
+
+    /**
+     * Stop accepting requests and wait briefly for those in progress
+     */
+    public void stop() {
+        server.stop(1);
+        tokens.close();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Handles one endpoint
+     */
+    private interface Endpoint {
+        Reply handle(Map<String, String> params, int userId, String token);
+    }
+
+    private static final class Reply {
+        private final int status;
+        private final String body;
+
+        private Reply(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private Reply register(Map<String, String> params, int userId, String token) {
+        Users user = new Users(params.get("name"), params.get("email"), params.get("number"), params.get("pin"));
+        int newUserId = auth.register(user);
+        if (newUserId <= 0) {
+            return new Reply(400, Json.error("Registration failed"));
+        }
+        return new Reply(201, "{\"userId\":" + newUserId + "}");
+    }
+
+    private Reply login(Map<String, String> params, String source) {
+        // Open the session here so the token is bound to this login's session, not a concurrent one
+        int loggedIn = auth.authenticate(params.get("identifier"), params.get("pin"), source);
+        if (loggedIn == UserAuthentication.LOGIN_THROTTLED) {
+            return new Reply(429, Json.error("Too many login attempts"));
+        }
+        if (loggedIn <= 0) {
+            return new Reply(401, Json.error("Invalid credentials"));
+        }
+
+        long sessionId = SessionManager.openSession(loggedIn);
+        StringBuilder body = new StringBuilder("{\"userId\":").append(loggedIn).append(",\"token\":");
+        Json.quote(body, tokens.issue(loggedIn, sessionId)).append('}');
+        return new Reply(200, body.toString());
+    }
+
+    private Reply logout(Map<String, String> params, int userId, String token) {
+        tokens.revoke(token);
+        auth.logout(userId);
+        return new Reply(200, "{\"ok\":true}");
+    }
+
+    private Reply balance(Map<String, String> params, int userId, String token) {
+        CheckBalance balance = BalanceService.checkBalance(userId);
+        if (balance == null) {
+            return new Reply(404, Json.error("No balance found"));
+        }
+
+        StringBuilder body = new StringBuilder("{\"userId\":").append(userId).append(",\"amount\":\"");
+        balance.getAmount().appendTo(body);
+        return new Reply(200, body.append("\"}").toString());
+    }
+
+    private Reply cashin(Map<String, String> params, int userId, String token) {
+        Money amount = parseAmount(params.get("amount"));
+        if (amount == null || !amount.isPositive()) {
+            return new Reply(400, Json.error("Invalid amount"));
+        }
+        if (!TransactionService.cashin(amount, userId)) {
+            return new Reply(500, Json.error("Cash-in failed"));
+        }
+        return new Reply(200, "{\"ok\":true}");
+    }
+
+    private Reply transfer(Map<String, String> params, int userId, String token) {
+        Money amount = parseAmount(params.get("amount"));
+        int toUserId;
+        try {
+            toUserId = Integer.parseInt(params.get("to"));
+        } catch (NumberFormatException e) {
+            return new Reply(400, Json.error("Invalid recipient"));
+        }
+
+        int code = TransactionService.cashTransfer(amount, userId, toUserId);
+        int status;
+        switch (code) {
+            case 0:
+                status = 200;
+                break;
+            case 1:
+                status = 409; // Insufficient funds or invalid amount
+                break;
+            case 2:
+                status = 404;
+                break;
+            case 3:
+                status = 400;
+                break;
+            default:
+                status = 500;
+        }
+        return new Reply(status, "{\"code\":" + code + "}");
+    }
+
+    private Reply history(Map<String, String> params, int userId, String token) {
+        int limit = AppConfig.HISTORY_PAGE_SIZE;
+        TransactionCursor before = null;
+        try {
+            if (params.get("limit") != null) {
+                limit = Math.min(Integer.parseInt(params.get("limit")), AppConfig.SERVER_MAX_PAGE_SIZE);
+            }
+            if (params.get("before") != null) {
+                before = parseCursor(params.get("before"));
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return new Reply(400, Json.error("Invalid limit or cursor"));
+        }
+        if (limit <= 0) {
+            return new Reply(400, Json.error("Invalid limit or cursor"));
+        }
+
+        TransactionPage page = TransactionService.viewUserPage(userId, before, limit);
+
+        StringBuilder body = new StringBuilder(64 + page.getTransactions().size() * 160);
+        body.append("{\"transactions\":[");
+        boolean first = true;
+        for (Transactions transaction : page.getTransactions()) {
+            if (!first) {
+                body.append(',');
+            }
+            first = false;
+            appendTransaction(body, transaction);
+        }
+        body.append("],\"next\":");
+        Json.quote(body, page.hasMore() ? formatCursor(page.getNextCursor()) : null);
+        return new Reply(200, body.append('}').toString());
+    }
+
+    /**
+     * Parse the request, authenticate it, run the endpoint and write its reply
+     */
+    private void dispatch(HttpExchange exchange, String method, boolean authenticated, Endpoint endpoint)
+            throws IOException {
+        Reply reply;
+        try {
+            if (!method.equals(exchange.getRequestMethod())) {
+                reply = new Reply(405, Json.error("Use " + method));
+            } else {
+                String token = bearerToken(exchange);
+                int userId = authenticated ? tokens.resolve(token) : -1;
+                if (authenticated && userId <= 0) {
+                    reply = new Reply(401, Json.error("Not logged in"));
+                } else {
+                    Map<String, String> params = "GET".equals(method)
+                            ? parseQuery(exchange.getRequestURI().getRawQuery())
+                            : parseBody(exchange.getRequestBody());
+                    reply = endpoint.handle(params, userId, token);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            reply = new Reply(400, Json.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            EventLog.error("request.error").with("path", exchange.getRequestURI().getPath()).with("error", e).log();
+            reply = new Reply(500, Json.error("Internal error"));
+        }
+
+        byte[] bytes = reply.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(reply.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            return null;
+        }
+        return header.substring("Bearer ".length()).trim();
+    }
+
+    private static Map<String, String> parseBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+            if (body.size() > AppConfig.SERVER_MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body too large");
+            }
+        }
+
+        if (body.size() == 0) {
+            return new HashMap<>();
+        }
+        return Json.parseObject(new String(body.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static Money parseAmount(String text) {
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Money.parse(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Cursors are sent to clients as "date_id", e.g. 2025-01-31T10:15:30_42
+     */
+    private static String formatCursor(TransactionCursor cursor) {
+        return cursor.getDate() + "_" + cursor.getId();
+    }
+
+    private static TransactionCursor parseCursor(String text) {
+        int separator = text.lastIndexOf('_');
+        if (separator <= 0) {
+            throw new NumberFormatException("Invalid cursor: " + text);
+        }
+        return new TransactionCursor(LocalDateTime.parse(text.substring(0, separator)),
+                Integer.parseInt(text.substring(separator + 1)));
+    }
+
+    private static void appendTransaction(StringBuilder body, Transactions transaction) {
+        body.append("{\"id\":").append(transaction.getId());
+        body.append(",\"amount\":\"");
+        transaction.getAmount().appendTo(body);
+        body.append("\",\"name\":");
+        Json.quote(body, transaction.getName());
+        body.append(",\"kind\":\"").append(transaction.getKind().name()).append('"');
+        body.append(",\"accountId\":").append(transaction.getAccount_id());
+        body.append(",\"date\":");
+        Json.quote(body, transaction.getDate() == null ? null : transaction.getDate().toString());
+        body.append(",\"transferTo\":").append(transaction.getTransferToID());
+        body.append(",\"transferFrom\":").append(transaction.getTransferFromID());
+        body.append('}');
+    }
+
+    /**
+     * One virtual thread per request on Java 21+, looked up reflectively so the
+     * server also runs on older JVMs with a fixed pool of platform threads
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(AppConfig.SERVER_WORKER_THREADS, r -> {
+                Thread t = new Thread(r, "gcash-server-worker-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
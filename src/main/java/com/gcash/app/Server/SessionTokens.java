@@ -0,0 +1,121 @@
+package com.gcash.app.Server;
+
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.gcash.app.Security.PinHasher;
+import com.gcash.app.Security.SessionManager;
+
+/**
+ * Bearer tokens for server clients. A token is bound to the session created by the login
+ * that issued it and is only honoured while that exact session is live, so logout, the
+ * session timeout and a later login of the same user all end it. Tokens of ended sessions
+ * are removed when presented or by a periodic sweep.
+ */
+public class SessionTokens {
+    private static final int TOKEN_BYTES = 16;
+
+    private final Map<String, Grant> tokens = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+
+    private ScheduledExecutorService sweeper;
+
+    /**
+     * Issue a token for a user who has just logged in
+     * @param userId User ID
+     * @param sessionId ID of the session the login opened
+     * @return New random token
+     */
+    public String issue(int userId, long sessionId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = PinHasher.toHex(bytes);
+        tokens.put(token, new Grant(userId, sessionId));
+        return token;
+    }
+
+    /**
+     * Look up the user behind a token and refresh their session
+     * @param token Token from the request, may be null
+     * @return User ID, or -1 if the token is unknown or its session has ended
+     */
+    public int resolve(String token) {
+        if (token == null) {
+            return -1;
+        }
+
+        Grant grant = tokens.get(token);
+        if (grant == null) {
+            return -1;
+        }
+        if (!SessionManager.isSessionValid(grant.userId, grant.sessionId)) {
+            tokens.remove(token);
+            return -1;
+        }
+        return grant.userId;
+    }
+
+    public void revoke(String token) {
+        if (token != null) {
+            tokens.remove(token);
+        }
+    }
+
+    /**
+     * Remove every token whose session has ended
+     * @return Number of tokens removed
+     */
+    public int sweep() {
+        int removed = 0;
+        for (Map.Entry<String, Grant> entry : tokens.entrySet()) {
+            Grant grant = entry.getValue();
+            if (!SessionManager.isSessionCurrent(grant.userId, grant.sessionId)
+                    && tokens.remove(entry.getKey(), grant)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Sweep at a fixed delay from a daemon thread
+     * @param intervalSeconds Delay between sweeps
+     */
+    public synchronized void start(long intervalSeconds) {
+        if (sweeper != null) {
+            return;
+        }
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "gcash-token-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    private static final class Grant {
+        private final int userId;
+        private final long sessionId;
+
+        private Grant(int userId, long sessionId) {
+            this.userId = userId;
+            this.sessionId = sessionId;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.gcash.app.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.gcash.app.Model.CheckBalance;
+import com.gcash.app.Model.Money;
+import com.gcash.app.util.EvictionSampler;
+
+/**
+ * Size-bounded, per-user cache of balance records with a time-to-live.
+ *
+ * Writers invalidate a user's entry after they commit. A load only populates the
+ * cache if no invalidation of that user happened while it was reading from the database,
+ * so a slow reader can never put back a balance that a concurrent commit made stale.
+ *
+ * Invalidations are counted in a fixed table of versions indexed by a hash of the user ID,
+ * with about one slot per cacheable user. A write only discards concurrent loads of users
+ * sharing its slot, so writes to other accounts do not starve the cache.
+ */
+public class BalanceCache {
+    private final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray versions;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param maxEntries Maximum number of cached users (0 disables caching)
+     * @param ttlMs How long a cached balance may be served
+     */
+    public BalanceCache(int maxEntries, long ttlMs) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.versions = new AtomicLongArray(Integer.highestOneBit(Math.max(1, maxEntries - 1)) << 1);
+    }
+
+    /**
+     * Look up a cached balance
+     * @param userId User ID
+     * @return A fresh CheckBalance copy, or null on a miss
+     */
+    public CheckBalance get(int userId) {
+        Entry entry = entries.get(userId);
+        if (entry != null) {
+            if (System.nanoTime() - entry.loadedNanos < ttlNanos) {
+                hits.increment();
+                return new CheckBalance(entry.id, entry.amount, userId);
+            }
+            if (entries.remove(userId, entry)) {
+                expirations.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Take a stamp before reading a balance from the database
+     * @param userId User whose balance is about to be read
+     * @return Stamp to pass to put()
+     */
+    public long beginLoad(int userId) {
+        return versions.get(slot(userId));
+    }
+
+    /**
+     * Cache a balance read from the database, unless a write to the user was committed since beginLoad()
+     * @param stamp Value returned by beginLoad() before the read
+     * @param balance Balance read from the database
+     */
+    public void put(long stamp, CheckBalance balance) {
+        if (maxEntries <= 0 || balance == null) {
+            return;
+        }
+
+        if (entries.size() >= maxEntries && !entries.containsKey(balance.getUser_id())) {
+            evictOne();
+        }
+
+        Entry entry = new Entry(balance.getId(), balance.getAmount(), System.nanoTime());
+        entries.put(balance.getUser_id(), entry);
+
+        // A commit slipped in between the read and the put; the value may predate it
+        if (versions.get(slot(balance.getUser_id())) != stamp) {
+            entries.remove(balance.getUser_id(), entry);
+        }
+    }
+
+    /**
+     * Drop a user's cached balance; call after committing a change to it
+     * @param userId User ID
+     */
+    public void invalidate(int userId) {
+        versions.incrementAndGet(slot(userId));
+        entries.remove(userId);
+    }
+
+    public void clear() {
+        for (int i = 0; i < versions.length(); i++) {
+            versions.incrementAndGet(i);
+        }
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Entries removed to make room for others
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return Entries removed because their time-to-live had passed
+     */
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "size=" + size() + " hits=" + getHitCount() + " misses=" + getMissCount()
+                + " evictions=" + getEvictionCount() + " expirations=" + getExpirationCount();
+    }
+
+    private int slot(int userId) {
+        // Spread sequential IDs across the table
+        return (userId * 0x9E3779B9) >>> 1 & (versions.length() - 1);
+    }
+
+    /**
+     * Evict the entry loaded longest ago among a few randomly sampled ones
+     */
+    private void evictOne() {
+        Integer victim = EvictionSampler.selectVictim(entries, entry -> entry.loadedNanos);
+        if (victim != null && entries.remove(victim) != null) {
+            evictions.increment();
+        }
+    }
+
+    private static final class Entry {
+        private final int id;
+        private final Money amount;
+        private final long loadedNanos;
+
+        private Entry(int id, Money amount, long loadedNanos) {
+            this.id = id;
+            this.amount = amount;
+            this.loadedNanos = loadedNanos;
+        }
+    }
+}
@@ -4,45 +4,126 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.concurrent.CompletionException;
 
+import com.gcash.app.Ledger.Ledger;
 import com.gcash.app.Model.CheckBalance;
+import com.gcash.app.Model.Money;
+import com.gcash.app.util.AppConfig;
 import com.gcash.app.util.DatabaseConnection;
 import com.gcash.app.util.ErrorHandler;
+import com.gcash.app.util.EventLog;
+import com.gcash.app.util.Metrics;
+import com.gcash.app.util.ServiceMetric;
+import com.gcash.app.util.SqlStatements;
+import com.gcash.app.util.SqlTimer;
 
 public class BalanceService {
 
+    private static final BalanceCache cache =
+            new BalanceCache(AppConfig.BALANCE_CACHE_MAX_ENTRIES, AppConfig.BALANCE_CACHE_TTL_MS);
+
+    private static final int CACHE_HIT = 0;
+    private static final int CACHE_MISS = 1;
+    private static final int LEDGER = 2;
+    private static final int NOT_FOUND = 3;
+    private static final int ERROR = 4;
+    private static final ServiceMetric CHECK_BALANCE = Metrics.register("BalanceService.checkBalance",
+            "cache_hit", "cache_miss", "ledger", "not_found", "error");
+
     /**
      * Retrieve a user's balance by their user ID
      * @param userId The ID of the user
      * @return The user's balance or null if not found
      */
     public static CheckBalance checkBalance(int userId) {
+        long start = System.nanoTime();
+        long sqlStart = SqlTimer.current();
+
         if (userId <= 0) {
-            System.err.println("Invalid user ID");
+            EventLog.warn("balance.invalid_user").with("user", userId).log();
+            CHECK_BALANCE.record(NOT_FOUND, start, sqlStart);
             return null;
         }
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT id, amount, user_id FROM balance WHERE user_id = ?")) {
+        Ledger ledger = Ledger.active();
+        if (ledger != null) {
+            CheckBalance balance = checkLedgerBalance(ledger, userId);
+            CHECK_BALANCE.record(LEDGER, start, sqlStart);
+            return balance;
+        }
+
+        CheckBalance cached = cache.get(userId);
+        if (cached != null) {
+            CHECK_BALANCE.record(CACHE_HIT, start, sqlStart);
+            return cached;
+        }
+
+        long stamp = cache.beginLoad(userId);
+        try (Connection conn = DatabaseConnection.getReadConnection(userId);
+             PreparedStatement pstmt = conn.prepareStatement(SqlStatements.BALANCE_BY_USER)) {
 
             pstmt.setInt(1, userId);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return new CheckBalance(
+                    CheckBalance balance = new CheckBalance(
                             rs.getInt("id"),
-                            rs.getDouble("amount"),
+                            Money.fromBigDecimal(rs.getBigDecimal("amount")),
                             rs.getInt("user_id")
                     );
+                    // A replica may lag by more than the read-your-writes window; caching its value
+                    // would keep serving it for the whole TTL
+                    if (!DatabaseConnection.isReplica(conn)) {
+                        cache.put(stamp, balance);
+                    }
+                    CHECK_BALANCE.record(CACHE_MISS, start, sqlStart);
+                    return balance;
                 } else {
-                    System.err.println("No balance found for user ID: " + userId);
+                    EventLog.warn("balance.not_found").with("user", userId).log();
+                    CHECK_BALANCE.record(NOT_FOUND, start, sqlStart);
                     return null;
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Error checking balance: " + e.getMessage());
+            EventLog.error("balance.error").with("user", userId).with("error", e.getMessage()).log();
+            CHECK_BALANCE.record(ERROR, start, sqlStart);
+            return null;
+        }
+    }
+
+    /**
+     * Read a balance from the in-memory ledger; the ledger has no balance row, so the record ID is 0
+     */
+    private static CheckBalance checkLedgerBalance(Ledger ledger, int userId) {
+        try {
+            Money amount = ledger.balance(userId).join();
+            if (amount == null) {
+                EventLog.warn("balance.not_found").with("user", userId).log();
+                return null;
+            }
+            return new CheckBalance(0, amount, userId);
+        } catch (CompletionException e) {
+            EventLog.error("balance.error").with("user", userId).with("error", e.getCause().getMessage()).log();
             return null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Drop a user's cached balance after a committed change, and keep the user's reads
+     * on the primary until replicas have caught up with it
+     * @param userId The ID of the user whose balance changed
+     */
+    public static void invalidateBalance(int userId) {
+        cache.invalidate(userId);
+        DatabaseConnection.recordWrite(userId);
+    }
+
+    /**
+     * Get the balance cache, e.g. to read its hit/miss/eviction counters
+     * @return The shared balance cache
+     */
+    public static BalanceCache getCache() {
+        return cache;
+    }
+}
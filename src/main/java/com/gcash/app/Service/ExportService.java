@@ -0,0 +1,439 @@
+package com.gcash.app.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.gcash.app.Model.ExportFilter;
+import com.gcash.app.Model.ExportFormat;
+import com.gcash.app.Model.Money;
+import com.gcash.app.Model.TransactionKind;
+import com.gcash.app.util.AppConfig;
+import com.gcash.app.util.DatabaseConnection;
+import com.gcash.app.util.EventLog;
+import com.gcash.app.util.SqlStatements;
+
+/**
+ * Exports the transaction table to a file in constant memory.
+ *
+ * Rows are read through a server-side cursor in (account_id, date, id) index order and
+ * encoded straight into a direct buffer of EXPORT_BUFFER_BYTES that is drained to a
+ * FileChannel. With parallelism above one, the account ID range is split into contiguous
+ * parts that are written to sibling .part files concurrently and then appended to the
+ * target with FileChannel.transferTo, so the output keeps the same order either way.
+ */
+public class ExportService {
+    private static final byte[] BINARY_MAGIC = {'G', 'C', 'T', 'X'};
+    private static final short BINARY_VERSION = 1;
+    private static final String CSV_HEADER = "id,amount,name,kind,account_id,date,transfer_to,transfer_from\n";
+
+    // Bounds of a MySQL DATETIME, used when the filter leaves a date open
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1000, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    /**
+     * Export with the configured parallelism
+     * @see #export(Path, ExportFormat, ExportFilter, int)
+     */
+    public static long export(Path target, ExportFormat format, ExportFilter filter) {
+        return export(target, format, filter, AppConfig.EXPORT_THREADS);
+    }
+
+    /**
+     * Export the transactions matching a filter, ordered by account, date and ID
+     * @param target File to create or overwrite
+     * @param format Output format
+     * @param filter Rows to include
+     * @param parallelism Account ranges read at the same time, each holding one pooled connection
+     * @return Number of rows written, or -1 on a database or file error
+     */
+    public static long export(Path target, ExportFormat format, ExportFilter filter, int parallelism) {
+        long start = System.nanoTime();
+
+        long[] range;
+        try {
+            range = accountRange(filter);
+        } catch (SQLException e) {
+            EventLog.error("export.range_error").with("error", e.getMessage()).log();
+            return -1;
+        }
+
+        long rows;
+        try {
+            int parts = range == null ? 1 : (int) Math.max(1, Math.min(parallelism, range[1] - range[0] + 1));
+            rows = parts == 1
+                    ? exportSingle(target, format, filter, range)
+                    : exportParallel(target, format, filter, range, parts);
+        } catch (IOException | SQLException e) {
+            EventLog.error("export.error").with("target", target).with("error", e.getMessage()).log();
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            EventLog.warn("export.interrupted").with("target", target).log();
+            return -1;
+        }
+
+        long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        EventLog.info("export.ok").with("target", target).with("rows", rows).with("elapsed_ms", elapsedMs).log();
+        return rows;
+    }
+
+    /**
+     * Account IDs to scan: the filter's bounds, narrowed to the IDs present in the table
+     * @return {first, last}, or null if no account can match
+     */
+    private static long[] accountRange(ExportFilter filter) throws SQLException {
+        long first;
+        long last;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SqlStatements.TRANSACTION_ACCOUNT_RANGE);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            if (!rs.next() || rs.getObject(1) == null) {
+                return null; // No transactions
+            }
+            first = rs.getLong(1);
+            last = rs.getLong(2);
+        }
+
+        if (filter.getFirstAccountId() != null) {
+            first = Math.max(first, filter.getFirstAccountId());
+        }
+        if (filter.getLastAccountId() != null) {
+            last = Math.min(last, filter.getLastAccountId());
+        }
+        return first > last ? null : new long[]{first, last};
+    }
+
+    private static long exportSingle(Path target, ExportFormat format, ExportFilter filter, long[] range)
+            throws IOException, SQLException {
+        try (FileChannel channel = openForWrite(target)) {
+            RowWriter writer = newWriter(format, channel);
+            writer.writeHeader();
+            long rows = range == null ? 0 : exportRange(range[0], range[1], filter, writer);
+            writer.flush();
+            return rows;
+        }
+    }
+
+    private static long exportParallel(Path target, ExportFormat format, ExportFilter filter, long[] range,
+                                       int parts) throws IOException, SQLException, InterruptedException {
+        long span = (range[1] - range[0] + parts) / parts;
+        List<Path> partFiles = new ArrayList<>(parts);
+        ExecutorService executor = Executors.newFixedThreadPool(parts, r -> {
+            Thread t = new Thread(r, "gcash-export");
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            List<Future<Long>> results = new ArrayList<>(parts);
+            for (int i = 0; i < parts; i++) {
+                long first = range[0] + i * span;
+                long last = Math.min(first + span - 1, range[1]);
+                Path partFile = target.resolveSibling(target.getFileName() + ".part" + i);
+                partFiles.add(partFile);
+                results.add(executor.submit(() -> {
+                    try (FileChannel channel = openForWrite(partFile)) {
+                        RowWriter writer = newWriter(format, channel);
+                        long rows = exportRange(first, last, filter, writer);
+                        writer.flush();
+                        return rows;
+                    }
+                }));
+            }
+
+            long rows = 0;
+            for (Future<Long> result : results) {
+                try {
+                    rows += result.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof SQLException) {
+                        throw (SQLException) cause;
+                    }
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IOException(cause);
+                }
+            }
+
+            // Header first, then the parts in account order
+            try (FileChannel out = openForWrite(target)) {
+                RowWriter writer = newWriter(format, out);
+                writer.writeHeader();
+                writer.flush();
+                for (Path partFile : partFiles) {
+                    try (FileChannel in = FileChannel.open(partFile, StandardOpenOption.READ)) {
+                        long size = in.size();
+                        for (long position = 0; position < size; ) {
+                            position += in.transferTo(position, size - position, out);
+                        }
+                    }
+                }
+            }
+            return rows;
+        } finally {
+            executor.shutdownNow();
+            for (Path partFile : partFiles) {
+                Files.deleteIfExists(partFile);
+            }
+        }
+    }
+
+    /**
+     * Stream the matching rows of accounts [first, last] into the writer
+     */
+    private static long exportRange(long first, long last, ExportFilter filter, RowWriter writer)
+            throws IOException, SQLException {
+        long rows = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SqlStatements.TRANSACTION_EXPORT_RANGE,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            pstmt.setFetchSize(AppConfig.EXPORT_FETCH_SIZE);
+            pstmt.setLong(1, first);
+            pstmt.setLong(2, last);
+            pstmt.setObject(3, filter.getFrom() != null ? filter.getFrom() : MIN_DATE);
+            pstmt.setObject(4, filter.getTo() != null ? filter.getTo() : MAX_DATE);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    writer.write(rs);
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static FileChannel openForWrite(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    private static RowWriter newWriter(ExportFormat format, FileChannel channel) {
+        return format == ExportFormat.CSV ? new CsvWriter(channel) : new BinaryWriter(channel);
+    }
+
+    /**
+     * Encodes rows of SqlStatements.TRANSACTION_COLUMNS into a direct buffer drained to a channel
+     */
+    private abstract static class RowWriter {
+        private static final int MAX_FIXED_ROW_BYTES = 128;
+
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(AppConfig.EXPORT_BUFFER_BYTES);
+        private final FileChannel channel;
+
+        RowWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        abstract void writeHeader() throws IOException;
+
+        abstract void writeRow(int id, long centavos, String name, TransactionKind kind, int accountId,
+                               LocalDateTime date, int transferTo, int transferFrom) throws IOException;
+
+        void write(ResultSet rs) throws SQLException, IOException {
+            int accountId = rs.getInt(5);
+            Integer transferTo = rs.getObject(7, Integer.class);
+            Integer transferFrom = rs.getObject(8, Integer.class);
+            TransactionKind kind = TransactionKind.fromCode(rs.getInt(4));
+            if (kind == TransactionKind.UNKNOWN) {
+                kind = TransactionKind.classify(accountId, transferTo, transferFrom);
+            }
+            String name = rs.getString(3);
+
+            // A UTF-8 char takes at most 3 bytes, 6 once a CSV quote is doubled
+            ensure(MAX_FIXED_ROW_BYTES + name.length() * 6);
+            writeRow(rs.getInt(1), Money.fromBigDecimal(rs.getBigDecimal(2)).getCentavos(), name, kind, accountId,
+                    rs.getObject(6, LocalDateTime.class),
+                    transferTo == null ? 0 : transferTo, transferFrom == null ? 0 : transferFrom);
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+        }
+
+        void flush() throws IOException {
+            drain();
+            channel.force(false);
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void putAscii(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                buffer.put((byte) text.charAt(i));
+            }
+        }
+
+        void putUtf8(char c) {
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else {
+                // Surrogates are written as-is; names come from VARCHAR columns in utf8 (BMP only)
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+
+        void putDecimal(long value) {
+            if (value < 0) {
+                buffer.put((byte) '-');
+                value = -value;
+            }
+            if (value >= 10) {
+                putDecimal(value / 10);
+            }
+            buffer.put((byte) ('0' + value % 10));
+        }
+
+        void putTwoDigits(int value) {
+            buffer.put((byte) ('0' + value / 10));
+            buffer.put((byte) ('0' + value % 10));
+        }
+    }
+
+    private static final class CsvWriter extends RowWriter {
+
+        private CsvWriter(FileChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        void writeHeader() throws IOException {
+            ensure(CSV_HEADER.length());
+            putAscii(CSV_HEADER);
+        }
+
+        @Override
+        void writeRow(int id, long centavos, String name, TransactionKind kind, int accountId,
+                      LocalDateTime date, int transferTo, int transferFrom) {
+            putDecimal(id);
+            buffer.put((byte) ',');
+            if (centavos < 0) {
+                buffer.put((byte) '-');
+                centavos = -centavos;
+            }
+            putDecimal(centavos / 100);
+            buffer.put((byte) '.');
+            putTwoDigits((int) (centavos % 100));
+            buffer.put((byte) ',');
+            putName(name);
+            buffer.put((byte) ',');
+            putAscii(kind.name());
+            buffer.put((byte) ',');
+            putDecimal(accountId);
+            buffer.put((byte) ',');
+            putDecimal(date.getYear());
+            buffer.put((byte) '-');
+            putTwoDigits(date.getMonthValue());
+            buffer.put((byte) '-');
+            putTwoDigits(date.getDayOfMonth());
+            buffer.put((byte) ' ');
+            putTwoDigits(date.getHour());
+            buffer.put((byte) ':');
+            putTwoDigits(date.getMinute());
+            buffer.put((byte) ':');
+            putTwoDigits(date.getSecond());
+            buffer.put((byte) ',');
+            if (transferTo != 0) {
+                putDecimal(transferTo);
+            }
+            buffer.put((byte) ',');
+            if (transferFrom != 0) {
+                putDecimal(transferFrom);
+            }
+            buffer.put((byte) '\n');
+        }
+
+        /**
+         * Quote the name only when it contains a separator, quote or line break
+         */
+        private void putName(String name) {
+            boolean quote = false;
+            for (int i = 0; i < name.length() && !quote; i++) {
+                char c = name.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+
+            if (quote) {
+                buffer.put((byte) '"');
+            }
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (c == '"') {
+                    buffer.put((byte) '"');
+                }
+                putUtf8(c);
+            }
+            if (quote) {
+                buffer.put((byte) '"');
+            }
+        }
+    }
+
+    private static final class BinaryWriter extends RowWriter {
+
+        private BinaryWriter(FileChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        void writeHeader() throws IOException {
+            ensure(BINARY_MAGIC.length + 2);
+            buffer.put(BINARY_MAGIC);
+            buffer.putShort(BINARY_VERSION);
+        }
+
+        @Override
+        void writeRow(int id, long centavos, String name, TransactionKind kind, int accountId,
+                      LocalDateTime date, int transferTo, int transferFrom) {
+            buffer.putInt(id);
+            buffer.putLong(centavos);
+            buffer.put((byte) kind.getCode());
+            buffer.putInt(accountId);
+            buffer.putLong(date.toEpochSecond(ZoneOffset.UTC));
+            buffer.putInt(transferTo);
+            buffer.putInt(transferFrom);
+
+            // Reserve the length, encode the name, then patch the length in
+            int lengthPosition = buffer.position();
+            buffer.putShort((short) 0);
+            for (int i = 0; i < name.length(); i++) {
+                putUtf8(name.charAt(i));
+            }
+            buffer.putShort(lengthPosition, (short) (buffer.position() - lengthPosition - 2));
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.gcash.app.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.gcash.app.Model.Money;
+import com.gcash.app.Model.ReconciliationReport;
+import com.gcash.app.Model.ReconciliationReport.Mismatch;
+import com.gcash.app.util.AppConfig;
+import com.gcash.app.util.DatabaseConnection;
+import com.gcash.app.util.EventLog;
+import com.gcash.app.util.SqlStatements;
+
+/**
+ * Checks that every balance equals the sum of the account's transaction rows.
+ *
+ * The account ID space is split with fork/join into ranges of RECONCILE_LEAF_ACCOUNTS.
+ * Each range runs two streamed, index-ordered reads (per-account transaction sums and
+ * balances) in one read-only REPEATABLE READ transaction, so both see the same snapshot
+ * and InnoDB serves them as consistent reads without locking the live tables. The two
+ * sorted streams are then merge-joined on the account ID.
+ */
+public class ReconciliationService {
+
+    /**
+     * Reconcile every account with the configured parallelism
+     * @return The report, or null if the account ID range cannot be read
+     */
+    public static ReconciliationReport reconcile() {
+        return reconcile(AppConfig.RECONCILE_THREADS, AppConfig.RECONCILE_LEAF_ACCOUNTS);
+    }
+
+    /**
+     * Reconcile every account
+     * @param parallelism Ranges checked at the same time, each holding one pooled connection
+     * @param leafAccounts Account IDs per range
+     * @return The report, or null if the account ID range cannot be read
+     */
+    public static ReconciliationReport reconcile(int parallelism, int leafAccounts) {
+        long start = System.nanoTime();
+
+        long[] bounds;
+        try {
+            bounds = accountIdBounds();
+        } catch (SQLException e) {
+            EventLog.error("reconcile.range_error").with("error", e.getMessage()).log();
+            return null;
+        }
+        if (bounds == null) {
+            return new ReconciliationReport(0, 0, 0, new ArrayList<>(), 0, 0, System.nanoTime() - start);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            RangeResult result = pool.invoke(new RangeTask(bounds[0], bounds[1], Math.max(1, leafAccounts)));
+            return new ReconciliationReport(result.accounts, result.rows, result.mismatchCount, result.mismatches,
+                    result.partitions, result.failedPartitions, System.nanoTime() - start);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Lowest and highest account ID present in either table
+     * @return {min, max}, or null if both tables are empty
+     */
+    private static long[] accountIdBounds() throws SQLException {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (String sql : new String[]{SqlStatements.TRANSACTION_ACCOUNT_RANGE,
+                    SqlStatements.RECONCILE_BALANCE_RANGE}) {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql);
+                     ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next() && rs.getObject(1) != null) {
+                        min = Math.min(min, rs.getLong(1));
+                        max = Math.max(max, rs.getLong(2));
+                    }
+                }
+            }
+        }
+        return min > max ? null : new long[]{min, max};
+    }
+
+    /**
+     * Compare accounts [first, last] inside one consistent snapshot
+     */
+    private static RangeResult reconcileRange(long first, long last) throws SQLException {
+        RangeResult result = new RangeResult();
+        result.partitions = 1;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int isolation = conn.getTransactionIsolation();
+            conn.setReadOnly(true);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setAutoCommit(false);
+
+            // Forward-only statements bypass the statement cache, so the fetch size cannot leak
+            try (PreparedStatement sums = conn.prepareStatement(SqlStatements.RECONCILE_LEDGER_SUMS,
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                 PreparedStatement balances = conn.prepareStatement(SqlStatements.RECONCILE_BALANCES,
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                sums.setFetchSize(AppConfig.RECONCILE_FETCH_SIZE);
+                sums.setLong(1, first);
+                sums.setLong(2, last);
+                balances.setFetchSize(AppConfig.RECONCILE_FETCH_SIZE);
+                balances.setLong(1, first);
+                balances.setLong(2, last);
+
+                try (ResultSet sumRows = sums.executeQuery();
+                     ResultSet balanceRows = balances.executeQuery()) {
+                    mergeJoin(sumRows, balanceRows, result);
+                }
+                conn.commit();
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(true);
+                conn.setTransactionIsolation(isolation);
+                conn.setReadOnly(false);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Walk both account-ordered streams together; an account missing from one side counts as zero there
+     */
+    private static void mergeJoin(ResultSet sumRows, ResultSet balanceRows, RangeResult result) throws SQLException {
+        boolean hasSum = sumRows.next();
+        boolean hasBalance = balanceRows.next();
+
+        while (hasSum || hasBalance) {
+            int sumAccount = hasSum ? sumRows.getInt(1) : Integer.MAX_VALUE;
+            int balanceAccount = hasBalance ? balanceRows.getInt(1) : Integer.MAX_VALUE;
+            int account = Math.min(sumAccount, balanceAccount);
+
+            Money ledgerTotal = Money.ZERO;
+            if (sumAccount == account) {
+                ledgerTotal = Money.fromBigDecimal(sumRows.getBigDecimal(2));
+                result.rows += sumRows.getLong(3);
+                hasSum = sumRows.next();
+            }
+            Money balance = null;
+            if (balanceAccount == account) {
+                balance = Money.fromBigDecimal(balanceRows.getBigDecimal(2));
+                hasBalance = balanceRows.next();
+            }
+
+            result.accounts++;
+            Money stored = balance == null ? Money.ZERO : balance;
+            if (!stored.equals(ledgerTotal)) {
+                result.addMismatch(new Mismatch(account, balance, ledgerTotal));
+            }
+        }
+    }
+
+    /**
+     * Splits the ID range in half until it is at most leafAccounts wide, then checks it
+     */
+    private static final class RangeTask extends RecursiveTask<RangeResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final long first;
+        private final long last;
+        private final int leafAccounts;
+
+        private RangeTask(long first, long last, int leafAccounts) {
+            this.first = first;
+            this.last = last;
+            this.leafAccounts = leafAccounts;
+        }
+
+        @Override
+        protected RangeResult compute() {
+            if (last - first < leafAccounts) {
+                try {
+                    return reconcileRange(first, last);
+                } catch (SQLException e) {
+                    EventLog.error("reconcile.error").with("first", first).with("last", last)
+                            .with("error", e.getMessage()).log();
+                    RangeResult failed = new RangeResult();
+                    failed.partitions = 1;
+                    failed.failedPartitions = 1;
+                    return failed;
+                }
+            }
+
+            long middle = first + (last - first) / 2;
+            RangeTask upper = new RangeTask(middle + 1, last, leafAccounts);
+            upper.fork();
+            RangeResult result = new RangeTask(first, middle, leafAccounts).compute();
+            result.merge(upper.join()); // Lower range first keeps the mismatches in account order
+            return result;
+        }
+    }
+
+    private static final class RangeResult {
+        private long accounts;
+        private long rows;
+        private long mismatchCount;
+        private final List<Mismatch> mismatches = new ArrayList<>();
+        private int partitions;
+        private int failedPartitions;
+
+        private void addMismatch(Mismatch mismatch) {
+            mismatchCount++;
+            if (mismatches.size() < AppConfig.RECONCILE_MAX_REPORTED_MISMATCHES) {
+                mismatches.add(mismatch);
+            }
+        }
+
+        private void merge(RangeResult other) {
+            accounts += other.accounts;
+            rows += other.rows;
+            mismatchCount += other.mismatchCount;
+            int room = AppConfig.RECONCILE_MAX_REPORTED_MISMATCHES - mismatches.size();
+            mismatches.addAll(other.mismatches.subList(0, Math.min(room, other.mismatches.size())));
+            partitions += other.partitions;
+            failedPartitions += other.failedPartitions;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.gcash.app.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.gcash.app.Model.AccountSummary;
+import com.gcash.app.Model.Money;
+import com.gcash.app.util.AppConfig;
+import com.gcash.app.util.DatabaseConnection;
+import com.gcash.app.util.EventLog;
+import com.gcash.app.util.SqlStatements;
+
+/**
+ * Per-account totals from account_summary. Cash-ins and transfers update the
+ * summary rows in their own transaction, so reading a summary is one primary-key
+ * lookup; rebuild() recomputes every row from the transaction table.
+ */
+public class SummaryService {
+
+    /**
+     * Retrieve the running totals of an account
+     * @param userId User ID
+     * @return The summary (all zero if the user has no transactions yet), or null on an invalid ID or database error
+     */
+    public static AccountSummary getSummary(int userId) {
+        if (userId <= 0) {
+            EventLog.warn("summary.invalid_user").with("user", userId).log();
+            return null;
+        }
+
+        try (Connection conn = DatabaseConnection.getReadConnection(userId);
+             PreparedStatement pstmt = conn.prepareStatement(SqlStatements.SUMMARY_BY_USER)) {
+
+            pstmt.setInt(1, userId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return AccountSummary.empty(userId);
+                }
+
+                // The month total belongs to month_key; an older month means nothing was cashed in this month
+                Money thisMonth = rs.getInt("month_key") == monthKey(LocalDate.now())
+                        ? Money.fromBigDecimal(rs.getBigDecimal("month_cashin_total"))
+                        : Money.ZERO;
+                Timestamp lastActivity = rs.getTimestamp("last_activity");
+
+                return new AccountSummary(
+                        userId,
+                        rs.getInt("cashin_count"),
+                        Money.fromBigDecimal(rs.getBigDecimal("cashin_total")),
+                        thisMonth,
+                        rs.getInt("sent_count"),
+                        Money.fromBigDecimal(rs.getBigDecimal("sent_total")),
+                        rs.getInt("received_count"),
+                        Money.fromBigDecimal(rs.getBigDecimal("received_total")),
+                        lastActivity == null ? null : lastActivity.toLocalDateTime()
+                );
+            }
+        } catch (SQLException e) {
+            EventLog.error("summary.error").with("user", userId).with("error", e.getMessage()).log();
+            return null;
+        }
+    }
+
+    /**
+     * Recompute every summary from the transaction table using the configured parallelism
+     * @return Number of summaries written, or -1 if any range failed
+     */
+    public static int rebuild() {
+        return rebuild(AppConfig.SUMMARY_REBUILD_THREADS);
+    }
+
+    /**
+     * Recompute every summary from the transaction table. Users are split into ID ranges of
+     * SUMMARY_REBUILD_RANGE_SIZE and the ranges are rebuilt concurrently, each in its own
+     * transaction, so the rebuild can run while cash-ins and transfers continue.
+     * @param parallelism Ranges rebuilt at the same time, each holding one pooled connection
+     * @return Number of summaries written, or -1 if any range failed
+     */
+    public static int rebuild(int parallelism) {
+        int minId;
+        int maxId;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SqlStatements.USER_ID_RANGE);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            if (!rs.next() || rs.getObject(1) == null) {
+                return 0; // No users
+            }
+            minId = rs.getInt(1);
+            maxId = rs.getInt(2);
+        } catch (SQLException e) {
+            EventLog.error("summary_rebuild.range_error").with("error", e.getMessage()).log();
+            return -1;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread t = new Thread(r, "gcash-summary-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<Integer>> ranges = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += AppConfig.SUMMARY_REBUILD_RANGE_SIZE) {
+                int first = (int) from;
+                int last = (int) Math.min(from + AppConfig.SUMMARY_REBUILD_RANGE_SIZE - 1, maxId);
+                ranges.add(executor.submit(() -> rebuildRange(first, last)));
+            }
+
+            int written = 0;
+            boolean failed = false;
+            for (Future<Integer> range : ranges) {
+                try {
+                    written += range.get();
+                } catch (ExecutionException e) {
+                    EventLog.error("summary_rebuild.error").with("error", e.getCause().getMessage()).log();
+                    failed = true;
+                }
+            }
+
+            if (failed) {
+                return -1;
+            }
+            EventLog.info("summary_rebuild.ok").with("summaries", written).log();
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            EventLog.warn("summary_rebuild.interrupted").log();
+            return -1;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Replace the summaries of users [first, last]. The rows are deleted before the
+     * history is read: a concurrent cash-in or transfer in the range then waits for
+     * this transaction and applies its delta on top of the rebuilt row.
+     */
+    private static int rebuildRange(int first, int last) throws SQLException {
+        LocalDate today = LocalDate.now();
+        int monthKey = monthKey(today);
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement delete = conn.prepareStatement(SqlStatements.SUMMARY_DELETE_RANGE)) {
+                    delete.setInt(1, first);
+                    delete.setInt(2, last);
+                    delete.executeUpdate();
+                }
+
+                int written = 0;
+                try (PreparedStatement aggregate = conn.prepareStatement(SqlStatements.SUMMARY_AGGREGATE_RANGE);
+                     PreparedStatement insert = conn.prepareStatement(SqlStatements.SUMMARY_INSERT)) {
+                    aggregate.setObject(1, today.withDayOfMonth(1).atStartOfDay());
+                    aggregate.setInt(2, first);
+                    aggregate.setInt(3, last);
+
+                    try (ResultSet rs = aggregate.executeQuery()) {
+                        while (rs.next()) {
+                            insert.setInt(1, rs.getInt("account_id"));
+                            insert.setInt(2, rs.getInt("cashin_count"));
+                            insert.setBigDecimal(3, rs.getBigDecimal("cashin_total"));
+                            insert.setInt(4, rs.getInt("sent_count"));
+                            insert.setBigDecimal(5, rs.getBigDecimal("sent_total"));
+                            insert.setInt(6, rs.getInt("received_count"));
+                            insert.setBigDecimal(7, rs.getBigDecimal("received_total"));
+                            insert.setInt(8, monthKey);
+                            insert.setBigDecimal(9, rs.getBigDecimal("month_cashin_total"));
+                            insert.setTimestamp(10, rs.getTimestamp("last_activity"));
+                            insert.addBatch();
+                            written++;
+                        }
+                    }
+                    if (written > 0) {
+                        insert.executeBatch();
+                    }
+                }
+
+                conn.commit();
+                return written;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Bind one account's change to SqlStatements.SUMMARY_APPLY; the caller executes or batches it
+     * @param pstmt Statement prepared from SUMMARY_APPLY
+     * @param userId Account to update
+     * @param cashIn Amount cashed in, or zero
+     * @param sent Amount sent, or zero
+     * @param received Amount received, or zero
+     * @param cashInCount Number of cash-ins the amount covers
+     * @param at Time of the transaction
+     * @throws SQLException If binding fails
+     */
+    static void bindChange(PreparedStatement pstmt, int userId, Money cashIn, Money sent, Money received,
+                           int cashInCount, LocalDateTime at) throws SQLException {
+        pstmt.setInt(1, userId);
+        pstmt.setInt(2, cashInCount);
+        pstmt.setBigDecimal(3, cashIn.toBigDecimal());
+        pstmt.setInt(4, sent.isZero() ? 0 : 1);
+        pstmt.setBigDecimal(5, sent.toBigDecimal());
+        pstmt.setInt(6, received.isZero() ? 0 : 1);
+        pstmt.setBigDecimal(7, received.toBigDecimal());
+        pstmt.setInt(8, monthKey(at.toLocalDate()));
+        pstmt.setBigDecimal(9, cashIn.toBigDecimal());
+        pstmt.setObject(10, at);
+    }
+
+    /**
+     * @param date Any day of the month
+     * @return The month as yyyymm, the format of account_summary.month_key
+     */
+    static int monthKey(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+}
@@ -1,31 +1,86 @@
 package com.gcash.app.Service;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
 import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.gcash.app.Ledger.Ledger;
 import com.gcash.app.Model.Cashin;
+import com.gcash.app.Model.CashinItem;
+import com.gcash.app.Model.CashinResult;
 import com.gcash.app.Model.CashTransfer;
 import com.gcash.app.Model.CheckBalance;
+import com.gcash.app.Model.Money;
+import com.gcash.app.Model.TransactionCursor;
+import com.gcash.app.Model.TransactionKind;
+import com.gcash.app.Model.TransactionPage;
 import com.gcash.app.Model.Transactions;
+import com.gcash.app.util.AppConfig;
 import com.gcash.app.util.DatabaseConnection;
+import com.gcash.app.util.EventLog;
+import com.gcash.app.util.Metrics;
+import com.gcash.app.util.ServiceMetric;
+import com.gcash.app.util.SqlStatements;
+import com.gcash.app.util.SqlTimer;
 
 public class TransactionService {
 
+    private static final AtomicLong transferRetries = new AtomicLong();
+    private static final AtomicLong transferRetriesExhausted = new AtomicLong();
+
+    // Outcome indices of CASH_TRANSFER match the cashTransfer result codes
+    private static final ServiceMetric CASHIN = Metrics.register("TransactionService.cashin", "ok", "failed");
+    private static final ServiceMetric CASHIN_BATCH =
+            Metrics.register("TransactionService.cashinBatch", "ok", "partial");
+    private static final ServiceMetric CASH_TRANSFER = Metrics.register("TransactionService.cashTransfer",
+            "ok", "insufficient_funds", "invalid_user", "same_user", "database_error");
+    private static final ServiceMetric VIEW_USER_PAGE = Metrics.register("TransactionService.viewUserPage", "ok");
+
     /**
      * Add cash to user's account and record transaction
      * @param amount Amount to add
      * @param userId User ID
      * @return true if successful, false otherwise
      */
-    public static boolean cashin(double amount, int userId) {
-        if (amount <= 0 || userId <= 0) {
-            System.err.println("Invalid amount or user ID");
+    public static boolean cashin(Money amount, int userId) {
+        long start = System.nanoTime();
+        long sqlStart = SqlTimer.current();
+        boolean success = performCashin(amount, userId);
+        CASHIN.record(success ? 0 : 1, start, sqlStart);
+        return success;
+    }
+
+    private static boolean performCashin(Money amount, int userId) {
+        if (amount == null || !amount.isPositive() || userId <= 0) {
+            EventLog.warn("cashin.invalid").with("user", userId).with("amount", amount).log();
+            return false;
+        }
+
+        Ledger ledger = Ledger.active();
+        if (ledger != null) {
+            return ledgerCashin(ledger, amount, userId);
+        }
+
+        if (UserService.isKnownMissing(userId)) {
+            EventLog.warn("cashin.unknown_user").with("user", userId).log();
             return false;
         }
 
@@ -38,34 +93,26 @@ public class TransactionService {
             // 1. Check if user exists and has a balance record
             CheckBalance currentBalance = null;
 
-            try (PreparedStatement checkUser = conn.prepareStatement(
-                    "SELECT id FROM users WHERE id = ?")) {
-                checkUser.setInt(1, userId);
-                ResultSet rs = checkUser.executeQuery();
-
-                if (!rs.next()) {
-                    System.err.println("User ID not found: " + userId);
-                    return false;
-                }
+            if (!UserService.exists(conn, userId)) {
+                EventLog.warn("cashin.unknown_user").with("user", userId).log();
+                return false;
             }
 
             // 2. Check if balance record exists, if not create one
-            try (PreparedStatement checkBalance = conn.prepareStatement(
-                    "SELECT id, amount, user_id FROM balance WHERE user_id = ?")) {
+            try (PreparedStatement checkBalance = conn.prepareStatement(SqlStatements.BALANCE_BY_USER)) {
                 checkBalance.setInt(1, userId);
                 ResultSet rs = checkBalance.executeQuery();
 
                 if (rs.next()) {
                     currentBalance = new CheckBalance(
                             rs.getInt("id"),
-                            rs.getDouble("amount"),
+                            Money.fromBigDecimal(rs.getBigDecimal("amount")),
                             rs.getInt("user_id")
                     );
                 } else {
                     // Create new balance record
                     try (PreparedStatement createBalance = conn.prepareStatement(
-                            "INSERT INTO balance (amount, user_id) VALUES (0, ?)",
-                            Statement.RETURN_GENERATED_KEYS)) {
+                            SqlStatements.BALANCE_CREATE_EMPTY, Statement.RETURN_GENERATED_KEYS)) {
                         createBalance.setInt(1, userId);
                         createBalance.executeUpdate();
 
@@ -73,7 +120,7 @@ public class TransactionService {
                         if (generatedKeys.next()) {
                             currentBalance = new CheckBalance(
                                     generatedKeys.getInt(1),
-                                    0,
+                                    Money.ZERO,
                                     userId
                             );
                         } else {
@@ -84,27 +131,34 @@ public class TransactionService {
             }
 
             // 3. Update balance
-            try (PreparedStatement updateBalance = conn.prepareStatement(
-                    "UPDATE balance SET amount = amount + ? WHERE user_id = ?")) {
-                updateBalance.setDouble(1, amount);
+            try (PreparedStatement updateBalance = conn.prepareStatement(SqlStatements.BALANCE_ADD)) {
+                updateBalance.setBigDecimal(1, amount.toBigDecimal());
                 updateBalance.setInt(2, userId);
                 updateBalance.executeUpdate();
             }
 
             // 4. Record transaction
+            LocalDateTime now = LocalDateTime.now();
             try (PreparedStatement insertTransaction = conn.prepareStatement(
-                    "INSERT INTO transaction (amount, name, account_id, date) VALUES (?, ?, ?, ?)",
-                    Statement.RETURN_GENERATED_KEYS)) {
-                insertTransaction.setDouble(1, amount);
+                    SqlStatements.TRANSACTION_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                insertTransaction.setBigDecimal(1, amount.toBigDecimal());
                 insertTransaction.setString(2, "Cash In");
                 insertTransaction.setInt(3, userId);
-                insertTransaction.setObject(4, LocalDateTime.now());
+                insertTransaction.setObject(4, now);
+                insertTransaction.setInt(5, TransactionKind.CASH_IN.getCode());
                 insertTransaction.executeUpdate();
             }
 
+            // 5. Update the account summary
+            try (PreparedStatement summary = conn.prepareStatement(SqlStatements.SUMMARY_APPLY)) {
+                SummaryService.bindChange(summary, userId, amount, Money.ZERO, Money.ZERO, 1, now);
+                summary.executeUpdate();
+            }
+
             // Commit transaction
             conn.commit();
-            System.out.println("Successfully added " + amount + " to user ID " + userId);
+            BalanceService.invalidateBalance(userId);
+            EventLog.info("cashin.ok").with("user", userId).with("amount", amount).log();
             return true;
 
         } catch (SQLException e) {
@@ -113,9 +167,9 @@ public class TransactionService {
                     conn.rollback();
                 }
             } catch (SQLException ex) {
-                System.err.println("Error rolling back transaction: " + ex.getMessage());
+                EventLog.error("rollback.error").with("error", ex.getMessage()).log();
             }
-            System.err.println("Cash-in error: " + e.getMessage());
+            EventLog.error("cashin.error").with("user", userId).with("error", e.getMessage()).log();
             return false;
         } finally {
             try {
@@ -124,145 +178,282 @@ public class TransactionService {
                     conn.close();
                 }
             } catch (SQLException e) {
-                System.err.println("Error closing connection: " + e.getMessage());
+                EventLog.error("connection.close_error").with("error", e.getMessage()).log();
             }
         }
     }
 
     /**
-     * Transfer money from one user to another
-     * @param amount Amount to transfer
-     * @param fromUserId User ID sending the money
-     * @param toUserId User ID receiving the money
-     * @return Error code: 0=success, 1=insufficient funds, 2=invalid user, 3=same user, 4=database error
+     * Cash in to many accounts at once, e.g. for payroll or partner settlement.
+     * Items are processed in chunks; each chunk validates its users with one query,
+     * credits balances and records ledger rows with JDBC batches, and commits on its own.
+     * @param items Accounts and amounts to credit
+     * @param chunkSize Number of items per database transaction
+     * @return One result per item, in the same order as the items
      */
-    public static int cashTransfer(double amount, int fromUserId, int toUserId) {
-        // Validate input
-        if (amount <= 0) {
-            System.err.println("Invalid transfer amount");
-            return 1; // Error: Invalid amount
-        }
+    public static List<CashinResult> cashinBatch(List<CashinItem> items, int chunkSize) {
+        long start = System.nanoTime();
+        long sqlStart = SqlTimer.current();
+        List<CashinResult> results = performCashinBatch(items, chunkSize);
+        CASHIN_BATCH.record(results.stream().allMatch(r -> r == CashinResult.SUCCESS) ? 0 : 1, start, sqlStart);
+        return results;
+    }
 
-        if (fromUserId <= 0 || toUserId <= 0) {
-            System.err.println("Invalid user ID");
-            return 2; // Error: Invalid user
+    private static List<CashinResult> performCashinBatch(List<CashinItem> items, int chunkSize) {
+        CashinResult[] results = new CashinResult[items.size()];
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (chunkSize <= 0) {
+            chunkSize = AppConfig.CASHIN_BATCH_CHUNK_SIZE;
         }
 
-        if (fromUserId == toUserId) {
-            System.err.println("Cannot transfer to yourself");
-            return 3; // Error: Same user
+        Ledger ledger = Ledger.active();
+        if (ledger != null) {
+            return ledgerCashinBatch(ledger, items);
         }
 
         Connection conn = null;
+        int committed = 0;
 
         try {
             conn = DatabaseConnection.getConnection();
             conn.setAutoCommit(false); // Start transaction
 
-            // 1. Check if both users exist
-            try (PreparedStatement checkUsers = conn.prepareStatement(
-                    "SELECT id FROM users WHERE id IN (?, ?)")) {
-                checkUsers.setInt(1, fromUserId);
-                checkUsers.setInt(2, toUserId);
-                ResultSet rs = checkUsers.executeQuery();
+            for (int start = 0; start < items.size(); start += chunkSize) {
+                int end = Math.min(start + chunkSize, items.size());
 
-                int userCount = 0;
-                while (rs.next()) {
-                    userCount++;
+                for (int attempt = 0; ; attempt++) {
+                    try {
+                        Set<Integer> credited = executeCashinChunk(conn, items, start, end, results);
+                        conn.commit();
+                        for (int userId : credited) {
+                            BalanceService.invalidateBalance(userId);
+                        }
+                        break;
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        if (!isTransientLockFailure(e) || attempt >= AppConfig.TRANSFER_MAX_RETRIES) {
+                            throw e;
+                        }
+                        backOff(attempt);
+                    }
                 }
+                committed = end;
+            }
+
+            EventLog.info("cashin_batch.ok").with("items", items.size()).log();
 
-                if (userCount < 2) {
-                    System.err.println("One or both users do not exist");
-                    return 2; // Error: Invalid user
+        } catch (SQLException e) {
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException ex) {
+                EventLog.error("rollback.error").with("error", ex.getMessage()).log();
+            }
+            EventLog.error("cashin_batch.error").with("items", items.size()).with("committed", committed)
+                    .with("error", e.getMessage()).log();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            EventLog.warn("cashin_batch.interrupted").with("items", items.size()).with("committed", committed).log();
+        } finally {
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    conn.close();
                 }
+            } catch (SQLException e) {
+                EventLog.error("connection.close_error").with("error", e.getMessage()).log();
             }
+        }
 
-            // 2. Check if sender has sufficient balance
-            double senderBalance = 0;
+        // Items in the failed chunk and any chunk after it were not applied; items already
+        // rejected as invalid keep that result since retrying them would not help
+        for (int i = committed; i < results.length; i++) {
+            if (results[i] == null || results[i] == CashinResult.SUCCESS) {
+                results[i] = CashinResult.DATABASE_ERROR;
+            }
+        }
+        return new ArrayList<>(Arrays.asList(results));
+    }
 
-            try (PreparedStatement checkBalance = conn.prepareStatement(
-                    "SELECT amount FROM balance WHERE user_id = ?")) {
-                checkBalance.setInt(1, fromUserId);
-                ResultSet rs = checkBalance.executeQuery();
+    /**
+     * Cash in to many accounts using the configured chunk size
+     * @param items Accounts and amounts to credit
+     * @return One result per item, in the same order as the items
+     */
+    public static List<CashinResult> cashinBatch(List<CashinItem> items) {
+        return cashinBatch(items, AppConfig.CASHIN_BATCH_CHUNK_SIZE);
+    }
 
-                if (rs.next()) {
-                    senderBalance = rs.getDouble("amount");
-                } else {
-                    // User has no balance record yet
-                    senderBalance = 0;
-                }
+    /**
+     * Apply items[start, end) inside the caller's transaction without committing
+     * @return IDs of the users whose balance was credited
+     */
+    private static Set<Integer> executeCashinChunk(Connection conn, List<CashinItem> items, int start, int end,
+                                                   CashinResult[] results) throws SQLException {
+        // 1. Reject malformed items and collect the users to look up
+        Set<Integer> userIds = new HashSet<>();
+        for (int i = start; i < end; i++) {
+            CashinItem item = items.get(i);
+            if (item.getAmount() == null || !item.getAmount().isPositive()) {
+                results[i] = CashinResult.INVALID_AMOUNT;
+            } else if (item.getUserId() <= 0) {
+                results[i] = CashinResult.INVALID_USER;
+            } else {
+                results[i] = null;
+                userIds.add(item.getUserId());
             }
+        }
+        if (userIds.isEmpty()) {
+            return userIds;
+        }
 
-            if (senderBalance < amount) {
-                System.err.println("Insufficient balance for transfer");
-                return 1; // Error: Insufficient funds
-            }
+        // 2. Check all users exist, querying only those the user index does not know with one query
+        Set<Integer> existing = UserService.existing(conn, userIds);
 
-            // 3. Deduct from sender's balance
-            try (PreparedStatement updateSender = conn.prepareStatement(
-                    "UPDATE balance SET amount = amount - ? WHERE user_id = ?")) {
-                updateSender.setDouble(1, amount);
-                updateSender.setInt(2, fromUserId);
-                updateSender.executeUpdate();
+        // 3. Sum the credits per user, ordered by user_id to match the transfer lock order
+        Map<Integer, Money> credits = new TreeMap<>();
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int i = start; i < end; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            CashinItem item = items.get(i);
+            if (existing.contains(item.getUserId())) {
+                credits.merge(item.getUserId(), item.getAmount(), Money::plus);
+                counts.merge(item.getUserId(), 1, Integer::sum);
+            } else {
+                results[i] = CashinResult.INVALID_USER;
             }
+        }
+        if (credits.isEmpty()) {
+            return credits.keySet();
+        }
 
-            // 4. Add to recipient's balance (create record if doesn't exist)
-            try (PreparedStatement checkRecipient = conn.prepareStatement(
-                    "SELECT id FROM balance WHERE user_id = ?")) {
-                checkRecipient.setInt(1, toUserId);
-                ResultSet rs = checkRecipient.executeQuery();
+        // 4. Credit balances, creating missing balance records
+        try (PreparedStatement creditBalance = conn.prepareStatement(SqlStatements.BALANCE_UPSERT_ADD)) {
+            for (Map.Entry<Integer, Money> credit : credits.entrySet()) {
+                creditBalance.setBigDecimal(1, credit.getValue().toBigDecimal());
+                creditBalance.setInt(2, credit.getKey());
+                creditBalance.addBatch();
+            }
+            creditBalance.executeBatch();
+        }
 
-                if (rs.next()) {
-                    // Update existing balance
-                    try (PreparedStatement updateRecipient = conn.prepareStatement(
-                            "UPDATE balance SET amount = amount + ? WHERE user_id = ?")) {
-                        updateRecipient.setDouble(1, amount);
-                        updateRecipient.setInt(2, toUserId);
-                        updateRecipient.executeUpdate();
-                    }
-                } else {
-                    // Create new balance record
-                    try (PreparedStatement createBalance = conn.prepareStatement(
-                            "INSERT INTO balance (amount, user_id) VALUES (?, ?)")) {
-                        createBalance.setDouble(1, amount);
-                        createBalance.setInt(2, toUserId);
-                        createBalance.executeUpdate();
-                    }
+        // 5. Record one ledger row per item
+        LocalDateTime now = LocalDateTime.now();
+        try (PreparedStatement insertTransaction = conn.prepareStatement(SqlStatements.TRANSACTION_INSERT)) {
+            for (int i = start; i < end; i++) {
+                if (results[i] != null) {
+                    continue;
                 }
+                CashinItem item = items.get(i);
+                insertTransaction.setBigDecimal(1, item.getAmount().toBigDecimal());
+                insertTransaction.setString(2, "Cash In");
+                insertTransaction.setInt(3, item.getUserId());
+                insertTransaction.setObject(4, now);
+                insertTransaction.setInt(5, TransactionKind.CASH_IN.getCode());
+                insertTransaction.addBatch();
+                results[i] = CashinResult.SUCCESS;
             }
+            insertTransaction.executeBatch();
+        }
 
-            LocalDateTime now = LocalDateTime.now();
-
-            // 5. Record transaction for sender (debit)
-            try (PreparedStatement senderTransaction = conn.prepareStatement(
-                    "INSERT INTO transaction (amount, name, account_id, date, transferToID, transferFromID) " +
-                            "VALUES (?, ?, ?, ?, ?, ?)")) {
-                senderTransaction.setDouble(1, -amount); // Negative amount for sender
-                senderTransaction.setString(2, "Transfer to User #" + toUserId);
-                senderTransaction.setInt(3, fromUserId);
-                senderTransaction.setObject(4, now);
-                senderTransaction.setInt(5, toUserId);
-                senderTransaction.setInt(6, fromUserId);
-                senderTransaction.executeUpdate();
-            }
-
-            // 6. Record transaction for recipient (credit)
-            try (PreparedStatement recipientTransaction = conn.prepareStatement(
-                    "INSERT INTO transaction (amount, name, account_id, date, transferToID, transferFromID) " +
-                            "VALUES (?, ?, ?, ?, ?, ?)")) {
-                recipientTransaction.setDouble(1, amount); // Positive amount for recipient
-                recipientTransaction.setString(2, "Transfer from User #" + fromUserId);
-                recipientTransaction.setInt(3, toUserId);
-                recipientTransaction.setObject(4, now);
-                recipientTransaction.setInt(5, toUserId);
-                recipientTransaction.setInt(6, fromUserId);
-                recipientTransaction.executeUpdate();
+        // 6. Update the account summaries, one row per user
+        try (PreparedStatement summary = conn.prepareStatement(SqlStatements.SUMMARY_APPLY)) {
+            for (Map.Entry<Integer, Money> credit : credits.entrySet()) {
+                SummaryService.bindChange(summary, credit.getKey(), credit.getValue(), Money.ZERO, Money.ZERO,
+                        counts.get(credit.getKey()), now);
+                summary.addBatch();
             }
+            summary.executeBatch();
+        }
 
-            // Commit transaction
-            conn.commit();
-            System.out.println("Successfully transferred " + amount + " from user " + fromUserId + " to user " + toUserId);
-            return 0; // Success
+        return credits.keySet();
+    }
+
+    /**
+     * Transfer money from one user to another
+     * @param amount Amount to transfer
+     * @param fromUserId User ID sending the money
+     * @param toUserId User ID receiving the money
+     * @return Error code: 0=success, 1=insufficient funds, 2=invalid user, 3=same user, 4=database error
+     */
+    public static int cashTransfer(Money amount, int fromUserId, int toUserId) {
+        long start = System.nanoTime();
+        long sqlStart = SqlTimer.current();
+        int result = performCashTransfer(amount, fromUserId, toUserId);
+        CASH_TRANSFER.record(result, start, sqlStart);
+        return result;
+    }
+
+    private static int performCashTransfer(Money amount, int fromUserId, int toUserId) {
+        // Validate input
+        if (amount == null || !amount.isPositive()) {
+            EventLog.warn("transfer.invalid_amount").with("from", fromUserId).with("to", toUserId)
+                    .with("amount", amount).log();
+            return 1; // Error: Invalid amount
+        }
+
+        if (fromUserId <= 0 || toUserId <= 0) {
+            EventLog.warn("transfer.invalid_user").with("from", fromUserId).with("to", toUserId).log();
+            return 2; // Error: Invalid user
+        }
+
+        if (fromUserId == toUserId) {
+            EventLog.warn("transfer.same_user").with("user", fromUserId).log();
+            return 3; // Error: Same user
+        }
+
+        Ledger ledger = Ledger.active();
+        if (ledger != null) {
+            return ledgerTransfer(ledger, amount, fromUserId, toUserId);
+        }
+
+        if (UserService.isKnownMissing(fromUserId) || UserService.isKnownMissing(toUserId)) {
+            EventLog.warn("transfer.unknown_user").with("from", fromUserId).with("to", toUserId).log();
+            return 2; // Error: Invalid user
+        }
+
+        Connection conn = null;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    int result = executeTransfer(conn, amount, fromUserId, toUserId);
+                    if (result != 0) {
+                        conn.rollback();
+                        return result;
+                    }
+
+                    // Commit transaction
+                    conn.commit();
+                    BalanceService.invalidateBalance(fromUserId);
+                    BalanceService.invalidateBalance(toUserId);
+                    EventLog.info("transfer.ok").with("from", fromUserId).with("to", toUserId)
+                            .with("amount", amount).log();
+                    return 0; // Success
+                } catch (SQLException e) {
+                    if (!isTransientLockFailure(e)) {
+                        throw e;
+                    }
+                    if (attempt >= AppConfig.TRANSFER_MAX_RETRIES) {
+                        transferRetriesExhausted.incrementAndGet();
+                        throw e;
+                    }
+
+                    conn.rollback();
+                    transferRetries.incrementAndGet();
+                    EventLog.warn("transfer.retry").with("from", fromUserId).with("to", toUserId)
+                            .with("attempt", attempt + 1).with("error", e.getMessage()).log();
+                    backOff(attempt);
+                }
+            }
 
         } catch (SQLException e) {
             try {
@@ -270,9 +461,19 @@ public class TransactionService {
                     conn.rollback();
                 }
             } catch (SQLException ex) {
-                System.err.println("Error rolling back transaction: " + ex.getMessage());
+                EventLog.error("rollback.error").with("error", ex.getMessage()).log();
             }
-            System.err.println("Transfer error: " + e.getMessage());
+            EventLog.error("transfer.error").with("from", fromUserId).with("to", toUserId)
+                    .with("error", e.getMessage()).log();
+            return 4; // Error: Database error
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            try {
+                conn.rollback();
+            } catch (SQLException ex) {
+                EventLog.error("rollback.error").with("error", ex.getMessage()).log();
+            }
+            EventLog.warn("transfer.interrupted").with("from", fromUserId).with("to", toUserId).log();
             return 4; // Error: Database error
         } finally {
             try {
@@ -281,21 +482,238 @@ public class TransactionService {
                     conn.close();
                 }
             } catch (SQLException e) {
-                System.err.println("Error closing connection: " + e.getMessage());
+                EventLog.error("connection.close_error").with("error", e.getMessage()).log();
+            }
+        }
+    }
+
+    /**
+     * Cash in through the in-memory ledger
+     */
+    private static boolean ledgerCashin(Ledger ledger, Money amount, int userId) {
+        try {
+            int result = ledger.cashIn(userId, amount).join();
+            if (result == 2) {
+                EventLog.warn("cashin.unknown_user").with("user", userId).log();
+                return false;
+            }
+            if (result == 0) {
+                EventLog.info("cashin.ok").with("user", userId).with("amount", amount).log();
+            }
+            return result == 0;
+        } catch (CompletionException e) {
+            EventLog.error("cashin.error").with("user", userId).with("error", e.getCause().getMessage()).log();
+            return false;
+        }
+    }
+
+    /**
+     * Cash in many items through the in-memory ledger; shards work on the items in parallel
+     */
+    private static List<CashinResult> ledgerCashinBatch(Ledger ledger, List<CashinItem> items) {
+        List<CompletableFuture<Integer>> pending = new ArrayList<>(items.size());
+        for (CashinItem item : items) {
+            pending.add(ledger.cashIn(item.getUserId(), item.getAmount()));
+        }
+
+        List<CashinResult> results = new ArrayList<>(items.size());
+        for (CompletableFuture<Integer> result : pending) {
+            try {
+                switch (result.join()) {
+                    case 0:
+                        results.add(CashinResult.SUCCESS);
+                        break;
+                    case 1:
+                        results.add(CashinResult.INVALID_AMOUNT);
+                        break;
+                    default:
+                        results.add(CashinResult.INVALID_USER);
+                        break;
+                }
+            } catch (CompletionException e) {
+                results.add(CashinResult.DATABASE_ERROR);
             }
         }
+
+        EventLog.info("cashin_batch.ok").with("items", items.size()).log();
+        return results;
+    }
+
+    /**
+     * Transfer through the in-memory ledger
+     */
+    private static int ledgerTransfer(Ledger ledger, Money amount, int fromUserId, int toUserId) {
+        try {
+            int result = ledger.transfer(fromUserId, toUserId, amount).join();
+            if (result == 0) {
+                EventLog.info("transfer.ok").with("from", fromUserId).with("to", toUserId).with("amount", amount).log();
+            } else if (result == 1) {
+                EventLog.info("transfer.insufficient_funds").with("from", fromUserId).with("amount", amount).log();
+            } else if (result == 2) {
+                EventLog.warn("transfer.unknown_user").with("from", fromUserId).with("to", toUserId).log();
+            }
+            return result;
+        } catch (CompletionException e) {
+            EventLog.error("transfer.error").with("from", fromUserId).with("to", toUserId)
+                    .with("error", e.getCause().getMessage()).log();
+            return 4; // Error: Database error
+        }
     }
 
     /**
-     * View all transactions in the system
+     * Run the statements of a transfer inside the caller's transaction without committing.
+     * Both balance rows are locked in ascending user_id order so that two opposite
+     * transfers between the same users cannot deadlock each other.
+     * @param conn Connection with auto-commit disabled
+     * @param amount Amount to transfer
+     * @param fromUserId User ID sending the money
+     * @param toUserId User ID receiving the money
+     * @return Result code as for cashTransfer; anything but 0 must be rolled back by the caller
+     * @throws SQLException If a database error occurs
+     */
+    static int executeTransfer(Connection conn, Money amount, int fromUserId, int toUserId)
+            throws SQLException {
+        // 1. Check if both users exist
+        if (!UserService.bothExist(conn, fromUserId, toUserId)) {
+            EventLog.warn("transfer.unknown_user").with("from", fromUserId).with("to", toUserId).log();
+            return 2; // Error: Invalid user
+        }
+
+        // 2. Debit the sender and credit the recipient, lowest user_id first
+        if (fromUserId < toUserId) {
+            if (!debitSender(conn, amount, fromUserId)) {
+                return 1; // Error: Insufficient funds
+            }
+            creditRecipient(conn, amount, toUserId);
+        } else {
+            creditRecipient(conn, amount, toUserId);
+            if (!debitSender(conn, amount, fromUserId)) {
+                return 1; // Error: Insufficient funds
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+
+        // 3. Record the debit and credit ledger rows in one batch
+        try (PreparedStatement ledger = conn.prepareStatement(SqlStatements.TRANSACTION_INSERT_TRANSFER)) {
+            ledger.setBigDecimal(1, amount.negate().toBigDecimal()); // Negative amount for sender
+            ledger.setString(2, "Transfer to User #" + toUserId);
+            ledger.setInt(3, fromUserId);
+            ledger.setObject(4, now);
+            ledger.setInt(5, toUserId);
+            ledger.setInt(6, fromUserId);
+            ledger.setInt(7, TransactionKind.TRANSFER_OUT.getCode());
+            ledger.addBatch();
+
+            ledger.setBigDecimal(1, amount.toBigDecimal()); // Positive amount for recipient
+            ledger.setString(2, "Transfer from User #" + fromUserId);
+            ledger.setInt(3, toUserId);
+            ledger.setObject(4, now);
+            ledger.setInt(5, toUserId);
+            ledger.setInt(6, fromUserId);
+            ledger.setInt(7, TransactionKind.TRANSFER_IN.getCode());
+            ledger.addBatch();
+
+            ledger.executeBatch();
+        }
+
+        // 4. Update both account summaries, lowest user_id first like the balance rows
+        try (PreparedStatement summary = conn.prepareStatement(SqlStatements.SUMMARY_APPLY)) {
+            if (fromUserId < toUserId) {
+                SummaryService.bindChange(summary, fromUserId, Money.ZERO, amount, Money.ZERO, 0, now);
+                summary.addBatch();
+                SummaryService.bindChange(summary, toUserId, Money.ZERO, Money.ZERO, amount, 0, now);
+            } else {
+                SummaryService.bindChange(summary, toUserId, Money.ZERO, Money.ZERO, amount, 0, now);
+                summary.addBatch();
+                SummaryService.bindChange(summary, fromUserId, Money.ZERO, amount, Money.ZERO, 0, now);
+            }
+            summary.addBatch();
+            summary.executeBatch();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Debit the sender only if the balance covers the amount; the row lock taken
+     * by the UPDATE makes the check and the debit a single atomic step
+     * @return true if the sender was debited, false if funds are insufficient
+     */
+    private static boolean debitSender(Connection conn, Money amount, int fromUserId) throws SQLException {
+        try (PreparedStatement debit = conn.prepareStatement(SqlStatements.BALANCE_SUBTRACT_IF_FUNDED)) {
+            BigDecimal value = amount.toBigDecimal();
+            debit.setBigDecimal(1, value);
+            debit.setInt(2, fromUserId);
+            debit.setBigDecimal(3, value);
+
+            if (debit.executeUpdate() == 0) {
+                EventLog.info("transfer.insufficient_funds").with("from", fromUserId).with("amount", amount).log();
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Credit the recipient, creating the balance record if it doesn't exist
+     */
+    private static void creditRecipient(Connection conn, Money amount, int toUserId) throws SQLException {
+        try (PreparedStatement credit = conn.prepareStatement(SqlStatements.BALANCE_UPSERT_ADD)) {
+            credit.setBigDecimal(1, amount.toBigDecimal());
+            credit.setInt(2, toUserId);
+            credit.executeUpdate();
+        }
+    }
+
+    /**
+     * Check whether a failure is a deadlock or lock wait timeout that is safe to retry
+     * @param e Exception thrown by the driver
+     * @return true if the transaction was rolled back by the server because of lock contention
+     */
+    static boolean isTransientLockFailure(SQLException e) {
+        if (e instanceof SQLTransactionRollbackException) {
+            return true;
+        }
+        // 40001 = deadlock / serialization failure, 1213 = ER_LOCK_DEADLOCK, 1205 = ER_LOCK_WAIT_TIMEOUT
+        return "40001".equals(e.getSQLState()) || e.getErrorCode() == 1213 || e.getErrorCode() == 1205;
+    }
+
+    /**
+     * Sleep for an exponentially growing, randomly jittered delay before retrying
+     */
+    private static void backOff(int attempt) throws InterruptedException {
+        long ceiling = AppConfig.TRANSFER_RETRY_BACKOFF_MS << Math.min(attempt, 10);
+        Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+    }
+
+    /**
+     * Number of transfer attempts retried after a deadlock or lock wait timeout
+     * @return Total retries since startup
+     */
+    public static long getTransferRetryCount() {
+        return transferRetries.get();
+    }
+
+    /**
+     * Number of transfers that still hit lock contention after the last retry
+     * @return Total transfers failed with code 4 because retries ran out
+     */
+    public static long getTransferRetryExhaustedCount() {
+        return transferRetriesExhausted.get();
+    }
+
+    /**
+     * View all transactions in the system.
+     * Loads the whole table into memory; use streamAll for large histories.
      * @return List of all transactions
      */
     public static List<Transactions> viewAll() {
         List<Transactions> transactionList = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT * FROM transaction ORDER BY date DESC")) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SqlStatements.TRANSACTION_ALL);
+             ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
                 Transactions transaction = mapResultSetToTransaction(rs);
@@ -303,28 +721,28 @@ public class TransactionService {
             }
 
         } catch (SQLException e) {
-            System.err.println("Error retrieving transactions: " + e.getMessage());
+            EventLog.error("history.error").with("error", e.getMessage()).log();
         }
 
         return transactionList;
     }
 
     /**
-     * View all transactions for a specific user
+     * View all transactions for a specific user.
+     * Loads the whole history into memory; use viewUserPage or streamUserAll for large histories.
      * @param userId User ID to get transactions for
      * @return List of transactions for the specified user
      */
     public static List<Transactions> viewUserAll(int userId) {
         if (userId <= 0) {
-            System.err.println("Invalid user ID");
+            EventLog.warn("history.invalid").with("user", userId).log();
             return new ArrayList<>();
         }
 
         List<Transactions> transactionList = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT * FROM transaction WHERE account_id = ? ORDER BY date DESC")) {
+        try (Connection conn = DatabaseConnection.getReadConnection(userId);
+             PreparedStatement pstmt = conn.prepareStatement(SqlStatements.TRANSACTION_BY_ACCOUNT)) {
 
             pstmt.setInt(1, userId);
 
@@ -336,12 +754,131 @@ public class TransactionService {
             }
 
         } catch (SQLException e) {
-            System.err.println("Error retrieving user transactions: " + e.getMessage());
+            EventLog.error("history.error").with("user", userId).with("error", e.getMessage()).log();
         }
 
         return transactionList;
     }
 
+    /**
+     * View one page of a user's transactions, newest first.
+     * Pages are located by (date, id) instead of OFFSET, so every page costs the
+     * same index range scan no matter how deep into the history it is.
+     * @param userId User ID to get transactions for
+     * @param before Cursor from the previous page, or null for the first page
+     * @param pageSize Maximum number of transactions to return
+     * @return The page, with an empty list if there are no more transactions
+     */
+    public static TransactionPage viewUserPage(int userId, TransactionCursor before, int pageSize) {
+        long start = System.nanoTime();
+        long sqlStart = SqlTimer.current();
+        TransactionPage page = performViewUserPage(userId, before, pageSize);
+        VIEW_USER_PAGE.record(0, start, sqlStart);
+        return page;
+    }
+
+    private static TransactionPage performViewUserPage(int userId, TransactionCursor before, int pageSize) {
+        if (userId <= 0 || pageSize <= 0) {
+            EventLog.warn("history.invalid").with("user", userId).with("page_size", pageSize).log();
+            return new TransactionPage(new ArrayList<>(), null);
+        }
+
+        String sql = before == null ? SqlStatements.TRANSACTION_FIRST_PAGE : SqlStatements.TRANSACTION_PAGE_BEFORE;
+
+        List<Transactions> transactionList = new ArrayList<>(pageSize);
+        boolean hasMore = false;
+
+        try (Connection conn = DatabaseConnection.getReadConnection(userId);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            pstmt.setInt(index++, userId);
+            if (before != null) {
+                pstmt.setObject(index++, before.getDate());
+                pstmt.setObject(index++, before.getDate());
+                pstmt.setInt(index++, before.getId());
+            }
+            // Fetch one extra row to learn whether another page exists
+            pstmt.setInt(index, pageSize + 1);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (transactionList.size() == pageSize) {
+                        hasMore = true;
+                        break;
+                    }
+                    transactionList.add(mapResultSetToTransaction(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            EventLog.error("history.error").with("user", userId).with("error", e.getMessage()).log();
+        }
+
+        TransactionCursor next = hasMore
+                ? TransactionCursor.after(transactionList.get(transactionList.size() - 1))
+                : null;
+        return new TransactionPage(transactionList, next);
+    }
+
+    /**
+     * Stream all transactions for a user to a consumer, newest first.
+     * Rows are fetched from the server in chunks of HISTORY_FETCH_SIZE and are
+     * not retained, so memory use does not grow with the length of the history.
+     * @param userId User ID to get transactions for
+     * @param consumer Receives each transaction in order
+     * @return Number of transactions streamed, or -1 on a database error
+     */
+    public static long streamUserAll(int userId, Consumer<Transactions> consumer) {
+        if (userId <= 0) {
+            EventLog.warn("history.invalid").with("user", userId).log();
+            return -1;
+        }
+
+        try (Connection conn = DatabaseConnection.getReadConnection(userId);
+             PreparedStatement pstmt = conn.prepareStatement(
+                     SqlStatements.TRANSACTION_STREAM_ACCOUNT, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            pstmt.setInt(1, userId);
+            return streamRows(pstmt, consumer);
+
+        } catch (SQLException e) {
+            EventLog.error("history.stream_error").with("user", userId).with("error", e.getMessage()).log();
+            return -1;
+        }
+    }
+
+    /**
+     * Stream every transaction in the system to a consumer, newest first
+     * @param consumer Receives each transaction in order
+     * @return Number of transactions streamed, or -1 on a database error
+     */
+    public static long streamAll(Consumer<Transactions> consumer) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     SqlStatements.TRANSACTION_ALL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            return streamRows(pstmt, consumer);
+
+        } catch (SQLException e) {
+            EventLog.error("history.stream_error").with("error", e.getMessage()).log();
+            return -1;
+        }
+    }
+
+    private static long streamRows(PreparedStatement pstmt, Consumer<Transactions> consumer) throws SQLException {
+        pstmt.setFetchSize(AppConfig.HISTORY_FETCH_SIZE);
+
+        long count = 0;
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                consumer.accept(mapResultSetToTransaction(rs));
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * View a specific transaction by ID
      * @param transactionId Transaction ID to retrieve
@@ -349,29 +886,40 @@ public class TransactionService {
      */
     public static Transactions viewTransaction(int transactionId) {
         if (transactionId <= 0) {
-            System.err.println("Invalid transaction ID");
+            EventLog.warn("transaction.invalid_id").with("id", transactionId).log();
             return null;
         }
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT * FROM transaction WHERE id = ?")) {
-
-            pstmt.setInt(1, transactionId);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return mapResultSetToTransaction(rs);
+        try {
+            try (Connection conn = DatabaseConnection.getReadConnection()) {
+                Transactions transaction = findTransaction(conn, transactionId);
+                if (transaction != null || !DatabaseConnection.hasReplicas()) {
+                    return transaction;
                 }
             }
 
+            // The read may have gone to a replica that has not applied the transaction yet
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                return findTransaction(conn, transactionId);
+            }
+
         } catch (SQLException e) {
-            System.err.println("Error retrieving transaction: " + e.getMessage());
+            EventLog.error("transaction.error").with("id", transactionId).with("error", e.getMessage()).log();
         }
 
         return null;
     }
 
+    private static Transactions findTransaction(Connection conn, int transactionId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SqlStatements.TRANSACTION_BY_ID)) {
+            pstmt.setInt(1, transactionId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapResultSetToTransaction(rs) : null;
+            }
+        }
+    }
+
     /**
      * Helper method to map ResultSet to Transaction object
      * @param rs ResultSet containing transaction data
@@ -381,14 +929,22 @@ public class TransactionService {
     private static Transactions mapResultSetToTransaction(ResultSet rs) throws SQLException {
         LocalDateTime date = rs.getTimestamp("date").toLocalDateTime();
 
+        int accountId = rs.getInt("account_id");
         Integer transferToID = rs.getObject("transferToID", Integer.class);
         Integer transferFromID = rs.getObject("transferFromID", Integer.class);
 
+        // Rows written before the kind column was filled have kind 0
+        TransactionKind kind = TransactionKind.fromCode(rs.getInt("kind"));
+        if (kind == TransactionKind.UNKNOWN) {
+            kind = TransactionKind.classify(accountId, transferToID, transferFromID);
+        }
+
         return new Transactions(
                 rs.getInt("id"),
-                rs.getDouble("amount"),
+                Money.fromBigDecimal(rs.getBigDecimal("amount")),
                 rs.getString("name"),
-                rs.getInt("account_id"),
+                kind,
+                accountId,
                 date,
                 transferToID,
                 transferFromID
@@ -0,0 +1,332 @@
+package com.gcash.app.Service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.gcash.app.Ledger.Ledger;
+import com.gcash.app.Model.Money;
+import com.gcash.app.util.AppConfig;
+import com.gcash.app.util.DatabaseConnection;
+import com.gcash.app.util.EventLog;
+
+/**
+ * Asynchronous transfer engine that group-commits many transfers per database transaction.
+ *
+ * Callers submit transfers to a bounded queue and get a future for the usual cashTransfer
+ * result code. Writer threads take up to maxBatchSize transfers (waiting at most lingerMs
+ * for a batch to fill) and run them in one transaction, each inside its own savepoint so a
+ * transfer that fails is undone without affecting the others. If the batch fails before it is
+ * committed, every transfer in it is replayed through TransactionService.cashTransfer. A failed
+ * commit is not replayed, since the server may have applied it; those transfers report error 4.
+ *
+ * Submitters enqueue under the read side of a lock and shutdown() flips the running flag under
+ * the write side, so no transfer can be queued after the writers were told to drain and exit.
+ */
+public class TransferEngine {
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final BlockingQueue<PendingTransfer> queue;
+    private final int writerCount;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+
+    private final List<Thread> writers = new ArrayList<>();
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong committedCount = new AtomicLong();
+    private final AtomicLong fallbackCount = new AtomicLong();
+
+    /**
+     * Create an engine using the TRANSFER_ENGINE_* settings in AppConfig
+     */
+    public TransferEngine() {
+        this(AppConfig.TRANSFER_ENGINE_WRITERS, AppConfig.TRANSFER_ENGINE_QUEUE_CAPACITY,
+                AppConfig.TRANSFER_ENGINE_MAX_BATCH_SIZE, AppConfig.TRANSFER_ENGINE_LINGER_MS);
+    }
+
+    /**
+     * @param writerCount Number of writer threads, each with its own connection per batch
+     * @param queueCapacity Pending transfers accepted before submit() blocks
+     * @param maxBatchSize Maximum transfers committed in one transaction
+     * @param lingerMs How long a writer waits for more transfers before committing a partial batch
+     */
+    public TransferEngine(int writerCount, int queueCapacity, int maxBatchSize, long lingerMs) {
+        if (writerCount <= 0 || queueCapacity <= 0 || maxBatchSize <= 0 || lingerMs < 0) {
+            throw new IllegalArgumentException("Invalid transfer engine settings");
+        }
+
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writerCount = writerCount;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        setRunning(true);
+        for (int i = 0; i < writerCount; i++) {
+            Thread writer = new Thread(this::runWriter, "gcash-transfer-writer-" + i);
+            writer.setDaemon(true);
+            writers.add(writer);
+            writer.start();
+        }
+    }
+
+    /**
+     * Stop accepting transfers, commit everything already queued and stop the writers
+     * @throws InterruptedException If interrupted while waiting for the writers
+     */
+    public synchronized void shutdown() throws InterruptedException {
+        setRunning(false);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        writers.clear();
+
+        // Writers that died or were interrupted may have left transfers behind
+        PendingTransfer transfer;
+        while ((transfer = queue.poll()) != null) {
+            transfer.result.complete(4);
+        }
+    }
+
+    /**
+     * Queue a transfer, blocking while the queue is full
+     * @param amount Amount to transfer
+     * @param fromUserId User ID sending the money
+     * @param toUserId User ID receiving the money
+     * @return Future completed with the cashTransfer result code once the transfer is committed or rejected
+     */
+    public CompletableFuture<Integer> submit(Money amount, int fromUserId, int toUserId) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+
+        // Reject obviously invalid transfers without queueing them
+        if (amount == null || !amount.isPositive()) {
+            result.complete(1);
+            return result;
+        }
+        if (fromUserId <= 0 || toUserId <= 0) {
+            result.complete(2);
+            return result;
+        }
+        if (fromUserId == toUserId) {
+            result.complete(3);
+            return result;
+        }
+
+        // The in-memory ledger already batches its log writes
+        Ledger ledger = Ledger.active();
+        if (ledger != null) {
+            return ledger.transfer(fromUserId, toUserId, amount).exceptionally(e -> 4);
+        }
+
+        // Held while blocked on a full queue; the writers keep draining until shutdown() gets the write lock
+        stateLock.readLock().lock();
+        try {
+            if (!running) {
+                result.complete(4);
+                return result;
+            }
+            queue.put(new PendingTransfer(amount, fromUserId, toUserId, result));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.complete(4);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public long getCommittedCount() {
+        return committedCount.get();
+    }
+
+    /**
+     * @return Number of transfers replayed individually because their batch failed
+     */
+    public long getFallbackCount() {
+        return fallbackCount.get();
+    }
+
+    private void runWriter() {
+        List<PendingTransfer> batch = new ArrayList<>(maxBatchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingTransfer first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingTransfer next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                commitBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (PendingTransfer transfer : batch) {
+                    transfer.result.complete(4);
+                }
+                return;
+            } catch (RuntimeException e) {
+                // Futures already completed by commitBatch() keep their result
+                EventLog.error("transfer_batch.error").with("transfers", batch.size())
+                        .with("error", e).log();
+                for (PendingTransfer transfer : batch) {
+                    transfer.result.complete(4);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Run a batch of transfers in one transaction and complete their futures
+     */
+    private void commitBatch(List<PendingTransfer> batch) {
+        // Lock rows in the same order in every writer, as cashTransfer does within one transfer
+        batch.sort(Comparator.comparingInt(transfer -> Math.min(transfer.fromUserId, transfer.toUserId)));
+
+        int[] codes = new int[batch.size()];
+        Connection conn = null;
+        boolean committing = false;
+
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+
+            for (int i = 0; i < batch.size(); i++) {
+                PendingTransfer transfer = batch.get(i);
+                Savepoint savepoint = conn.setSavepoint();
+                codes[i] = TransactionService.executeTransfer(
+                        conn, transfer.amount, transfer.fromUserId, transfer.toUserId);
+                if (codes[i] != 0) {
+                    conn.rollback(savepoint);
+                }
+            }
+
+            committing = true;
+            conn.commit();
+        } catch (RuntimeException e) {
+            // Roll back before the finally block restores auto-commit, which would commit the partial batch
+            rollback(conn);
+            throw e;
+        } catch (SQLException e) {
+            rollback(conn);
+            if (committing) {
+                // The server may have committed before the connection failed, so a replay could apply
+                // every transfer twice; report a system error and leave the outcome to reconciliation
+                EventLog.error("transfer_batch.commit_failed").with("transfers", batch.size())
+                        .with("error", e.getMessage()).log();
+                for (PendingTransfer transfer : batch) {
+                    BalanceService.invalidateBalance(transfer.fromUserId);
+                    BalanceService.invalidateBalance(transfer.toUserId);
+                    transfer.result.complete(4);
+                }
+                return;
+            }
+            EventLog.warn("transfer_batch.replay").with("transfers", batch.size()).with("error", e.getMessage()).log();
+            replayIndividually(batch);
+            return;
+        } finally {
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                }
+            } catch (SQLException e) {
+                EventLog.error("connection.close_error").with("error", e.getMessage()).log();
+            }
+        }
+
+        batchCount.incrementAndGet();
+        for (int i = 0; i < batch.size(); i++) {
+            PendingTransfer transfer = batch.get(i);
+            if (codes[i] == 0) {
+                committedCount.incrementAndGet();
+                BalanceService.invalidateBalance(transfer.fromUserId);
+                BalanceService.invalidateBalance(transfer.toUserId);
+            }
+            transfer.result.complete(codes[i]);
+        }
+    }
+
+    private static void rollback(Connection conn) {
+        try {
+            if (conn != null) {
+                conn.rollback();
+            }
+        } catch (SQLException ex) {
+            EventLog.error("rollback.error").with("error", ex.getMessage()).log();
+        }
+    }
+
+    private void setRunning(boolean value) {
+        stateLock.writeLock().lock();
+        try {
+            running = value;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    private void replayIndividually(List<PendingTransfer> batch) {
+        for (PendingTransfer transfer : batch) {
+            fallbackCount.incrementAndGet();
+            int code = TransactionService.cashTransfer(transfer.amount, transfer.fromUserId, transfer.toUserId);
+            if (code == 0) {
+                committedCount.incrementAndGet();
+            }
+            transfer.result.complete(code);
+        }
+    }
+
+    private static final class PendingTransfer {
+        private final Money amount;
+        private final int fromUserId;
+        private final int toUserId;
+        private final CompletableFuture<Integer> result;
+
+        private PendingTransfer(Money amount, int fromUserId, int toUserId, CompletableFuture<Integer> result) {
+            this.amount = amount;
+            this.fromUserId = fromUserId;
+            this.toUserId = toUserId;
+            this.result = result;
+        }
+    }
+}
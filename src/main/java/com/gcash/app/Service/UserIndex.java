@@ -0,0 +1,213 @@
+package com.gcash.app.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.gcash.app.util.EvictionSampler;
+
+/**
+ * In-memory index of which user IDs exist.
+ *
+ * User IDs are dense auto-increment integers and users are never deleted, so a bitmap with one
+ * bit per ID is exact: a set bit means the user exists and needs no query. A clear bit only means
+ * "not confirmed yet", since another process may have registered the user. IDs that a query found
+ * missing are remembered for a short time so repeated lookups of an unknown ID skip the database.
+ */
+public class UserIndex {
+    private final int maxUserId;
+    private final int maxMissing;
+    private final long missingTtlNanos;
+
+    // Replaced, never shrunk, when a larger ID is added; bits are set atomically in place
+    private volatile AtomicLongArray bits = new AtomicLongArray(1);
+    private final Object growLock = new Object();
+
+    // Unknown user ID -> nanoTime at which it was found missing
+    private final ConcurrentHashMap<Integer, Long> missing = new ConcurrentHashMap<>();
+    private final AtomicLong additions = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder missingHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxUserId Highest ID kept in the bitmap; larger IDs are always looked up
+     * @param maxMissing Maximum number of unknown IDs remembered (0 disables the negative cache)
+     * @param missingTtlMs How long an unknown ID is reported as missing without a query
+     */
+    public UserIndex(int maxUserId, int maxMissing, long missingTtlMs) {
+        this.maxUserId = maxUserId;
+        this.maxMissing = maxMissing;
+        this.missingTtlNanos = TimeUnit.MILLISECONDS.toNanos(missingTtlMs);
+    }
+
+    /**
+     * @param userId User ID
+     * @return true if the user is known to exist
+     */
+    public boolean contains(int userId) {
+        if (isSet(userId)) {
+            hits.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param userId User ID
+     * @return true if a recent query found no such user
+     */
+    public boolean isKnownMissing(int userId) {
+        Long foundAt = missing.get(userId);
+        if (foundAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - foundAt < missingTtlNanos) {
+            missingHits.increment();
+            return true;
+        }
+        missing.remove(userId, foundAt);
+        return false;
+    }
+
+    /**
+     * Take a stamp before querying for users that are not in the index
+     * @return Stamp to pass to addMissing()
+     */
+    public long beginLookup() {
+        misses.increment();
+        return additions.get();
+    }
+
+    /**
+     * Record that a user exists, e.g. after registration or a query that found it
+     * @param userId User ID
+     */
+    public void add(int userId) {
+        if (userId <= 0 || userId > maxUserId) {
+            return;
+        }
+
+        int word = userId >>> 6;
+        AtomicLongArray words;
+        do {
+            words = bits;
+            if (word >= words.length()) {
+                words = grow(word);
+            }
+            words.getAndUpdate(word, w -> w | (1L << userId));
+            // A concurrent grow() may have copied the bitmap before the bit was set; set it again in the copy
+        } while (bits != words);
+
+        additions.incrementAndGet();
+        missing.remove(userId);
+    }
+
+    /**
+     * Remember that a query found no such user, unless a user was added since beginLookup()
+     * @param stamp Value returned by beginLookup() before the query
+     * @param userId User ID
+     */
+    public void addMissing(long stamp, int userId) {
+        if (maxMissing <= 0 || isSet(userId)) {
+            return;
+        }
+
+        if (missing.size() >= maxMissing && !missing.containsKey(userId)) {
+            evictOne();
+        }
+
+        Long foundAt = System.nanoTime();
+        missing.put(userId, foundAt);
+
+        // A registration slipped in between the query and the put; the user may exist now
+        if (additions.get() != stamp) {
+            missing.remove(userId, foundAt);
+        }
+    }
+
+    public void clear() {
+        synchronized (growLock) {
+            bits = new AtomicLongArray(1);
+        }
+        additions.incrementAndGet();
+        missing.clear();
+    }
+
+    /**
+     * @return Number of IDs known to exist
+     */
+    public int size() {
+        AtomicLongArray words = bits;
+        int count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+
+    public int getMissingSize() {
+        return missing.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissingHitCount() {
+        return missingHits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "users=" + size() + " missing=" + getMissingSize() + " hits=" + getHitCount()
+                + " missingHits=" + getMissingHitCount() + " misses=" + getMissCount();
+    }
+
+    private boolean isSet(int userId) {
+        if (userId <= 0) {
+            return false;
+        }
+
+        AtomicLongArray words = bits;
+        int word = userId >>> 6;
+        return word < words.length() && (words.get(word) & (1L << userId)) != 0;
+    }
+
+    /**
+     * Copy the bitmap into one with room for the word, doubling to keep copies rare
+     */
+    private AtomicLongArray grow(int word) {
+        synchronized (growLock) {
+            AtomicLongArray words = bits;
+            if (word < words.length()) {
+                return words;
+            }
+
+            int length = Math.max(word + 1, Math.min(words.length() * 2, (maxUserId >>> 6) + 1));
+            AtomicLongArray grown = new AtomicLongArray(length);
+            for (int i = 0; i < words.length(); i++) {
+                grown.set(i, words.get(i));
+            }
+            bits = grown;
+            return grown;
+        }
+    }
+
+    /**
+     * Evict the ID found missing longest ago among a few randomly sampled ones
+     */
+    private void evictOne() {
+        Integer victim = EvictionSampler.selectVictim(missing, foundAt -> foundAt);
+        if (victim != null) {
+            missing.remove(victim);
+        }
+    }
+}
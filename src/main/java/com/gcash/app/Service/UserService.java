@@ -0,0 +1,197 @@
+package com.gcash.app.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.gcash.app.util.AppConfig;
+import com.gcash.app.util.DatabaseConnection;
+import com.gcash.app.util.EventLog;
+import com.gcash.app.util.SqlStatements;
+
+/**
+ * User existence checks backed by the in-memory UserIndex; only IDs the index cannot answer
+ * reach the database
+ */
+public class UserService {
+
+    private static final UserIndex index = new UserIndex(AppConfig.USER_INDEX_MAX_ID,
+            AppConfig.USER_INDEX_NEGATIVE_MAX_ENTRIES, AppConfig.USER_INDEX_NEGATIVE_TTL_MS);
+
+    /**
+     * Fill the index with every existing user ID, e.g. at startup
+     * @return Number of IDs loaded, or -1 on a database error
+     */
+    public static int load() {
+        int loaded = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SqlStatements.USER_IDS,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            pstmt.setFetchSize(AppConfig.USER_INDEX_FETCH_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    index.add(rs.getInt(1));
+                    loaded++;
+                }
+            }
+            EventLog.info("user_index.loaded").with("users", loaded).log();
+            return loaded;
+        } catch (SQLException e) {
+            EventLog.error("user_index.error").with("error", e.getMessage()).log();
+            return -1;
+        }
+    }
+
+    /**
+     * Add a newly registered user to the index
+     * @param userId ID of the new user
+     */
+    public static void userAdded(int userId) {
+        index.add(userId);
+    }
+
+    /**
+     * Check without touching the database whether a user was recently found not to exist
+     * @param userId User ID
+     * @return true if the user can be rejected as unknown straight away
+     */
+    public static boolean isKnownMissing(int userId) {
+        return index.isKnownMissing(userId);
+    }
+
+    /**
+     * @param conn Connection to query on if the index cannot answer
+     * @param userId User ID
+     * @return true if the user exists
+     * @throws SQLException If a database error occurs
+     */
+    static boolean exists(Connection conn, int userId) throws SQLException {
+        if (index.contains(userId)) {
+            return true;
+        }
+        if (index.isKnownMissing(userId)) {
+            return false;
+        }
+
+        long stamp = index.beginLookup();
+        try (PreparedStatement checkUser = conn.prepareStatement(SqlStatements.USER_EXISTS)) {
+            checkUser.setInt(1, userId);
+            ResultSet rs = checkUser.executeQuery();
+
+            if (rs.next()) {
+                index.add(userId);
+                return true;
+            }
+        }
+        index.addMissing(stamp, userId);
+        return false;
+    }
+
+    /**
+     * @param conn Connection to query on if the index cannot answer
+     * @param firstUserId User ID
+     * @param secondUserId Another user ID
+     * @return true if both users exist
+     * @throws SQLException If a database error occurs
+     */
+    static boolean bothExist(Connection conn, int firstUserId, int secondUserId) throws SQLException {
+        boolean firstKnown = index.contains(firstUserId);
+        boolean secondKnown = index.contains(secondUserId);
+        if (firstKnown) {
+            return secondKnown || exists(conn, secondUserId);
+        }
+        if (secondKnown) {
+            return exists(conn, firstUserId);
+        }
+        if (index.isKnownMissing(firstUserId) || index.isKnownMissing(secondUserId)) {
+            return false;
+        }
+
+        long stamp = index.beginLookup();
+        boolean firstFound = false;
+        boolean secondFound = false;
+        try (PreparedStatement checkUsers = conn.prepareStatement(SqlStatements.USER_PAIR_EXISTS)) {
+            checkUsers.setInt(1, firstUserId);
+            checkUsers.setInt(2, secondUserId);
+            ResultSet rs = checkUsers.executeQuery();
+
+            while (rs.next()) {
+                int id = rs.getInt("id");
+                firstFound |= id == firstUserId;
+                secondFound |= id == secondUserId;
+            }
+        }
+
+        recordLookup(stamp, firstUserId, firstFound);
+        recordLookup(stamp, secondUserId, secondFound);
+        return firstFound && secondFound;
+    }
+
+    /**
+     * @param conn Connection to query on for the IDs the index cannot answer
+     * @param userIds User IDs to check
+     * @return The subset of the IDs that exist
+     * @throws SQLException If a database error occurs
+     */
+    static Set<Integer> existing(Connection conn, Set<Integer> userIds) throws SQLException {
+        Set<Integer> existing = new HashSet<>();
+        List<Integer> unknown = new ArrayList<>();
+        for (int userId : userIds) {
+            if (index.contains(userId)) {
+                existing.add(userId);
+            } else if (!index.isKnownMissing(userId)) {
+                unknown.add(userId);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return existing;
+        }
+
+        long stamp = index.beginLookup();
+        Set<Integer> found = new HashSet<>();
+        try (PreparedStatement checkUsers = conn.prepareStatement(SqlStatements.usersIn(unknown.size()))) {
+            int parameter = 1;
+            for (int userId : unknown) {
+                checkUsers.setInt(parameter++, userId);
+            }
+            // Pad the rest of the IN list with the last ID so the statement text stays cacheable
+            int last = unknown.get(unknown.size() - 1);
+            for (int padded = SqlStatements.inListSize(unknown.size()); parameter <= padded; parameter++) {
+                checkUsers.setInt(parameter, last);
+            }
+            try (ResultSet rs = checkUsers.executeQuery()) {
+                while (rs.next()) {
+                    found.add(rs.getInt("id"));
+                }
+            }
+        }
+
+        for (int userId : unknown) {
+            recordLookup(stamp, userId, found.contains(userId));
+        }
+        existing.addAll(found);
+        return existing;
+    }
+
+    /**
+     * Get the user index, e.g. to read its hit/miss counters
+     * @return The shared user index
+     */
+    public static UserIndex getIndex() {
+        return index;
+    }
+
+    private static void recordLookup(long stamp, int userId, boolean found) {
+        if (found) {
+            index.add(userId);
+        } else {
+            index.addMissing(stamp, userId);
+        }
+    }
+}
@@ -1,17 +1,136 @@
 package com.gcash.app.util;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class AppConfig {
     // Database configuration
     public static final String DB_NAME = "gcashdatabase";
-    public static final String DB_URL = "jdbc:mysql://localhost:3306/" + DB_NAME;
-    public static final String DB_USER = "root";  // Change to your database username
-    public static final String DB_PASSWORD = "#Xelle111406";  // Change to your database password
+    // useCursorFetch makes setFetchSize stream large result sets instead of buffering them;
+    // rewriteBatchedStatements sends a JDBC batch as one multi-row statement instead of one per row;
+    // useServerPrepStmts prepares statements on the server so the pool's statement cache reuses the parsed plan
+    // Each setting can be overridden with a -Dgcash.db.* system property, e.g. to point at an embedded database
+    public static final String DB_URL = System.getProperty("gcash.db.url",
+            "jdbc:mysql://localhost:3306/" + DB_NAME + "?useCursorFetch=true&rewriteBatchedStatements=true&useServerPrepStmts=true");
+    public static final String DB_USER = System.getProperty("gcash.db.user", "root");  // Change to your database username
+    public static final String DB_PASSWORD = System.getProperty("gcash.db.password", "#Xelle111406");  // Change to your database password
 
     // Security settings
-    public static final int MAX_LOGIN_ATTEMPTS = 1;
+    // Login throttling: failed attempts per identifier and attempts per source address within the sliding window
+    public static final int MAX_LOGIN_ATTEMPTS = 5;
+    public static final int LOGIN_SOURCE_MAX_ATTEMPTS = 50;
+    public static final long LOGIN_WINDOW_MS = 5 * 60 * 1000;
+    public static final int LOGIN_LIMITER_MAX_KEYS = 100000;
     public static final int SESSION_TIMEOUT_MINUTES = 30;
+    public static final int SESSION_SWEEP_INTERVAL_SECONDS = 60;
+
+    // Connection pool settings
+    public static final int POOL_MIN_SIZE = 2;
+    public static final int POOL_MAX_SIZE = 10;
+    public static final long POOL_BORROW_TIMEOUT_MS = 5000;
+    public static final long POOL_IDLE_TIMEOUT_MS = 5 * 60 * 1000;
+    public static final long POOL_LEAK_THRESHOLD_MS = 60 * 1000;
+    public static final long POOL_VALIDATION_WINDOW_MS = 500;
+    public static final int POOL_VALIDATION_TIMEOUT_SECONDS = 2;
+    public static final long POOL_MAINTENANCE_INTERVAL_MS = 30 * 1000;
+    public static final int POOL_STATEMENT_CACHE_SIZE = 64;  // Prepared statements kept per connection (0 disables)
+
+    // Read replicas: comma-separated JDBC URLs using the primary's credentials, none by default.
+    // A user's reads stay on the primary for the read-your-writes window after each write, so it
+    // should be longer than the replication lag; lagging replicas are not detected.
+    public static final List<String> DB_REPLICA_URLS = parseList(System.getProperty("gcash.db.replicaUrls", ""));
+    public static final int REPLICA_POOL_MAX_SIZE = 10;
+    public static final long REPLICA_HEALTH_CHECK_INTERVAL_MS = 5 * 1000;
+    public static final long READ_YOUR_WRITES_WINDOW_MS = 5 * 1000;
+    public static final int READ_YOUR_WRITES_SLOTS = 65536;
+
+    // Transfer retry settings (deadlocks and lock wait timeouts)
+    public static final int TRANSFER_MAX_RETRIES = 3;
+    public static final long TRANSFER_RETRY_BACKOFF_MS = 10;
+
+    // Group-commit transfer engine settings
+    public static final int TRANSFER_ENGINE_WRITERS = 2;
+    public static final int TRANSFER_ENGINE_QUEUE_CAPACITY = 10000;
+    public static final int TRANSFER_ENGINE_MAX_BATCH_SIZE = 100;
+    public static final long TRANSFER_ENGINE_LINGER_MS = 2;
+
+    // In-memory ledger mode (-Dgcash.ledger.enabled=true): balances live in a sharded ledger with a
+    // write-ahead log, and MySQL is only updated asynchronously when projection is enabled
+    public static final boolean LEDGER_ENABLED = Boolean.getBoolean("gcash.ledger.enabled");
+    public static final String LEDGER_DIRECTORY = System.getProperty("gcash.ledger.dir", "ledger");
+    public static final int LEDGER_SHARDS = Integer.getInteger("gcash.ledger.shards", 4);
+    public static final long LEDGER_WAL_SEGMENT_BYTES = 64L * 1024 * 1024;
+    public static final int LEDGER_QUEUE_CAPACITY = 10000;
+    public static final int LEDGER_MAX_BATCH_SIZE = 256;
+    public static final boolean LEDGER_PROJECTION_ENABLED = Boolean.getBoolean("gcash.ledger.projection");
+    public static final int LEDGER_PROJECTION_BATCH_SIZE = 500;
+    public static final long LEDGER_PROJECTION_STOP_TIMEOUT_MS = 10000;
+    public static final int LEDGER_IMPORT_FETCH_SIZE = 1000;
+
+    // Batch cash-in settings
+    public static final int CASHIN_BATCH_CHUNK_SIZE = 500;
+
+    // Account summary rebuild settings: users per range, ranges rebuilt concurrently
+    public static final int SUMMARY_REBUILD_RANGE_SIZE = 5000;
+    public static final int SUMMARY_REBUILD_THREADS = 4;
+
+    // Reconciliation settings: accounts per fork/join leaf, leaves checked concurrently
+    public static final int RECONCILE_LEAF_ACCOUNTS = 10000;
+    public static final int RECONCILE_THREADS = 4;
+    public static final int RECONCILE_FETCH_SIZE = 1000;
+    public static final int RECONCILE_MAX_REPORTED_MISMATCHES = 1000;
+
+    // Export settings
+    public static final int EXPORT_BUFFER_BYTES = 1024 * 1024;
+    public static final int EXPORT_FETCH_SIZE = 1000;
+    public static final int EXPORT_THREADS = 4;
+
+    // Balance cache settings
+    public static final int BALANCE_CACHE_MAX_ENTRIES = 100000;
+    public static final long BALANCE_CACHE_TTL_MS = 30 * 1000;
+
+    // User existence index: highest user ID kept in the bitmap, and the unknown IDs remembered between lookups.
+    // The negative TTL bounds how long a user registered by another process can be reported as unknown.
+    public static final int USER_INDEX_MAX_ID = 1 << 26;  // 8 MB of bitmap at most
+    public static final int USER_INDEX_NEGATIVE_MAX_ENTRIES = 10000;
+    public static final long USER_INDEX_NEGATIVE_TTL_MS = 10 * 1000;
+    public static final int USER_INDEX_FETCH_SIZE = 10000;
+
+    // Metrics settings: interval of the text dump to stderr, 0 to rely on JMX only
+    public static final long METRICS_DUMP_INTERVAL_MS = Long.getLong("gcash.metrics.dumpIntervalMs", 0);
+
+    // Event log settings: ring capacity (rounded up to a power of two), whether a full ring blocks callers
+    // instead of dropping events, and the rolling file
+    public static final String EVENT_LOG_FILE = System.getProperty("gcash.eventlog.file", "logs/gcash-events.log");
+    public static final int EVENT_LOG_CAPACITY = 16384;
+    public static final boolean EVENT_LOG_BLOCK_WHEN_FULL = Boolean.getBoolean("gcash.eventlog.block");
+    public static final int EVENT_LOG_BUFFER_BYTES = 256 * 1024;
+    public static final int EVENT_LOG_BATCH_SIZE = 512;
+    public static final long EVENT_LOG_MAX_FILE_BYTES = 64L * 1024 * 1024;
+    public static final int EVENT_LOG_MAX_FILES = 5;
+
+    // HTTP server settings
+    public static final int SERVER_PORT = Integer.getInteger("gcash.server.port", 8080);
+    public static final int SERVER_BACKLOG = 1024;
+    public static final int SERVER_WORKER_THREADS = 200;  // Only used on JVMs without virtual threads
+    public static final int SERVER_MAX_BODY_BYTES = 16 * 1024;
+    public static final int SERVER_MAX_PAGE_SIZE = 100;
+
+    // Transaction history settings
+    public static final int HISTORY_PAGE_SIZE = 20;
+    public static final int HISTORY_FETCH_SIZE = 500;
 
     // PIN requirements
     public static final int MIN_PIN_LENGTH = 4;
     public static final int MAX_PIN_LENGTH = 4;
+
+    private static List<String> parseList(String value) {
+        List<String> items = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.isBlank()) {
+                items.add(item.trim());
+            }
+        }
+        return List.copyOf(items);
+    }
 }
\ No newline at end of file
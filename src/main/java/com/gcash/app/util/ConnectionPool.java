@@ -0,0 +1,589 @@
+package com.gcash.app.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded JDBC connection pool.
+ * Borrowed connections are proxies whose close() hands the physical connection
+ * back to the pool instead of closing the socket. When a statement cache size is given,
+ * each connection also keeps its prepared statements open between borrows.
+ * Time spent in calls on the connection and in statement execute calls is added to SqlTimer.
+ */
+public class ConnectionPool {
+
+    /**
+     * Opens new physical connections for the pool
+     */
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutNanos;
+    private final long idleTimeoutNanos;
+    private final long leakThresholdNanos;
+    private final long validationWindowNanos;
+    private final int statementCacheSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    // Most recently returned connection sits at the head so hot connections are reused first
+    private final Deque<PooledEntry> idle = new ArrayDeque<>();
+    private final Map<PooledEntry, Lease> leases = new ConcurrentHashMap<>();
+    private int totalCount;
+    private int waiterCount;
+    private boolean closed;
+
+    private final LatencyHistogram borrowLatency = new LatencyHistogram();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final LongAdder statementEvictions = new LongAdder();
+
+    private ScheduledExecutorService maintenance;
+
+    /**
+     * Create a pool; no connections are opened until start() or the first borrow
+     * @param factory Source of physical connections
+     * @param minSize Connections kept open even when idle
+     * @param maxSize Upper bound on open connections
+     * @param borrowTimeoutMs How long a borrower waits for a free connection
+     * @param idleTimeoutMs Idle time after which connections above minSize are closed
+     * @param leakThresholdMs Hold time after which a borrowed connection is reported as leaked (0 disables)
+     * @param validationWindowMs Connections idle for less than this are handed out without validation
+     */
+    public ConnectionPool(ConnectionFactory factory, int minSize, int maxSize, long borrowTimeoutMs,
+                          long idleTimeoutMs, long leakThresholdMs, long validationWindowMs) {
+        this(factory, minSize, maxSize, borrowTimeoutMs, idleTimeoutMs, leakThresholdMs, validationWindowMs, 0);
+    }
+
+    /**
+     * Create a pool that caches prepared statements per connection
+     * @param statementCacheSize Prepared statements kept open per connection (0 disables the cache)
+     * @see #ConnectionPool(ConnectionFactory, int, int, long, long, long, long)
+     */
+    public ConnectionPool(ConnectionFactory factory, int minSize, int maxSize, long borrowTimeoutMs,
+                          long idleTimeoutMs, long leakThresholdMs, long validationWindowMs,
+                          int statementCacheSize) {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+
+        this.factory = factory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMs);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        this.leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(leakThresholdMs);
+        this.validationWindowNanos = TimeUnit.MILLISECONDS.toNanos(validationWindowMs);
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+    }
+
+    /**
+     * Start the background maintenance task (idle eviction, minimum size, leak detection)
+     * @param intervalMs Delay between maintenance runs
+     */
+    public synchronized void start(long intervalMs) {
+        if (maintenance != null) {
+            return;
+        }
+
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "gcash-pool-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        maintenance.scheduleWithFixedDelay(this::runMaintenance, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection, waiting up to the borrow timeout when the pool is exhausted
+     * @return A pooled connection; closing it returns it to the pool
+     * @throws SQLException If the timeout expires or a new connection cannot be opened
+     */
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + borrowTimeoutNanos;
+
+        while (true) {
+            PooledEntry entry = null;
+            boolean create = false;
+
+            lock.lock();
+            try {
+                while (entry == null && !create) {
+                    if (closed) {
+                        throw new SQLException("Connection pool is closed");
+                    }
+
+                    entry = idle.pollFirst();
+                    if (entry == null) {
+                        if (totalCount < maxSize) {
+                            totalCount++;
+                            create = true;
+                        } else {
+                            long remaining = deadline - System.nanoTime();
+                            if (remaining <= 0) {
+                                timeoutCount.incrementAndGet();
+                                throw new SQLException("Timed out waiting for a database connection after "
+                                        + TimeUnit.NANOSECONDS.toMillis(borrowTimeoutNanos) + " ms");
+                            }
+
+                            waiterCount++;
+                            try {
+                                available.awaitNanos(remaining);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                throw new SQLException("Interrupted while waiting for a database connection", e);
+                            } finally {
+                                waiterCount--;
+                            }
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                entry = openEntry();
+            } else if (!isUsable(entry)) {
+                discard(entry);
+                continue;
+            }
+
+            return lease(entry, start);
+        }
+    }
+
+    /**
+     * Close all idle connections and stop accepting borrows.
+     * Connections still on loan are closed when they are returned.
+     */
+    public void close() {
+        synchronized (this) {
+            if (maintenance != null) {
+                maintenance.shutdownNow();
+                maintenance = null;
+            }
+        }
+
+        lock.lock();
+        try {
+            closed = true;
+            PooledEntry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                closeQuietly(entry);
+                totalCount--;
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActiveCount() {
+        return leases.size();
+    }
+
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getTotalCount() {
+        lock.lock();
+        try {
+            return totalCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiterCount() {
+        lock.lock();
+        try {
+            return waiterCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public LatencyHistogram getBorrowLatency() {
+        return borrowLatency;
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public long getDestroyedCount() {
+        return destroyedCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+
+    public long getStatementCacheHitCount() {
+        return statementHits.sum();
+    }
+
+    public long getStatementCacheMissCount() {
+        return statementMisses.sum();
+    }
+
+    public long getStatementCacheEvictionCount() {
+        return statementEvictions.sum();
+    }
+
+    /**
+     * @return Fraction of prepareStatement calls served from the statement cache, 0 before the first call
+     */
+    public double getStatementCacheHitRate() {
+        long hits = statementHits.sum();
+        long total = hits + statementMisses.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "active=" + getActiveCount() + " idle=" + getIdleCount() + " waiters=" + getWaiterCount()
+                + " created=" + getCreatedCount() + " destroyed=" + getDestroyedCount()
+                + " timeouts=" + getTimeoutCount() + " leaks=" + getLeakCount()
+                + " statements[hits=" + getStatementCacheHitCount() + " misses=" + getStatementCacheMissCount()
+                + " evictions=" + getStatementCacheEvictionCount()
+                + String.format(" hitRate=%.1f%%", getStatementCacheHitRate() * 100) + "]"
+                + " borrow[" + borrowLatency + "]";
+    }
+
+    /**
+     * One maintenance pass: close idle connections past the idle timeout,
+     * refill up to the minimum size and report leaked connections
+     */
+    void runMaintenance() {
+        try {
+            evictIdle();
+            fillToMinimum();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            EventLog.error("pool.maintenance_error").with("error", e.getMessage()).log();
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+
+        lock.lock();
+        try {
+            // Oldest idle connections are at the tail
+            Iterator<PooledEntry> it = idle.descendingIterator();
+            while (it.hasNext() && totalCount > minSize) {
+                PooledEntry entry = it.next();
+                if (now - entry.lastUsedNanos < idleTimeoutNanos) {
+                    break;
+                }
+                it.remove();
+                totalCount--;
+                closeQuietly(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fillToMinimum() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || totalCount >= minSize) {
+                    return;
+                }
+                totalCount++;
+            } finally {
+                lock.unlock();
+            }
+
+            PooledEntry entry;
+            try {
+                entry = openEntry();
+            } catch (SQLException e) {
+                EventLog.warn("pool.open_error").with("error", e.getMessage()).log();
+                return;
+            }
+            release(entry);
+        }
+    }
+
+    private void detectLeaks() {
+        if (leakThresholdNanos <= 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        for (Lease lease : leases.values()) {
+            if (!lease.reported && now - lease.borrowedNanos > leakThresholdNanos) {
+                lease.reported = true;
+                leakCount.incrementAndGet();
+                EventLog.warn("pool.leak").with("thread", lease.threadName)
+                        .with("held_ms", TimeUnit.NANOSECONDS.toMillis(now - lease.borrowedNanos)).log();
+            }
+        }
+    }
+
+    /**
+     * Open a physical connection for a slot that has already been counted in totalCount
+     */
+    private PooledEntry openEntry() throws SQLException {
+        try {
+            Connection physical = factory.create();
+            createdCount.incrementAndGet();
+            StatementCache statements = statementCacheSize == 0 ? null
+                    : new StatementCache(physical, statementCacheSize, statementHits, statementMisses, statementEvictions);
+            return new PooledEntry(physical, statements);
+        } catch (SQLException | RuntimeException e) {
+            lock.lock();
+            try {
+                totalCount--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        if (System.nanoTime() - entry.lastUsedNanos < validationWindowNanos) {
+            return true;
+        }
+
+        try {
+            return entry.physical.isValid(AppConfig.POOL_VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection lease(PooledEntry entry, long borrowStartNanos) {
+        long now = System.nanoTime();
+        leases.put(entry, new Lease(now, Thread.currentThread().getName()));
+        borrowLatency.record(now - borrowStartNanos);
+
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(entry));
+    }
+
+    /**
+     * Return a connection from a borrower, resetting any transaction state it left behind
+     */
+    private void giveBack(PooledEntry entry) {
+        leases.remove(entry);
+        if (entry.statements != null) {
+            entry.statements.releaseAll();
+        }
+
+        try {
+            if (entry.physical.isClosed()) {
+                discard(entry);
+                return;
+            }
+            if (!entry.physical.getAutoCommit()) {
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            discard(entry);
+            return;
+        }
+
+        release(entry);
+    }
+
+    private void release(PooledEntry entry) {
+        entry.lastUsedNanos = System.nanoTime();
+
+        lock.lock();
+        try {
+            if (closed) {
+                totalCount--;
+                closeQuietly(entry);
+                return;
+            }
+            idle.addFirst(entry);
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void discard(PooledEntry entry) {
+        closeQuietly(entry);
+
+        lock.lock();
+        try {
+            totalCount--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeQuietly(PooledEntry entry) {
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            EventLog.error("connection.close_error").with("error", e.getMessage()).log();
+        }
+        destroyedCount.incrementAndGet();
+    }
+
+    private static final class PooledEntry {
+        private final Connection physical;
+        private final StatementCache statements;  // Null when statement caching is disabled
+        private volatile long lastUsedNanos;
+
+        private PooledEntry(Connection physical, StatementCache statements) {
+            this.physical = physical;
+            this.statements = statements;
+            this.lastUsedNanos = System.nanoTime();
+        }
+    }
+
+    private static final class Lease {
+        private final long borrowedNanos;
+        private final String threadName;
+        private volatile boolean reported;
+
+        private Lease(long borrowedNanos, String threadName) {
+            this.borrowedNanos = borrowedNanos;
+            this.threadName = threadName;
+        }
+    }
+
+    /**
+     * Delegates to the physical connection until close(), which returns it to the pool exactly once
+     */
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean returned;
+
+        private PooledConnectionHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if ("close".equals(name) && method.getParameterCount() == 0) {
+                if (!returned) {
+                    returned = true;
+                    giveBack(entry);
+                }
+                return null;
+            }
+            if ("isClosed".equals(name) && method.getParameterCount() == 0) {
+                return returned || entry.physical.isClosed();
+            }
+            if ("equals".equals(name) && method.getParameterCount() == 1) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name) && method.getParameterCount() == 0) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(name) && method.getParameterCount() == 0) {
+                return "PooledConnection[" + entry.physical + "]";
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if ("prepareStatement".equals(name) && entry.statements != null) {
+                // Only prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys) are cached
+                if (method.getParameterCount() == 1) {
+                    return entry.statements.prepare((String) args[0], Statement.NO_GENERATED_KEYS, (Connection) proxy);
+                }
+                if (method.getParameterCount() == 2 && method.getParameterTypes()[1] == int.class) {
+                    return entry.statements.prepare((String) args[0], (Integer) args[1], (Connection) proxy);
+                }
+            }
+
+            Object result;
+            long start = System.nanoTime();
+            try {
+                result = method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                SqlTimer.add(System.nanoTime() - start);
+            }
+
+            if (result instanceof Statement && method.getReturnType().isInterface()) {
+                return Proxy.newProxyInstance(
+                        ConnectionPool.class.getClassLoader(),
+                        new Class<?>[]{method.getReturnType()},
+                        new TimedStatementHandler((Statement) result));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Adds the time of execute calls on a statement that bypassed the statement cache to SqlTimer
+     */
+    private static final class TimedStatementHandler implements InvocationHandler {
+        private final Statement statement;
+
+        private TimedStatementHandler(Statement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            boolean timed = method.getName().startsWith("execute");
+            long start = timed ? System.nanoTime() : 0;
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                if (timed) {
+                    SqlTimer.add(System.nanoTime() - start);
+                }
+            }
+        }
+    }
+}
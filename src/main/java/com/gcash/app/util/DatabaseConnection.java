@@ -3,18 +3,178 @@ package com.gcash.app.util;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/gcashdatabase";
-    private static final String USER = "root";  // Change to your database username
-    private static final String PASSWORD = "#Xelle111406";  // Change to your database password
+    private static String url = AppConfig.DB_URL;
+    private static String user = AppConfig.DB_USER;
+    private static String password = AppConfig.DB_PASSWORD;
+    private static volatile List<String> replicaUrls = AppConfig.DB_REPLICA_URLS;
 
+    private static volatile ConnectionPool pool;
+    private static volatile ReadRouter router;
+
+    /**
+     * Borrow a connection from the shared pool; closing it returns it to the pool
+     * @return A pooled database connection
+     * @throws SQLException If no connection could be obtained
+     */
     public static Connection getConnection() throws SQLException {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            return DriverManager.getConnection(URL, USER, PASSWORD);
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("Database driver not found", e);
+        return getPool().borrow();
+    }
+
+    /**
+     * Borrow a connection for read-only work that is not about one user, e.g. a lookup by transaction ID.
+     * It may come from a replica, so it can miss writes committed a moment ago.
+     * @return A pooled connection to a replica or the primary
+     * @throws SQLException If no connection could be obtained
+     */
+    public static Connection getReadConnection() throws SQLException {
+        return getReadConnection(0);
+    }
+
+    /**
+     * Borrow a connection for read-only work on one user's data. It comes from a healthy replica
+     * unless the user wrote within the read-your-writes window or no replica is available.
+     * @param userId User whose data is read
+     * @return A pooled connection to a replica or the primary
+     * @throws SQLException If no connection could be obtained
+     */
+    public static Connection getReadConnection(int userId) throws SQLException {
+        getPool();
+        return router.borrowRead(userId);
+    }
+
+    /**
+     * @param conn Connection from getReadConnection()
+     * @return true if it came from a replica, whose data may lag behind the primary by any amount
+     */
+    public static boolean isReplica(Connection conn) {
+        return ReadRouter.isReplica(conn);
+    }
+
+    /**
+     * Send the user's reads to the primary for the read-your-writes window; call after committing a write
+     * @param userId User whose data changed
+     */
+    public static void recordWrite(int userId) {
+        ReadRouter current = router;
+        if (current != null) {
+            current.recordWrite(userId);
+        }
+    }
+
+    /**
+     * @return true if read replicas are configured
+     */
+    public static boolean hasReplicas() {
+        return !replicaUrls.isEmpty();
+    }
+
+    /**
+     * Get the read router, e.g. to read its replica health and failover counters
+     * @return The read router
+     * @throws SQLException If the database driver is missing
+     */
+    public static ReadRouter getRouter() throws SQLException {
+        getPool();
+        return router;
+    }
+
+    /**
+     * Get the shared connection pool, creating it on first use
+     * @return The application connection pool
+     * @throws SQLException If the database driver is missing
+     */
+    public static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = pool;
+                if (current == null) {
+                    if (url.startsWith("jdbc:mysql:")) {
+                        try {
+                            Class.forName("com.mysql.cj.jdbc.Driver");
+                        } catch (ClassNotFoundException e) {
+                            throw new SQLException("Database driver not found", e);
+                        }
+                    }
+
+                    current = newPool(url, AppConfig.POOL_MIN_SIZE, AppConfig.POOL_MAX_SIZE);
+
+                    List<ConnectionPool> replicaPools = new ArrayList<>();
+                    for (String replicaUrl : replicaUrls) {
+                        replicaPools.add(newPool(replicaUrl, 0, AppConfig.REPLICA_POOL_MAX_SIZE));
+                    }
+                    ReadRouter currentRouter = new ReadRouter(current, replicaPools, replicaUrls,
+                            AppConfig.READ_YOUR_WRITES_WINDOW_MS, AppConfig.READ_YOUR_WRITES_SLOTS);
+                    currentRouter.start(AppConfig.REPLICA_HEALTH_CHECK_INTERVAL_MS);
+
+                    router = currentRouter;
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static ConnectionPool newPool(String poolUrl, int minSize, int maxSize) {
+        String poolUser = user;
+        String poolPassword = password;
+        ConnectionPool created = new ConnectionPool(
+                () -> DriverManager.getConnection(poolUrl, poolUser, poolPassword),
+                minSize,
+                maxSize,
+                AppConfig.POOL_BORROW_TIMEOUT_MS,
+                AppConfig.POOL_IDLE_TIMEOUT_MS,
+                AppConfig.POOL_LEAK_THRESHOLD_MS,
+                AppConfig.POOL_VALIDATION_WINDOW_MS,
+                AppConfig.POOL_STATEMENT_CACHE_SIZE);
+        created.start(AppConfig.POOL_MAINTENANCE_INTERVAL_MS);
+        return created;
+    }
+
+    /**
+     * Close the shared pools; new ones are created on the next getConnection()
+     */
+    public static void shutdown() {
+        synchronized (DatabaseConnection.class) {
+            if (router != null) {
+                router.close();
+                router = null;
+            }
+            if (pool != null) {
+                pool.close();
+                pool = null;
+            }
+        }
+    }
+
+    /**
+     * Point the application at a different database without replicas, closing the current pools
+     * @param newUrl JDBC URL
+     * @param newUser Database username
+     * @param newPassword Database password
+     */
+    public static void configure(String newUrl, String newUser, String newPassword) {
+        configure(newUrl, newUser, newPassword, new ArrayList<>());
+    }
+
+    /**
+     * Point the application at a different primary and read replicas, closing the current pools
+     * @param newUrl JDBC URL of the primary
+     * @param newUser Database username, shared by the replicas
+     * @param newPassword Database password, shared by the replicas
+     * @param newReplicaUrls JDBC URLs of the replicas; empty to read from the primary
+     */
+    public static void configure(String newUrl, String newUser, String newPassword, List<String> newReplicaUrls) {
+        synchronized (DatabaseConnection.class) {
+            shutdown();
+            url = newUrl;
+            user = newUser;
+            password = newPassword;
+            replicaUrls = new ArrayList<>(newReplicaUrls);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,547 @@
+package com.gcash.app.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous structured event log.
+ *
+ * Callers build an event in a reused per-thread record and log() copies it into a slot of a
+ * preallocated ring buffer, so logging takes no lock and allocates nothing beyond the values
+ * passed in. One daemon thread drains the ring in batches, formats each event as a line of
+ * key=value pairs and appends the lines to a size-rolled file through a FileChannel:
+ *
+ *   ts=2025-03-01T14:05:09.120 level=INFO event=transfer.ok from=1 to=2 amount=300.00
+ *
+ * When the ring is full, events are dropped and counted (OverflowPolicy.DROP) or the caller
+ * waits for the writer to make room (OverflowPolicy.BLOCK).
+ */
+public final class EventLog implements Closeable {
+
+    public enum Level {
+        INFO, WARN, ERROR
+    }
+
+    public enum OverflowPolicy {
+        DROP, BLOCK
+    }
+
+    private static final int MAX_FIELDS = 8;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private static final ThreadLocal<Event> events = ThreadLocal.withInitial(Event::new);
+    private static volatile EventLog shared;
+
+    private final Path file;
+    private final OverflowPolicy policy;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final int batchSize;
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private volatile long written;
+    private volatile boolean closed;
+    private final LongAdder dropped = new LongAdder();
+
+    // Writer thread only
+    private final ByteBuffer buffer;
+    private final StringBuilder line = new StringBuilder(256);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private FileChannel channel;
+    private long fileBytes;
+    private volatile Thread writer;
+
+    /**
+     * Create a log; call start() before logging
+     * @param file File to append to; rolled to file.1, file.2, ... when it reaches maxFileBytes
+     * @param capacity Events the ring holds, rounded up to a power of two
+     * @param policy What log() does when the ring is full
+     * @param bufferBytes Size of the write buffer
+     * @param batchSize Events formatted per pass before the ring slots are released
+     * @param maxFileBytes Size at which the file is rolled
+     * @param maxFiles Rolled files kept besides the current one
+     */
+    public EventLog(Path file, int capacity, OverflowPolicy policy, int bufferBytes, int batchSize,
+                    long maxFileBytes, int maxFiles) {
+        if (capacity <= 0 || capacity > 1 << 30 || batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid event log capacity or batch size: " + capacity + ", " + batchSize);
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.file = file;
+        this.policy = policy;
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+        this.batchSize = batchSize;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+    }
+
+    /**
+     * The application-wide log configured in AppConfig, started on first use and flushed at exit
+     * @return The shared log
+     */
+    public static EventLog shared() {
+        EventLog current = shared;
+        if (current == null) {
+            synchronized (EventLog.class) {
+                current = shared;
+                if (current == null) {
+                    current = new EventLog(Paths.get(AppConfig.EVENT_LOG_FILE), AppConfig.EVENT_LOG_CAPACITY,
+                            AppConfig.EVENT_LOG_BLOCK_WHEN_FULL ? OverflowPolicy.BLOCK : OverflowPolicy.DROP,
+                            AppConfig.EVENT_LOG_BUFFER_BYTES, AppConfig.EVENT_LOG_BATCH_SIZE,
+                            AppConfig.EVENT_LOG_MAX_FILE_BYTES, AppConfig.EVENT_LOG_MAX_FILES);
+                    current.start();
+                    Runtime.getRuntime().addShutdownHook(new Thread(current::close, "gcash-event-log-shutdown"));
+                    shared = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Start an INFO event on the shared log
+     * @param name Event name, e.g. "transfer.ok"
+     * @return This thread's event record; add fields and call log()
+     */
+    public static Event info(String name) {
+        return shared().event(Level.INFO, name);
+    }
+
+    /**
+     * Start a WARN event on the shared log
+     * @see #info(String)
+     */
+    public static Event warn(String name) {
+        return shared().event(Level.WARN, name);
+    }
+
+    /**
+     * Start an ERROR event on the shared log
+     * @see #info(String)
+     */
+    public static Event error(String name) {
+        return shared().event(Level.ERROR, name);
+    }
+
+    /**
+     * Start an event on this log. The record is reused by the thread's next event, so finish
+     * one event with log() before starting another.
+     * @param level Severity
+     * @param name Event name
+     * @return This thread's event record
+     */
+    public Event event(Level level, String name) {
+        Event event = events.get();
+        event.target = this;
+        event.level = level;
+        event.name = name;
+        event.fieldCount = 0;
+        return event;
+    }
+
+    /**
+     * Open the file and start the writer thread
+     */
+    public synchronized void start() {
+        if (writer != null) {
+            return;
+        }
+
+        openFile();
+        writer = new Thread(this::runWriter, "gcash-event-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Wait until every event logged before the call is written to the file
+     */
+    public void flush() {
+        if (writer == null) {
+            return;
+        }
+        long target = claimed.get();
+        while (written < target && !closed) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Write the remaining events and close the file; events logged afterwards are dropped
+     */
+    @Override
+    public void close() {
+        Thread current;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            flush();
+            closed = true;
+            current = writer;
+        }
+
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return Events discarded because the ring was full or the log was closed
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return Events waiting in the ring
+     */
+    public long getPendingCount() {
+        return claimed.get() - consumed;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Claim a slot, copy the event into it and publish it to the writer
+     */
+    private void publish(Event event) {
+        long sequence;
+        while (true) {
+            if (closed) {
+                dropped.increment();
+                return;
+            }
+
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                if (policy == OverflowPolicy.DROP) {
+                    dropped.increment();
+                    return;
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+                continue;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.timeMillis = System.currentTimeMillis();
+        slot.level = event.level;
+        slot.name = event.name;
+        slot.fieldCount = event.fieldCount;
+        for (int i = 0; i < event.fieldCount; i++) {
+            slot.keys[i] = event.keys[i];
+            slot.longs[i] = event.longs[i];
+            slot.objects[i] = event.objects[i];
+        }
+        slot.sequence = sequence + 1; // Volatile write publishes the fields above
+    }
+
+    private void runWriter() {
+        long next = consumed;
+
+        while (true) {
+            int drained = 0;
+            Slot slot = slots[(int) (next & mask)];
+            while (drained < batchSize && slot.sequence == next + 1) {
+                try {
+                    append(slot);
+                } catch (RuntimeException e) {
+                    // A value whose toString() fails loses its event, not the writer thread
+                    System.err.println("Event log format error in " + slot.name + ": " + e);
+                }
+                slot.clear();
+                next++;
+                drained++;
+                slot = slots[(int) (next & mask)];
+            }
+
+            if (drained > 0) {
+                consumed = next; // Producers may reuse the slots now
+                if (slot.sequence != next + 1) {
+                    drain(); // Caught up: write the batch instead of waiting for the buffer to fill
+                    written = next;
+                }
+                continue;
+            }
+
+            if (closed) {
+                drain();
+                written = next;
+                closeFile();
+                return;
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Format one event as a line and copy it into the write buffer
+     */
+    private void append(Slot slot) {
+        line.setLength(0);
+        line.append("ts=");
+        appendTime(slot.timeMillis);
+        line.append(" level=").append(slot.level.name()).append(" event=").append(slot.name);
+        for (int i = 0; i < slot.fieldCount; i++) {
+            line.append(' ').append(slot.keys[i]).append('=');
+            if (slot.objects[i] == null) {
+                line.append(slot.longs[i]);
+            } else {
+                appendValue(String.valueOf(slot.objects[i]));
+            }
+        }
+        // A char encodes to at most 3 UTF-8 bytes; cut lines that could not fit in the buffer at all
+        int maxChars = buffer.capacity() / 3 - 1;
+        if (line.length() > maxChars) {
+            line.setLength(maxChars);
+        }
+        line.append('\n');
+
+        if (buffer.remaining() < line.length() * 3) {
+            drain();
+        }
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(line), buffer, true);
+    }
+
+    private void appendTime(long millis) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        line.append(time.getYear()).append('-');
+        appendDigits(time.getMonthValue(), 2).append('-');
+        appendDigits(time.getDayOfMonth(), 2).append('T');
+        appendDigits(time.getHour(), 2).append(':');
+        appendDigits(time.getMinute(), 2).append(':');
+        appendDigits(time.getSecond(), 2).append('.');
+        appendDigits(time.getNano() / 1_000_000, 3);
+    }
+
+    private StringBuilder appendDigits(int value, int digits) {
+        for (int divisor = digits == 3 ? 100 : 10; divisor > 0; divisor /= 10) {
+            line.append((char) ('0' + value / divisor % 10));
+        }
+        return line;
+    }
+
+    /**
+     * Quote values containing spaces, quotes, '=' or line breaks so each line stays parseable
+     */
+    private void appendValue(String value) {
+        boolean quote = value.isEmpty();
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ' ' || c == '"' || c == '=' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c == '\n') {
+                line.append("\\n");
+            } else if (c == '\r') {
+                line.append("\\r");
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    /**
+     * Write the buffer to the file, rolling it first if it would pass maxFileBytes
+     */
+    private void drain() {
+        buffer.flip();
+        if (!buffer.hasRemaining()) {
+            buffer.clear();
+            return;
+        }
+
+        if (channel != null && fileBytes > 0 && fileBytes + buffer.remaining() > maxFileBytes) {
+            roll();
+        }
+
+        try {
+            if (channel == null) {
+                // File could not be opened; fall back to stderr rather than lose the events
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                System.err.write(bytes, 0, bytes.length);
+                System.err.flush();
+            } else {
+                while (buffer.hasRemaining()) {
+                    fileBytes += channel.write(buffer);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Event log write error: " + e.getMessage());
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Shift file.N-1 to file.N down to file to file.1, dropping the oldest, and reopen file
+     */
+    private void roll() {
+        closeFile();
+        try {
+            Files.deleteIfExists(rolled(maxFiles));
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                Path source = rolled(i);
+                if (Files.exists(source)) {
+                    Files.move(source, rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            if (maxFiles > 0) {
+                Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            System.err.println("Event log roll error: " + e.getMessage());
+        }
+        openFile();
+    }
+
+    private Path rolled(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void openFile() {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            fileBytes = channel.size();
+        } catch (IOException e) {
+            System.err.println("Unable to open event log " + file + ", using stderr: " + e.getMessage());
+            channel = null;
+        }
+    }
+
+    private void closeFile() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing event log: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    /**
+     * An event being built by one thread; fields past the eighth are ignored
+     */
+    public static final class Event {
+        private EventLog target;
+        private Level level;
+        private String name;
+        private int fieldCount;
+        private final String[] keys = new String[MAX_FIELDS];
+        private final long[] longs = new long[MAX_FIELDS];
+        private final Object[] objects = new Object[MAX_FIELDS];
+
+        private Event() {
+        }
+
+        public Event with(String key, long value) {
+            if (fieldCount < MAX_FIELDS) {
+                keys[fieldCount] = key;
+                longs[fieldCount] = value;
+                objects[fieldCount] = null;
+                fieldCount++;
+            }
+            return this;
+        }
+
+        /**
+         * Add a field; the value's toString() runs on the writer thread, so it should be immutable
+         */
+        public Event with(String key, Object value) {
+            if (fieldCount < MAX_FIELDS) {
+                keys[fieldCount] = key;
+                objects[fieldCount] = value == null ? "null" : value;
+                fieldCount++;
+            }
+            return this;
+        }
+
+        /**
+         * Hand the event to the log
+         */
+        public void log() {
+            target.publish(this);
+            for (int i = 0; i < fieldCount; i++) {
+                objects[i] = null; // Do not keep values reachable from the thread
+            }
+        }
+    }
+
+    private static final class Slot {
+        private volatile long sequence;
+        private long timeMillis;
+        private Level level;
+        private String name;
+        private int fieldCount;
+        private final String[] keys = new String[MAX_FIELDS];
+        private final long[] longs = new long[MAX_FIELDS];
+        private final Object[] objects = new Object[MAX_FIELDS];
+
+        private void clear() {
+            for (int i = 0; i < fieldCount; i++) {
+                objects[i] = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.gcash.app.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sampled approximate-LRU eviction for size-bounded ConcurrentHashMaps.
+ *
+ * Each sample is a few consecutive entries from a random part of the table, reached by
+ * randomly halving the map's spliterator, so it costs O(log n) and every bucket is equally
+ * likely to be sampled. The least recently used entry of the sample is evicted. Protected
+ * entries are passed over, but if MAX_ROUNDS samples hold nothing else the oldest protected
+ * entry seen is evicted, so the cost stays O(log n) even when almost every entry is protected.
+ */
+public final class EvictionSampler {
+    // Entries compared per sample
+    public static final int SAMPLE_SIZE = 5;
+    // Samples drawn before a protected entry may be chosen; bounds the cost when most entries are protected
+    public static final int MAX_ROUNDS = 16;
+
+    private EvictionSampler() {
+    }
+
+    /**
+     * Choose an entry to evict
+     * @param map Map to evict from
+     * @param lastUsed System.nanoTime() of an entry's last use
+     * @return Key of the least recently used sampled entry, or null if the map is empty
+     */
+    public static <K, V> K selectVictim(ConcurrentHashMap<K, V> map, ToLongFunction<V> lastUsed) {
+        return selectVictim(map, lastUsed, value -> false);
+    }
+
+    /**
+     * Choose an entry to evict, passing over protected entries unless every sample holds only those
+     * @param map Map to evict from
+     * @param lastUsed System.nanoTime() of an entry's last use
+     * @param protect Entries to keep if possible
+     * @return Key of the least recently used sampled entry, or null if the map is empty
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> K selectVictim(ConcurrentHashMap<K, V> map, ToLongFunction<V> lastUsed,
+                                        Predicate<V> protect) {
+        Object[] current = new Object[1];
+        K fallback = null;
+        long fallbackUsed = 0;
+
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            Spliterator<Map.Entry<K, V>> sample = randomRegion(map);
+
+            K victim = null;
+            long victimUsed = 0;
+            for (int i = 0; i < SAMPLE_SIZE; i++) {
+                if (!sample.tryAdvance(entry -> current[0] = entry)) {
+                    break;
+                }
+
+                Map.Entry<K, V> entry = (Map.Entry<K, V>) current[0];
+                long used = lastUsed.applyAsLong(entry.getValue());
+                if (protect.test(entry.getValue())) {
+                    if (fallback == null || used - fallbackUsed < 0) {
+                        fallback = entry.getKey();
+                        fallbackUsed = used;
+                    }
+                } else if (victim == null || used - victimUsed < 0) {
+                    victim = entry.getKey();
+                    victimUsed = used;
+                }
+            }
+
+            if (victim != null) {
+                return victim;
+            }
+        }
+
+        if (fallback == null) {
+            // Every sampled region was empty; any entry will do
+            Iterator<K> keys = map.keySet().iterator();
+            return keys.hasNext() ? keys.next() : null;
+        }
+        return fallback;
+    }
+
+    /**
+     * Split the map's spliterator in half at random until only a few entries are left in it
+     */
+    private static <K, V> Spliterator<Map.Entry<K, V>> randomRegion(ConcurrentHashMap<K, V> map) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Spliterator<Map.Entry<K, V>> region = map.entrySet().spliterator();
+        while (region.estimateSize() > SAMPLE_SIZE * 2L) {
+            Spliterator<Map.Entry<K, V>> prefix = region.trySplit();
+            if (prefix == null) {
+                break;
+            }
+            if (random.nextBoolean()) {
+                region = prefix;
+            }
+        }
+        return region;
+    }
+}
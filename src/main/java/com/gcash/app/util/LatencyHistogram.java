@@ -0,0 +1,134 @@
+package com.gcash.app.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear nanosecond buckets, in the style of HdrHistogram.
+ * Values below 16ns get a bucket each; every power-of-two range above that is split into
+ * 16 equal sub-buckets, so a percentile is reported within 1/16 (6.25%) of the true value.
+ * Recording a sample is a leading-zero count, a shift and one atomic increment; the count
+ * and total are striped LongAdders so threads recording at once do not contend on them.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Exact buckets for 0-15, then 16 sub-buckets for each highest set bit from 4 to 62
+    public static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record a single latency sample
+     * @param nanos Elapsed time in nanoseconds (negative values count as zero)
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        buckets.incrementAndGet(bucketFor(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public double getMeanNanos() {
+        long samples = count.sum();
+        return samples == 0 ? 0 : (double) totalNanos.sum() / samples;
+    }
+
+    /**
+     * Estimate a percentile from the bucket counts
+     * @param percentile Value between 0 and 100
+     * @return Upper bound of the bucket containing the percentile, in nanoseconds
+     */
+    public long getPercentileNanos(double percentile) {
+        long samples = count.sum();
+        if (samples == 0) {
+            return 0;
+        }
+
+        long target = (long) Math.ceil(samples * (percentile / 100.0));
+        if (target < 1) {
+            target = 1;
+        }
+
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                return Math.min(upperBound(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * Number of samples recorded in a single bucket
+     * @param index Bucket index between 0 and BUCKETS - 1
+     * @return Sample count for the bucket
+     */
+    public long getBucketCount(int index) {
+        return buckets.get(index);
+    }
+
+    /**
+     * Upper bound (exclusive) of a bucket in nanoseconds
+     * @param index Bucket index between 0 and BUCKETS - 1
+     * @return Upper bound of the bucket
+     */
+    public static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index + 1;
+        }
+
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = SUB_BUCKETS + index % SUB_BUCKETS + 1;
+        return mantissa > (Long.MAX_VALUE >> shift) ? Long.MAX_VALUE : mantissa << shift;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount()
+                + " mean=" + (long) getMeanNanos() / 1000 + "us"
+                + " p50=" + getPercentileNanos(50) / 1000 + "us"
+                + " p99=" + getPercentileNanos(99) / 1000 + "us"
+                + " max=" + getMaxNanos() / 1000 + "us";
+    }
+
+    private static int bucketFor(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+
+        // Keep the top SUB_BUCKET_BITS + 1 bits: the leading 1 picks the range, the rest the sub-bucket
+        int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((nanos >>> shift) & (SUB_BUCKETS - 1));
+    }
+}
@@ -0,0 +1,180 @@
+package com.gcash.app.util;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registry of service metrics, published through JMX and an optional periodic text dump
+ */
+public final class Metrics {
+    public static final String OBJECT_NAME = "com.gcash.app:type=Metrics";
+
+    // Sorted by name so the dump and the JMX maps list methods in a stable order
+    private static final Map<String, ServiceMetric> metrics = new ConcurrentSkipListMap<>();
+    private static ScheduledExecutorService reporter;
+    private static boolean mbeanRegistered;
+
+    private Metrics() {
+    }
+
+    /**
+     * Get or create the metric of a service method
+     * @param name Metric name, "<Service>.<method>"
+     * @param outcomes Outcome labels; record() takes the index of one
+     * @return The metric registered under the name
+     */
+    public static ServiceMetric register(String name, String... outcomes) {
+        return metrics.computeIfAbsent(name, n -> new ServiceMetric(n, outcomes));
+    }
+
+    /**
+     * @param name Metric name
+     * @return The metric, or null if none is registered under the name
+     */
+    public static ServiceMetric get(String name) {
+        return metrics.get(name);
+    }
+
+    /**
+     * @return Every registered metric, sorted by name
+     */
+    public static List<ServiceMetric> all() {
+        return new ArrayList<>(metrics.values());
+    }
+
+    /**
+     * Zero every counter and histogram, e.g. between tests or benchmark phases
+     */
+    public static void reset() {
+        for (ServiceMetric metric : metrics.values()) {
+            metric.reset();
+        }
+    }
+
+    /**
+     * Text snapshot of every metric that has recorded a call, one line per method
+     * @return The report
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder("Metrics at ").append(LocalDateTime.now().withNano(0)).append('\n');
+        for (ServiceMetric metric : metrics.values()) {
+            if (metric.getTotalCount() > 0) {
+                sb.append("  ").append(metric).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Register the JMX bean and, if configured, start the periodic dump; safe to call more than once
+     */
+    public static void start() {
+        registerMBean();
+        if (AppConfig.METRICS_DUMP_INTERVAL_MS > 0) {
+            startReporter(AppConfig.METRICS_DUMP_INTERVAL_MS, System.err);
+        }
+    }
+
+    /**
+     * Publish the metrics as OBJECT_NAME on the platform MBean server
+     */
+    public static synchronized void registerMBean() {
+        if (mbeanRegistered) {
+            return;
+        }
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsBean(), name);
+            }
+            mbeanRegistered = true;
+        } catch (JMException e) {
+            EventLog.warn("metrics.mbean_error").with("error", e.getMessage()).log();
+        }
+    }
+
+    /**
+     * Write report() to a stream at a fixed rate from a daemon thread
+     * @param intervalMs Delay between dumps
+     * @param out Destination
+     */
+    public static synchronized void startReporter(long intervalMs, PrintStream out) {
+        if (reporter != null) {
+            return;
+        }
+
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "gcash-metrics-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        reporter.scheduleAtFixedRate(() -> out.print(report()), intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized void stopReporter() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    private static final class MetricsBean implements MetricsMXBean {
+
+        @Override
+        public Map<String, Long> getCounters() {
+            Map<String, Long> counters = new LinkedHashMap<>();
+            for (ServiceMetric metric : metrics.values()) {
+                String[] outcomes = metric.getOutcomes();
+                for (int i = 0; i < outcomes.length; i++) {
+                    counters.put(metric.getName() + "." + outcomes[i], metric.getCount(i));
+                }
+            }
+            return counters;
+        }
+
+        @Override
+        public Map<String, Long> getLatencyNanos() {
+            Map<String, Long> latencies = new LinkedHashMap<>();
+            for (ServiceMetric metric : metrics.values()) {
+                String name = metric.getName();
+                LatencyHistogram total = metric.getLatency();
+                LatencyHistogram sql = metric.getSqlLatency();
+                latencies.put(name + ".mean", (long) total.getMeanNanos());
+                latencies.put(name + ".p50", total.getPercentileNanos(50));
+                latencies.put(name + ".p99", total.getPercentileNanos(99));
+                latencies.put(name + ".max", total.getMaxNanos());
+                latencies.put(name + ".sqlMean", (long) sql.getMeanNanos());
+                latencies.put(name + ".sqlP50", sql.getPercentileNanos(50));
+                latencies.put(name + ".sqlP99", sql.getPercentileNanos(99));
+                latencies.put(name + ".sqlMax", sql.getMaxNanos());
+                latencies.put(name + ".logicMean", (long) metric.getMeanLogicNanos());
+            }
+            return latencies;
+        }
+
+        @Override
+        public String getReport() {
+            return report();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.gcash.app.util;
+
+import java.util.Map;
+
+/**
+ * JMX view of the service metrics, registered as com.gcash.app:type=Metrics.
+ * Keys are "<Service>.<method>.<outcome>" for counters and "<Service>.<method>.<statistic>"
+ * for latencies, e.g. "TransactionService.cashTransfer.insufficient_funds" and
+ * "TransactionService.cashTransfer.sqlP99".
+ */
+public interface MetricsMXBean {
+
+    /**
+     * @return Calls per method and outcome
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * @return Mean, p50, p99 and max of the total and SQL time per method, in nanoseconds
+     */
+    Map<String, Long> getLatencyNanos();
+
+    /**
+     * @return The same text as the periodic dump
+     */
+    String getReport();
+
+    /**
+     * Zero every counter and histogram
+     */
+    void reset();
+}
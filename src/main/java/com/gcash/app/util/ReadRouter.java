@@ -0,0 +1,282 @@
+package com.gcash.app.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends read-only work to replica pools and everything else to the primary.
+ *
+ * Replicas are picked round-robin among those that passed their last health check. A replica
+ * whose connection fails is marked down and the read fails over to the primary; the health check
+ * brings it back once it answers again. Reads for a user who wrote within the read-your-writes
+ * window go to the primary, since a replica may not have applied the write yet.
+ *
+ * Recent writes are kept in a fixed table of timestamps indexed by a hash of the user ID. Two
+ * users sharing a slot only sends the other's reads to the primary for a while, never the
+ * reverse, so the table never needs eviction.
+ *
+ * The health check tests connectivity only, not replication lag, so callers must not cache
+ * what they read from a replica; see isReplica().
+ */
+public class ReadRouter {
+    private static final int REPLICA = 0;
+    private static final int PRIMARY = 1;
+    private static final int RECENT_WRITE = 2;
+    private static final int FAILOVER = 3;
+
+    // Latency covers the time the connection is held; SQL time is split out as for service metrics
+    private static final ServiceMetric READ_ROUTE = Metrics.register("DatabaseConnection.readRoute",
+            "replica", "primary", "recent_write", "failover");
+
+    private final ConnectionPool primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long readYourWritesNanos;
+    private final AtomicLongArray recentWrites;
+    private final long epoch = System.nanoTime();
+    private final AtomicInteger next = new AtomicInteger();
+
+    private ScheduledExecutorService healthCheck;
+
+    /**
+     * @param primary Pool of the primary database
+     * @param replicaPools Pools of the replicas, in configuration order; may be empty
+     * @param replicaNames Name of each replica for logs, e.g. its URL
+     * @param readYourWritesMs How long a user's reads stay on the primary after a write
+     * @param writeSlots Size of the recent-write table, rounded up to a power of two
+     */
+    public ReadRouter(ConnectionPool primary, List<ConnectionPool> replicaPools, List<String> replicaNames,
+                      long readYourWritesMs, int writeSlots) {
+        this.primary = primary;
+        for (int i = 0; i < replicaPools.size(); i++) {
+            replicas.add(new Replica(replicaNames.get(i), replicaPools.get(i)));
+        }
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMs);
+        this.recentWrites = new AtomicLongArray(Integer.highestOneBit(Math.max(1, writeSlots - 1)) << 1);
+    }
+
+    /**
+     * Check every replica at a fixed delay from a daemon thread
+     * @param intervalMs Delay between checks
+     */
+    public synchronized void start(long intervalMs) {
+        if (healthCheck != null || replicas.isEmpty()) {
+            return;
+        }
+
+        healthCheck = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "gcash-replica-health");
+            t.setDaemon(true);
+            return t;
+        });
+        healthCheck.scheduleWithFixedDelay(this::checkHealth, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection for read-only work
+     * @param userId User whose data is read, or 0 when the read is not about one user
+     * @return A pooled connection; closing it returns it to its pool
+     * @throws SQLException If no connection could be obtained from the primary either
+     */
+    public Connection borrowRead(int userId) throws SQLException {
+        long start = System.nanoTime();
+        long sqlStart = SqlTimer.current();
+
+        if (replicas.isEmpty()) {
+            return timed(primary.borrow(), PRIMARY, start, sqlStart);
+        }
+        if (wroteRecently(userId, start)) {
+            return timed(primary.borrow(), RECENT_WRITE, start, sqlStart);
+        }
+
+        int first = Math.floorMod(next.getAndIncrement(), replicas.size());
+        boolean failedOver = false;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((first + i) % replicas.size());
+            if (!replica.healthy) {
+                continue;
+            }
+
+            try {
+                return timed(replica.pool.borrow(), REPLICA, start, sqlStart);
+            } catch (SQLException e) {
+                markDown(replica, e);
+                failedOver = true;
+            }
+        }
+        return timed(primary.borrow(), failedOver ? FAILOVER : PRIMARY, start, sqlStart);
+    }
+
+    /**
+     * Keep a user's reads on the primary for the read-your-writes window; call after committing a write
+     * @param userId User whose data changed
+     */
+    public void recordWrite(int userId) {
+        if (userId > 0 && !replicas.isEmpty()) {
+            // Offset from the epoch so that 0 can mean "never written"
+            recentWrites.set(slot(userId), System.nanoTime() - epoch + 1);
+        }
+    }
+
+    /**
+     * Validate a connection of every replica, marking each up or down
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection conn = replica.pool.borrow()) {
+                if (!conn.isValid(AppConfig.POOL_VALIDATION_TIMEOUT_SECONDS)) {
+                    throw new SQLException("Connection is not valid");
+                }
+                if (!replica.healthy) {
+                    replica.healthy = true;
+                    EventLog.info("replica.up").with("replica", replica.name).log();
+                }
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    /**
+     * Stop the health check and close the replica pools; the primary pool is left to its owner
+     */
+    public void close() {
+        synchronized (this) {
+            if (healthCheck != null) {
+                healthCheck.shutdownNow();
+                healthCheck = null;
+            }
+        }
+
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    /**
+     * @param conn Connection from borrowRead()
+     * @return true if it came from a replica, so what it reads may be behind the primary
+     */
+    public static boolean isReplica(Connection conn) {
+        if (!Proxy.isProxyClass(conn.getClass())) {
+            return false;
+        }
+        InvocationHandler handler = Proxy.getInvocationHandler(conn);
+        return handler instanceof RoutedConnectionHandler && ((RoutedConnectionHandler) handler).route == REPLICA;
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    public int getHealthyReplicaCount() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    public long getFailoverCount() {
+        long failovers = 0;
+        for (Replica replica : replicas) {
+            failovers += replica.failures.sum();
+        }
+        return failovers;
+    }
+
+    @Override
+    public String toString() {
+        return "replicas=" + getReplicaCount() + " healthy=" + getHealthyReplicaCount()
+                + " failovers=" + getFailoverCount();
+    }
+
+    private boolean wroteRecently(int userId, long now) {
+        if (userId <= 0) {
+            return false;
+        }
+        long written = recentWrites.get(slot(userId));
+        return written != 0 && now - epoch + 1 - written < readYourWritesNanos;
+    }
+
+    private int slot(int userId) {
+        // Spread sequential IDs across the table
+        return (userId * 0x9E3779B9) >>> 1 & (recentWrites.length() - 1);
+    }
+
+    private void markDown(Replica replica, SQLException e) {
+        replica.failures.increment();
+        if (replica.healthy) {
+            replica.healthy = false;
+            EventLog.warn("replica.down").with("replica", replica.name).with("error", e.getMessage()).log();
+        }
+    }
+
+    /**
+     * Wrap a connection so that closing it records the route and how long it was held
+     */
+    private static Connection timed(Connection conn, int route, long start, long sqlStart) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new RoutedConnectionHandler(conn, route, start, sqlStart));
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final ConnectionPool pool;
+        private final LongAdder failures = new LongAdder();
+        private volatile boolean healthy = true;
+
+        private Replica(String name, ConnectionPool pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+    }
+
+    private static final class RoutedConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final int route;
+        private final long start;
+        private final long sqlStart;
+        private boolean closed;
+
+        private RoutedConnectionHandler(Connection target, int route, long start, long sqlStart) {
+            this.target = target;
+            this.route = route;
+            this.start = start;
+            this.sqlStart = sqlStart;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                if (!closed) {
+                    closed = true;
+                    target.close();
+                    READ_ROUTE.record(route, start, sqlStart);
+                }
+                return null;
+            }
+
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
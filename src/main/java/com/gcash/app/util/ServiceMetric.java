@@ -0,0 +1,117 @@
+package com.gcash.app.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call counts by outcome and latency histograms for one service method.
+ *
+ * Create instances with Metrics.register and keep them in static final fields, so a call
+ * records with no map lookup: one counter increment and two histogram samples.
+ */
+public final class ServiceMetric {
+    private final String name;
+    private final String[] outcomes;
+    private final LongAdder[] counts;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram sqlLatency = new LatencyHistogram();
+
+    ServiceMetric(String name, String... outcomes) {
+        if (outcomes.length == 0) {
+            throw new IllegalArgumentException("A metric needs at least one outcome: " + name);
+        }
+
+        this.name = name;
+        this.outcomes = outcomes.clone();
+        this.counts = new LongAdder[outcomes.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record one call
+     * @param outcome Index into the outcomes given at registration
+     * @param startNanos System.nanoTime() when the call began
+     * @param sqlStartNanos SqlTimer.current() when the call began
+     */
+    public void record(int outcome, long startNanos, long sqlStartNanos) {
+        long sqlNanos = SqlTimer.current() - sqlStartNanos;
+        latency.record(System.nanoTime() - startNanos);
+        sqlLatency.record(sqlNanos);
+        counts[outcome].increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Outcome labels, in index order
+     */
+    public String[] getOutcomes() {
+        return outcomes.clone();
+    }
+
+    /**
+     * @param outcome Outcome index
+     * @return Calls recorded with that outcome
+     */
+    public long getCount(int outcome) {
+        return counts[outcome].sum();
+    }
+
+    /**
+     * @return Calls recorded with any outcome
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (LongAdder count : counts) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    /**
+     * @return Wall-clock time per call, SQL included
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return Time per call spent inside JDBC calls
+     */
+    public LatencyHistogram getSqlLatency() {
+        return sqlLatency;
+    }
+
+    /**
+     * @return Mean time per call outside JDBC calls, in nanoseconds
+     */
+    public double getMeanLogicNanos() {
+        return Math.max(0, latency.getMeanNanos() - sqlLatency.getMeanNanos());
+    }
+
+    void reset() {
+        for (LongAdder count : counts) {
+            count.reset();
+        }
+        latency.reset();
+        sqlLatency.reset();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(name).append(" calls=").append(getTotalCount()).append(" [");
+        for (int i = 0; i < outcomes.length; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(outcomes[i]).append('=').append(getCount(i));
+        }
+        return sb.append("] total[").append(latency)
+                .append("] sql[").append(sqlLatency)
+                .append("] logicMean=").append((long) getMeanLogicNanos() / 1000).append("us")
+                .toString();
+    }
+}
@@ -0,0 +1,152 @@
+package com.gcash.app.util;
+
+/**
+ * Every SQL statement the services prepare, grouped by table.
+ * Keeping the text in one place lets the pool's statement cache match each
+ * operation to a single prepared statement per connection.
+ */
+public final class SqlStatements {
+
+    // users
+    public static final String USER_INSERT =
+            "INSERT INTO users (name, email, number, pin, pin_hash) VALUES (?, ?, ?, ?, ?)";
+    public static final String USER_EXISTS = "SELECT id FROM users WHERE id = ?";
+    public static final String USER_PAIR_EXISTS = "SELECT id FROM users WHERE id IN (?, ?)";
+    public static final String USER_IDS = "SELECT id FROM users";
+    public static final String USER_LOGIN_BY_EMAIL = "SELECT id FROM users WHERE email = ? AND pin_hash = ?";
+    public static final String USER_LOGIN_BY_NUMBER = "SELECT id FROM users WHERE number = ? AND pin_hash = ?";
+    public static final String USER_UPDATE_PIN =
+            "UPDATE users SET pin = ?, pin_hash = ? WHERE id = ? AND pin_hash = ?";
+
+    // balance
+    public static final String BALANCE_BY_USER = "SELECT id, amount, user_id FROM balance WHERE user_id = ?";
+    public static final String BALANCE_CREATE_EMPTY = "INSERT INTO balance (amount, user_id) VALUES (0, ?)";
+    public static final String BALANCE_ADD = "UPDATE balance SET amount = amount + ? WHERE user_id = ?";
+    public static final String BALANCE_SUBTRACT = "UPDATE balance SET amount = amount - ? WHERE user_id = ?";
+    public static final String BALANCE_SUBTRACT_IF_FUNDED =
+            "UPDATE balance SET amount = amount - ? WHERE user_id = ? AND amount >= ?";
+    public static final String BALANCE_UPSERT_ADD = "INSERT INTO balance (amount, user_id) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount)";
+    public static final String BALANCE_UPSERT_SET = "INSERT INTO balance (amount, user_id) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE amount = VALUES(amount)";
+
+    // transaction
+    public static final String TRANSACTION_COLUMNS =
+            "id, amount, name, kind, account_id, date, transferToID, transferFromID";
+    public static final String TRANSACTION_INSERT =
+            "INSERT INTO transaction (amount, name, account_id, date, kind) VALUES (?, ?, ?, ?, ?)";
+    public static final String TRANSACTION_INSERT_TRANSFER =
+            "INSERT INTO transaction (amount, name, account_id, date, transferToID, transferFromID, kind) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    public static final String TRANSACTION_BY_ID = "SELECT " + TRANSACTION_COLUMNS + " FROM transaction WHERE id = ?";
+    public static final String TRANSACTION_BY_ACCOUNT =
+            "SELECT " + TRANSACTION_COLUMNS + " FROM transaction WHERE account_id = ? ORDER BY date DESC";
+    public static final String TRANSACTION_FIRST_PAGE =
+            "SELECT " + TRANSACTION_COLUMNS + " FROM transaction WHERE account_id = ? " +
+                    "ORDER BY date DESC, id DESC LIMIT ?";
+    public static final String TRANSACTION_PAGE_BEFORE =
+            "SELECT " + TRANSACTION_COLUMNS + " FROM transaction WHERE account_id = ? " +
+                    "AND (date < ? OR (date = ? AND id < ?)) ORDER BY date DESC, id DESC LIMIT ?";
+    public static final String TRANSACTION_STREAM_ACCOUNT =
+            "SELECT " + TRANSACTION_COLUMNS + " FROM transaction WHERE account_id = ? " +
+                    "ORDER BY date DESC, id DESC";
+    // Walks the (date, id) index backwards, so the newest rows stream first without sorting
+    public static final String TRANSACTION_ALL =
+            "SELECT " + TRANSACTION_COLUMNS + " FROM transaction ORDER BY date DESC, id DESC";
+    public static final String TRANSACTION_ACCOUNT_RANGE = "SELECT MIN(account_id), MAX(account_id) FROM transaction";
+    // Walks the (account_id, date, id) index in order, so the server streams rows without sorting
+    public static final String TRANSACTION_EXPORT_RANGE =
+            "SELECT " + TRANSACTION_COLUMNS + " FROM transaction WHERE account_id BETWEEN ? AND ? " +
+                    "AND date >= ? AND date < ? ORDER BY account_id, date, id";
+
+    // account_summary
+    public static final String SUMMARY_COLUMNS = "user_id, cashin_count, cashin_total, sent_count, sent_total, " +
+            "received_count, received_total, month_key, month_cashin_total, last_activity";
+    public static final String SUMMARY_BY_USER =
+            "SELECT " + SUMMARY_COLUMNS + " FROM account_summary WHERE user_id = ?";
+    public static final String SUMMARY_INSERT =
+            "INSERT INTO account_summary (" + SUMMARY_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Adds the row's values as deltas; month_cashin_total restarts when month_key moves on,
+    // so it must be assigned before month_key
+    public static final String SUMMARY_APPLY = SUMMARY_INSERT + " ON DUPLICATE KEY UPDATE " +
+            "cashin_count = cashin_count + VALUES(cashin_count), " +
+            "cashin_total = cashin_total + VALUES(cashin_total), " +
+            "sent_count = sent_count + VALUES(sent_count), " +
+            "sent_total = sent_total + VALUES(sent_total), " +
+            "received_count = received_count + VALUES(received_count), " +
+            "received_total = received_total + VALUES(received_total), " +
+            "month_cashin_total = CASE WHEN month_key = VALUES(month_key) " +
+            "THEN month_cashin_total + VALUES(month_cashin_total) ELSE VALUES(month_cashin_total) END, " +
+            "month_key = VALUES(month_key), " +
+            "last_activity = VALUES(last_activity)";
+    public static final String SUMMARY_DELETE_RANGE = "DELETE FROM account_summary WHERE user_id BETWEEN ? AND ?";
+    // Cash-ins are the rows without a transfer recipient; a transfer has a row for each side
+    public static final String SUMMARY_AGGREGATE_RANGE = "SELECT account_id, " +
+            "SUM(CASE WHEN transferToID IS NULL THEN 1 ELSE 0 END) AS cashin_count, " +
+            "SUM(CASE WHEN transferToID IS NULL THEN amount ELSE 0 END) AS cashin_total, " +
+            "SUM(CASE WHEN transferFromID = account_id THEN 1 ELSE 0 END) AS sent_count, " +
+            "SUM(CASE WHEN transferFromID = account_id THEN -amount ELSE 0 END) AS sent_total, " +
+            "SUM(CASE WHEN transferToID = account_id THEN 1 ELSE 0 END) AS received_count, " +
+            "SUM(CASE WHEN transferToID = account_id THEN amount ELSE 0 END) AS received_total, " +
+            "SUM(CASE WHEN transferToID IS NULL AND date >= ? THEN amount ELSE 0 END) AS month_cashin_total, " +
+            "MAX(date) AS last_activity " +
+            "FROM transaction WHERE account_id BETWEEN ? AND ? GROUP BY account_id";
+    public static final String USER_ID_RANGE = "SELECT MIN(id), MAX(id) FROM users";
+
+    // reconciliation
+    public static final String RECONCILE_BALANCE_RANGE = "SELECT MIN(user_id), MAX(user_id) FROM balance";
+    public static final String RECONCILE_LEDGER_SUMS = "SELECT account_id, SUM(amount) AS total, COUNT(*) AS row_count " +
+            "FROM transaction WHERE account_id BETWEEN ? AND ? GROUP BY account_id ORDER BY account_id";
+    public static final String RECONCILE_BALANCES =
+            "SELECT user_id, amount FROM balance WHERE user_id BETWEEN ? AND ? ORDER BY user_id";
+
+    // ledger_checkpoint
+    public static final String LEDGER_IMPORT_ACCOUNTS =
+            "SELECT u.id, b.amount FROM users u LEFT JOIN balance b ON b.user_id = u.id";
+    public static final String LEDGER_CHECKPOINT_SELECT = "SELECT shard_id, sequence FROM ledger_checkpoint";
+    public static final String LEDGER_CHECKPOINT_UPSERT = "INSERT INTO ledger_checkpoint (shard_id, sequence) " +
+            "VALUES (?, ?) ON DUPLICATE KEY UPDATE sequence = VALUES(sequence)";
+
+    // IN lists are padded to a power of two so a batch of any size maps to one of a few statements
+    private static final int MAX_IN_LIST_SLOTS = 31;
+    private static final String[] USERS_IN = new String[MAX_IN_LIST_SLOTS];
+
+    private SqlStatements() {
+    }
+
+    /**
+     * SELECT id FROM users WHERE id IN (...) with room for at least count IDs.
+     * Unused placeholders must be bound to one of the real IDs; see {@link #inListSize(int)}.
+     * @param count Number of IDs to look up, at least 1
+     * @return SQL with inListSize(count) placeholders
+     */
+    public static String usersIn(int count) {
+        int slot = Integer.SIZE - Integer.numberOfLeadingZeros(inListSize(count) - 1);
+        String sql = USERS_IN[slot];
+        if (sql == null) {
+            sql = buildIn("SELECT id FROM users WHERE id IN (", inListSize(count));
+            USERS_IN[slot] = sql;  // Benign race: every thread builds the same string
+        }
+        return sql;
+    }
+
+    /**
+     * @param count Number of IDs, at least 1
+     * @return Placeholder count of the padded IN list, the next power of two
+     */
+    public static int inListSize(int count) {
+        if (count < 1 || count > (1 << (MAX_IN_LIST_SLOTS - 1))) {
+            throw new IllegalArgumentException("Invalid IN list size: " + count);
+        }
+        return count == 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+    }
+
+    private static String buildIn(String prefix, int placeholders) {
+        StringBuilder sql = new StringBuilder(prefix.length() + placeholders * 3);
+        sql.append(prefix);
+        for (int i = 0; i < placeholders; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(')').toString();
+    }
+}
@@ -0,0 +1,31 @@
+package com.gcash.app.util;
+
+/**
+ * Per-thread running total of time spent inside JDBC calls.
+ *
+ * Pooled connections and their statements add the duration of every call they forward to
+ * the driver. A caller reads current() before and after a unit of work; the difference is
+ * the SQL time of that work, whatever connections it borrowed along the way. Reads from a
+ * ResultSet are not proxied and count as the caller's own time.
+ */
+public final class SqlTimer {
+    private static final ThreadLocal<long[]> elapsed = ThreadLocal.withInitial(() -> new long[1]);
+
+    private SqlTimer() {
+    }
+
+    /**
+     * @return Nanoseconds this thread has spent in JDBC calls since it started
+     */
+    public static long current() {
+        return elapsed.get()[0];
+    }
+
+    /**
+     * Add the duration of one JDBC call to the current thread's total
+     * @param nanos Elapsed time in nanoseconds
+     */
+    static void add(long nanos) {
+        elapsed.get()[0] += nanos;
+    }
+}
@@ -0,0 +1,240 @@
+package com.gcash.app.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prepared statements of one pooled connection, kept open across borrows and keyed by SQL.
+ *
+ * prepareStatement hands out a lightweight proxy around the cached statement; closing the
+ * proxy closes its result sets and clears the parameters instead of closing the statement,
+ * so the next caller with the same SQL skips the parse and plan; execute calls are timed into
+ * SqlTimer. Only the connection's current borrower uses the cache, so it needs no locking.
+ */
+final class StatementCache {
+    // Statement settings that would leak into the next caller; a statement touched by one is not reused
+    private static final Set<String> STATEFUL_SETTERS = new HashSet<>(Arrays.asList(
+            "setFetchSize", "setFetchDirection", "setMaxRows", "setLargeMaxRows", "setMaxFieldSize",
+            "setQueryTimeout", "setEscapeProcessing", "setCursorName", "setPoolable", "closeOnCompletion"));
+
+    private final Connection physical;
+    private final int maxSize;
+    // Access-ordered, so iteration starts at the least recently used statement
+    private final Map<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    StatementCache(Connection physical, int maxSize, LongAdder hits, LongAdder misses, LongAdder evictions) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    /**
+     * Check out the statement for the SQL, preparing it on a miss
+     * @param sql SQL text
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS or Statement.NO_GENERATED_KEYS
+     * @param owner Connection the caller borrowed, returned by getConnection()
+     * @return Statement whose close() returns it to the cache
+     * @throws SQLException If the statement cannot be prepared
+     */
+    PreparedStatement prepare(String sql, int autoGeneratedKeys, Connection owner) throws SQLException {
+        boolean generatedKeys = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS;
+        String key = generatedKeys ? sql + "\u0000keys" : sql;
+
+        CachedStatement cached = statements.get(key);
+        if (cached != null) {
+            if (cached.inUse) {
+                // The same SQL is already open on this connection; give this caller a private statement
+                misses.increment();
+                return physical.prepareStatement(sql, autoGeneratedKeys);
+            }
+            hits.increment();
+        } else {
+            misses.increment();
+            PreparedStatement statement = generatedKeys
+                    ? physical.prepareStatement(sql, autoGeneratedKeys)
+                    : physical.prepareStatement(sql);
+            evictIfFull();
+            cached = new CachedStatement(key, statement);
+            statements.put(key, cached);
+        }
+
+        cached.inUse = true;
+        cached.checkout++;
+        return (PreparedStatement) Proxy.newProxyInstance(
+                StatementCache.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new LogicalStatementHandler(cached, owner));
+    }
+
+    /**
+     * Return every statement the last borrower left open; called when the connection goes back to the pool
+     */
+    void releaseAll() {
+        for (CachedStatement cached : new ArrayList<>(statements.values())) {
+            if (cached.inUse) {
+                release(cached, false);
+            }
+        }
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private void release(CachedStatement cached, boolean stateful) {
+        cached.inUse = false;
+        cached.checkout++; // Invalidates any proxy still held by the previous caller
+
+        try {
+            for (ResultSet rs : cached.results) {
+                rs.close();
+            }
+            cached.results.clear();
+
+            if (stateful) {
+                remove(cached);
+                return;
+            }
+            cached.statement.clearParameters();
+            cached.statement.clearBatch();
+        } catch (SQLException e) {
+            remove(cached);
+        }
+    }
+
+    private void evictIfFull() {
+        if (statements.size() < maxSize) {
+            return;
+        }
+
+        Iterator<CachedStatement> it = statements.values().iterator();
+        while (it.hasNext()) {
+            CachedStatement eldest = it.next();
+            if (!eldest.inUse) {
+                it.remove();
+                closeQuietly(eldest);
+                evictions.increment();
+                return;
+            }
+        }
+    }
+
+    private void remove(CachedStatement cached) {
+        statements.remove(cached.key, cached);
+        closeQuietly(cached);
+    }
+
+    private static void closeQuietly(CachedStatement cached) {
+        try {
+            cached.statement.close();
+        } catch (SQLException e) {
+            EventLog.error("statement.close_error").with("error", e.getMessage()).log();
+        }
+    }
+
+    private static final class CachedStatement {
+        private final String key;
+        private final PreparedStatement statement;
+        private final List<ResultSet> results = new ArrayList<>(1);
+        private boolean inUse;
+        private int checkout;
+
+        private CachedStatement(String key, PreparedStatement statement) {
+            this.key = key;
+            this.statement = statement;
+        }
+    }
+
+    /**
+     * One checkout of a cached statement
+     */
+    private final class LogicalStatementHandler implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection owner;
+        private final int checkout;
+        private boolean closed;
+        private boolean stateful;
+
+        private LogicalStatementHandler(CachedStatement cached, Connection owner) {
+            this.cached = cached;
+            this.owner = owner;
+            this.checkout = cached.checkout;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            int parameters = method.getParameterCount();
+
+            if ("close".equals(name) && parameters == 0) {
+                if (!closed) {
+                    closed = true;
+                    if (cached.checkout == checkout) {
+                        release(cached, stateful);
+                    }
+                }
+                return null;
+            }
+            if ("isClosed".equals(name) && parameters == 0) {
+                return closed || cached.checkout != checkout;
+            }
+            if ("getConnection".equals(name) && parameters == 0) {
+                return owner;
+            }
+            if ("equals".equals(name) && parameters == 1) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name) && parameters == 0) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(name) && parameters == 0) {
+                return "CachedStatement[" + cached.statement + "]";
+            }
+            if (closed || cached.checkout != checkout) {
+                throw new SQLException("Statement is closed");
+            }
+            if (STATEFUL_SETTERS.contains(name)) {
+                stateful = true;
+            }
+
+            Object result;
+            boolean timed = name.startsWith("execute");
+            long start = timed ? System.nanoTime() : 0;
+            try {
+                result = method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                if (timed) {
+                    SqlTimer.add(System.nanoTime() - start);
+                }
+            }
+            if (result instanceof ResultSet) {
+                cached.results.add((ResultSet) result);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,3 @@
+-- Backs the full history listing and stream:
+-- ORDER BY date DESC, id DESC over every account, read backwards without a filesort
+CREATE INDEX idx_transaction_date_id ON transaction (date, id);
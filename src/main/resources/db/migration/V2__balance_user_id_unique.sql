@@ -0,0 +1,4 @@
+-- One balance row per user. Required by the upsert used to credit transfer
+-- recipients (INSERT ... ON DUPLICATE KEY UPDATE).
+-- Merge any duplicate balance rows for the same user before applying.
+ALTER TABLE balance ADD UNIQUE KEY uk_balance_user_id (user_id);
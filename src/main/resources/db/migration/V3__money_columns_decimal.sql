@@ -0,0 +1,5 @@
+-- Store money as exact fixed-point values with two decimal places (centavos).
+-- The application reads and writes these columns through Money, which holds
+-- a long count of centavos.
+ALTER TABLE balance MODIFY amount DECIMAL(15, 2) NOT NULL DEFAULT 0;
+ALTER TABLE transaction MODIFY amount DECIMAL(15, 2) NOT NULL;
@@ -0,0 +1,3 @@
+-- Backs keyset pagination of a user's history:
+-- WHERE account_id = ? AND (date, id) < (?, ?) ORDER BY date DESC, id DESC
+CREATE INDEX idx_transaction_account_date_id ON transaction (account_id, date, id);
@@ -0,0 +1,5 @@
+-- Raw SHA-256 PIN digest, 32 bytes instead of 64 hex characters.
+-- Login and PIN changes compare against pin_hash; pin keeps the hex form for older readers.
+ALTER TABLE users ADD COLUMN pin_hash BINARY(32) NULL;
+UPDATE users SET pin_hash = UNHEX(pin);
+ALTER TABLE users MODIFY pin_hash BINARY(32) NOT NULL;
@@ -0,0 +1,5 @@
+-- Login looks users up by exactly one of these columns, so each needs its own index.
+-- Both are unique: one account per email address and per phone number.
+-- Resolve any duplicate emails or numbers before applying.
+CREATE UNIQUE INDEX uk_users_email ON users (email);
+CREATE UNIQUE INDEX uk_users_number ON users (number);
@@ -0,0 +1,6 @@
+-- Last ledger posting written to MySQL per shard, used only in in-memory ledger mode.
+-- Updated in the same transaction as the projected rows, so a restart resumes exactly after it.
+CREATE TABLE ledger_checkpoint (
+    shard_id INT NOT NULL PRIMARY KEY,
+    sequence BIGINT NOT NULL
+);
@@ -0,0 +1,31 @@
+-- Running per-account totals, maintained in the same transaction as every cash-in and transfer
+-- so a user's summary is a single primary-key lookup instead of a scan of their history.
+-- month_cashin_total only covers month_key (yyyymm); a row from an earlier month reads as zero.
+CREATE TABLE account_summary (
+    user_id INT NOT NULL PRIMARY KEY,
+    cashin_count INT NOT NULL DEFAULT 0,
+    cashin_total DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    sent_count INT NOT NULL DEFAULT 0,
+    sent_total DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    received_count INT NOT NULL DEFAULT 0,
+    received_total DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    month_key INT NOT NULL,
+    month_cashin_total DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    last_activity DATETIME NOT NULL
+);
+
+-- Build the summaries for existing history
+INSERT INTO account_summary (user_id, cashin_count, cashin_total, sent_count, sent_total,
+                             received_count, received_total, month_key, month_cashin_total, last_activity)
+SELECT account_id,
+       SUM(CASE WHEN transferToID IS NULL THEN 1 ELSE 0 END),
+       SUM(CASE WHEN transferToID IS NULL THEN amount ELSE 0 END),
+       SUM(CASE WHEN transferFromID = account_id THEN 1 ELSE 0 END),
+       SUM(CASE WHEN transferFromID = account_id THEN -amount ELSE 0 END),
+       SUM(CASE WHEN transferToID = account_id THEN 1 ELSE 0 END),
+       SUM(CASE WHEN transferToID = account_id THEN amount ELSE 0 END),
+       EXTRACT(YEAR_MONTH FROM CURRENT_DATE),
+       SUM(CASE WHEN transferToID IS NULL AND date >= DATE_FORMAT(CURRENT_DATE, '%Y-%m-01') THEN amount ELSE 0 END),
+       MAX(date)
+FROM transaction
+GROUP BY account_id;
@@ -0,0 +1,11 @@
+-- Transaction type as a code (see TransactionKind) so listings do not parse the free-text name.
+-- 1 = cash in, 2 = transfer out, 3 = transfer in.
+ALTER TABLE transaction ADD COLUMN kind TINYINT NOT NULL DEFAULT 0 AFTER name;
+
+UPDATE transaction
+SET kind = CASE
+    WHEN transferToID IS NULL THEN 1
+    WHEN transferFromID = account_id THEN 2
+    WHEN transferToID = account_id THEN 3
+    ELSE 0
+END;
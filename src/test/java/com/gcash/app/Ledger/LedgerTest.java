@@ -0,0 +1,281 @@
+package com.gcash.app.Ledger;
+
+import com.gcash.app.Model.Money;
+import com.gcash.app.Service.BalanceService;
+import com.gcash.app.Service.TransactionService;
+import com.gcash.app.util.DatabaseConnection;
+import com.gcash.app.util.EmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LedgerTest {
+
+    // Three records per segment so the tests cross segment boundaries
+    private static final long SEGMENT_BYTES = WriteAheadLog.RECORD_SIZE * 3;
+
+    @TempDir
+    Path directory;
+
+    private Ledger ledger;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Ledger.install(null);
+        if (ledger != null) {
+            ledger.close();
+        }
+    }
+
+    private Ledger open() throws IOException {
+        ledger = new Ledger(directory, 4, SEGMENT_BYTES, 1000, 64);
+        ledger.start();
+        return ledger;
+    }
+
+    private void restart() throws IOException {
+        ledger.close();
+        open();
+    }
+
+    @Test
+    @DisplayName("Cash-in and transfer result codes within and across shards")
+    void testResultCodes() throws IOException {
+        open();
+        assertTrue(ledger.openAccount(1, Money.ofPesos(100)).join());
+        assertTrue(ledger.openAccount(2, Money.ZERO).join());
+        assertTrue(ledger.openAccount(5, Money.ZERO).join()); // Same shard as user 1
+        assertFalse(ledger.openAccount(1, Money.ZERO).join());
+
+        assertEquals(0, ledger.cashIn(2, Money.parse("10.50")).join());
+        assertEquals(1, ledger.cashIn(2, Money.ZERO).join());
+        assertEquals(2, ledger.cashIn(99, Money.ofPesos(1)).join());
+
+        assertEquals(0, ledger.transfer(1, 2, Money.ofPesos(40)).join());
+        assertEquals(0, ledger.transfer(1, 5, Money.ofPesos(10)).join());
+        assertEquals(1, ledger.transfer(1, 2, Money.ofPesos(51)).join());
+        assertEquals(2, ledger.transfer(1, 99, Money.ofPesos(1)).join());
+        assertEquals(3, ledger.transfer(1, 1, Money.ofPesos(1)).join());
+
+        assertEquals(Money.ofPesos(50), ledger.balance(1).join());
+        assertEquals(Money.parse("50.50"), ledger.balance(2).join());
+        assertEquals(Money.ofPesos(10), ledger.balance(5).join());
+        assertNull(ledger.balance(99).join());
+    }
+
+    @Test
+    @DisplayName("Balances are rebuilt from the logs after a restart")
+    void testReplay() throws IOException {
+        open();
+        for (int userId = 1; userId <= 6; userId++) {
+            ledger.openAccount(userId, Money.ofPesos(100)).join();
+        }
+        for (int i = 0; i < 20; i++) {
+            ledger.transfer(i % 6 + 1, (i + 3) % 6 + 1, Money.ofPesos(i + 1)).join();
+        }
+        ledger.cashIn(4, Money.parse("0.25")).join();
+
+        List<Money> before = new ArrayList<>();
+        for (int userId = 1; userId <= 6; userId++) {
+            before.add(ledger.balance(userId).join());
+        }
+
+        restart();
+
+        for (int userId = 1; userId <= 6; userId++) {
+            assertEquals(before.get(userId - 1), ledger.balance(userId).join());
+        }
+        assertEquals(6, ledger.getAccountCount());
+        assertEquals(0, ledger.transfer(6, 1, Money.ofPesos(1)).join());
+    }
+
+    @Test
+    @DisplayName("A torn record at the end of a log is discarded on replay")
+    void testTornTail() throws IOException {
+        open();
+        ledger.openAccount(4, Money.ofPesos(100)).join();   // Shard 0, record 1
+        ledger.cashIn(4, Money.ofPesos(1)).join();          // Record 2
+        ledger.cashIn(4, Money.ofPesos(2)).join();          // Record 3
+        ledger.cashIn(4, Money.ofPesos(4)).join();          // Record 4, in the second segment
+        ledger.close();
+
+        // Flip a byte in the amount of the last record
+        try (FileChannel channel = FileChannel.open(directory.resolve("shard-0.wal"),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            long offset = WriteAheadLog.RECORD_SIZE * 3 + 32;
+            channel.read(buffer, offset);
+            buffer.put(0, (byte) (buffer.get(0) ^ 0x7f));
+            buffer.rewind();
+            channel.write(buffer, offset);
+        }
+
+        open();
+        assertEquals(Money.ofPesos(103), ledger.balance(4).join());
+
+        // New postings continue from the last good record and survive another restart
+        ledger.cashIn(4, Money.ofPesos(8)).join();
+        restart();
+        assertEquals(Money.ofPesos(111), ledger.balance(4).join());
+    }
+
+    @Test
+    @DisplayName("Concurrent transfers across shards keep the total balance")
+    void testConcurrentTransfersConserveMoney() throws Exception {
+        open();
+        int users = 20;
+        for (int userId = 1; userId <= users; userId++) {
+            ledger.openAccount(userId, Money.ofPesos(1000)).join();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int w = 0; w < 8; w++) {
+                workers.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    List<CompletableFuture<Integer>> results = new ArrayList<>();
+                    for (int i = 0; i < 500; i++) {
+                        int from = random.nextInt(users) + 1;
+                        int to = random.nextInt(users) + 1;
+                        results.add(ledger.transfer(from, to, Money.ofCentavos(random.nextInt(1, 50000))));
+                    }
+                    for (CompletableFuture<Integer> result : results) {
+                        int code = result.join();
+                        assertTrue(code == 0 || code == 1 || code == 3, "Unexpected code " + code);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(Money.ofPesos(1000L * users), ledger.totalBalance());
+        for (int userId = 1; userId <= users; userId++) {
+            assertFalse(ledger.balance(userId).join().isNegative());
+        }
+
+        restart();
+        assertEquals(Money.ofPesos(1000L * users), ledger.totalBalance());
+    }
+
+    @Test
+    @DisplayName("The services use the installed ledger without a database")
+    void testServicesDelegate() throws IOException {
+        Ledger.install(open());
+        ledger.openAccount(1, Money.ofPesos(100)).join();
+        ledger.openAccount(2, Money.ZERO).join();
+
+        assertTrue(TransactionService.cashin(Money.ofPesos(20), 2));
+        assertFalse(TransactionService.cashin(Money.ofPesos(20), 99));
+        assertEquals(0, TransactionService.cashTransfer(Money.ofPesos(30), 1, 2));
+        assertEquals(1, TransactionService.cashTransfer(Money.ofPesos(300), 1, 2));
+
+        assertEquals(Money.ofPesos(70), BalanceService.checkBalance(1).getAmount());
+        assertEquals(Money.ofPesos(50), BalanceService.checkBalance(2).getAmount());
+        assertNull(BalanceService.checkBalance(99));
+    }
+
+    @Test
+    @DisplayName("Existing users and balances are imported into a new ledger")
+    void testImportAccounts() throws Exception {
+        EmbeddedDatabase database = EmbeddedDatabase.create("ledger-import").install();
+        database.reset();
+        database.seed(3, 1, 1000);
+        try (Connection conn = database.open();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM balance WHERE user_id = 3"); // Registered but never funded
+        }
+
+        open();
+        assertEquals(3, ledger.importAccounts());
+        assertEquals(Money.ofPesos(1000), ledger.balance(1).join());
+        assertEquals(Money.ZERO, ledger.balance(3).join());
+        assertEquals(0, ledger.transfer(1, 3, Money.ofPesos(250)).join());
+
+        restart();
+        assertEquals(3, ledger.getAccountCount());
+        assertEquals(Money.ofPesos(250), ledger.balance(3).join());
+        assertThrows(IllegalStateException.class, () -> ledger.importAccounts());
+    }
+
+    @Test
+    @DisplayName("The projector writes postings to the database exactly once across restarts")
+    void testProjection() throws Exception {
+        EmbeddedDatabase database = EmbeddedDatabase.create("ledger-projection").install();
+        database.reset();
+
+        ledger = new Ledger(directory, 4, SEGMENT_BYTES, 1000, 64);
+        ledger.setProjector(new LedgerProjector(5));
+        ledger.start();
+        ledger.openAccount(1, Money.ofPesos(100)).join();
+        ledger.openAccount(2, Money.ZERO).join();
+        ledger.cashIn(2, Money.ofPesos(5)).join();
+        ledger.transfer(1, 2, Money.ofPesos(30)).join();
+        ledger.close(); // Drains the projector
+
+        // Nothing new to project after a restart
+        ledger = new Ledger(directory, 4, SEGMENT_BYTES, 1000, 64);
+        ledger.setProjector(new LedgerProjector(5));
+        ledger.start();
+        ledger.close();
+
+        try (Connection conn = database.open();
+             Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT user_id, amount FROM balance ORDER BY user_id")) {
+                assertTrue(rs.next());
+                assertEquals(Money.ofPesos(70), Money.fromBigDecimal(rs.getBigDecimal("amount")));
+                assertTrue(rs.next());
+                assertEquals(Money.ofPesos(35), Money.fromBigDecimal(rs.getBigDecimal("amount")));
+                assertFalse(rs.next());
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM transaction")) {
+                assertTrue(rs.next());
+                assertEquals(3, rs.getInt(1)); // One cash-in row and two transfer rows
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Stopping the projector does not wait for a database that is down")
+    void testProjectionStopsWhileDatabaseDown() throws Exception {
+        // IFEXISTS makes every connection fail since the database is never created
+        DatabaseConnection.configure(EmbeddedDatabase.url("ledger-down") + ";IFEXISTS=TRUE", "sa", "");
+        LedgerProjector projector = new LedgerProjector(5);
+        try {
+            projector.start();
+            projector.enqueue(List.of(new Posting(0, 1, Posting.Type.CASH_IN, 1, 0, 100, System.currentTimeMillis())));
+            while (projector.getFailureCount() == 0) {
+                Thread.sleep(10);
+            }
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), projector::stop);
+            assertEquals(0, projector.getProjectedCount());
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.gcash.app.Ledger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongLongMapTest {
+
+    @Test
+    @DisplayName("Values survive growing the table")
+    void testPutGetAcrossResize() {
+        LongLongMap map = new LongLongMap(4);
+        for (long key = 1; key <= 10000; key++) {
+            map.put(key, key * 10);
+        }
+
+        assertEquals(10000, map.size());
+        for (long key = 1; key <= 10000; key++) {
+            assertEquals(key * 10, map.get(key, -1));
+        }
+        assertEquals(-1, map.get(10001, -1));
+        assertFalse(map.containsKey(10001));
+    }
+
+    @Test
+    @DisplayName("addTo inserts missing keys and accumulates existing ones")
+    void testAddTo() {
+        LongLongMap map = new LongLongMap(16);
+
+        assertEquals(-5, map.addTo(7, -5));
+        assertEquals(15, map.addTo(7, 20));
+        assertEquals(1, map.size());
+
+        long[] sum = new long[1];
+        map.forEach((key, value) -> sum[0] += value);
+        assertEquals(15, sum[0]);
+    }
+
+    @Test
+    @DisplayName("Keys must be positive")
+    void testRejectsNonPositiveKeys() {
+        LongLongMap map = new LongLongMap(16);
+        assertThrows(IllegalArgumentException.class, () -> map.put(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> map.get(-1, 0));
+    }
+}
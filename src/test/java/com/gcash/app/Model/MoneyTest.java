@@ -0,0 +1,55 @@
+package com.gcash.app.Model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    @Test
+    @DisplayName("Parse amounts with up to two decimal places exactly")
+    void testParse() {
+        assertEquals(15000, Money.parse("150").getCentavos());
+        assertEquals(-2050, Money.parse("-20.5").getCentavos());
+        assertEquals(100025, Money.parse("1000.25").getCentavos());
+        assertEquals(10, Money.parse("0.10").getCentavos());
+
+        assertThrows(NumberFormatException.class, () -> Money.parse("1.005"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("12a"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("-"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("99999999999999999999"));
+    }
+
+    @Test
+    @DisplayName("Repeated additions do not drift")
+    void testNoRoundingDrift() {
+        Money total = Money.ZERO;
+        Money tenCentavos = Money.parse("0.10");
+        for (int i = 0; i < 1_000_000; i++) {
+            total = total.plus(tenCentavos);
+        }
+        assertEquals(Money.ofPesos(100_000), total);
+    }
+
+    @Test
+    @DisplayName("Arithmetic overflow is detected")
+    void testOverflow() {
+        Money max = Money.ofCentavos(Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofCentavos(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofCentavos(Long.MIN_VALUE).negate());
+    }
+
+    @Test
+    @DisplayName("Format and convert to DECIMAL")
+    void testFormatting() {
+        assertEquals("1250.05", Money.ofCentavos(125005).toString());
+        assertEquals("-0.50", Money.ofCentavos(-50).toString());
+        assertEquals("0.00", Money.ZERO.toString());
+        assertEquals("-92233720368547758.08", Money.ofCentavos(Long.MIN_VALUE).toString());
+        assertEquals(new BigDecimal("12.34"), Money.ofCentavos(1234).toBigDecimal());
+        assertEquals(Money.ofCentavos(1234), Money.fromBigDecimal(new BigDecimal("12.34")));
+    }
+}
@@ -0,0 +1,58 @@
+package com.gcash.app.Model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionFormatterTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2025, 3, 1, 14, 5, 9, 123456789);
+
+    @Test
+    @DisplayName("Format the kind, signed amount and a second-precision date")
+    void testAppend() {
+        Transactions cashIn = new Transactions(7, Money.parse("250.50"), "Cash In",
+                TransactionKind.CASH_IN, 1, DATE, null, null);
+        Transactions sent = new Transactions(42, Money.parse("-300"), "Transfer to User #2",
+                TransactionKind.TRANSFER_OUT, 1, DATE, 2, 1);
+
+        assertEquals("[2025-03-01 14:05:09] ID: 7 | CASH IN | ₱+250.50 | Cash In", cashIn.toString());
+        assertEquals("[2025-03-01 14:05:09] ID: 42 | TRANSFER OUT | ₱-300.00 | Transfer to User #2",
+                TransactionFormatter.append(new StringBuilder(), sent).toString());
+    }
+
+    @Test
+    @DisplayName("Write one line per transaction through the reused buffers")
+    void testWrite() throws IOException {
+        StringWriter out = new StringWriter();
+        TransactionFormatter formatter = new TransactionFormatter(out);
+        String longName = "Transfer from User #" + "9".repeat(200);
+
+        formatter.write(new Transactions(1, Money.ofPesos(5), "Transfer from User #3",
+                TransactionKind.TRANSFER_IN, 1, DATE, 1, 3));
+        formatter.write(new Transactions(2, Money.ofPesos(5), longName, TransactionKind.TRANSFER_IN, 1, DATE, 1, 3));
+        formatter.flush();
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("| TRANSFER IN | ₱+5.00 |"));
+        assertTrue(lines[1].endsWith(longName));
+    }
+
+    @Test
+    @DisplayName("Classify rows without a stored kind from their transfer columns")
+    void testKindFromCodeAndClassify() {
+        assertEquals(TransactionKind.TRANSFER_OUT, TransactionKind.fromCode(2));
+        assertEquals(TransactionKind.UNKNOWN, TransactionKind.fromCode(0));
+        assertEquals(TransactionKind.UNKNOWN, TransactionKind.fromCode(99));
+
+        assertEquals(TransactionKind.CASH_IN, TransactionKind.classify(1, null, null));
+        assertEquals(TransactionKind.TRANSFER_OUT, TransactionKind.classify(1, 2, 1));
+        assertEquals(TransactionKind.TRANSFER_IN, TransactionKind.classify(2, 2, 1));
+    }
+}
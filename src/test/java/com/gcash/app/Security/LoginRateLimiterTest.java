@@ -0,0 +1,87 @@
+package com.gcash.app.Security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoginRateLimiterTest {
+    private static final long HOUR_MS = 60 * 60 * 1000;
+
+    @Test
+    @DisplayName("An identifier is rejected once it reaches its limit, whatever its case")
+    void testIdentifierLimit() {
+        LoginRateLimiter limiter = new LoginRateLimiter(3, 100, HOUR_MS, 100);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("user@example.com", "10.0.0." + i));
+        }
+
+        assertFalse(limiter.tryAcquire(" USER@example.com ", "10.0.0.9"));
+        assertTrue(limiter.tryAcquire("other@example.com", "10.0.0.9"));
+        assertEquals(1, limiter.getIdentifierRejectionCount());
+        assertEquals(4, limiter.getAllowedCount());
+    }
+
+    @Test
+    @DisplayName("A source is rejected once it reaches its limit across identifiers")
+    void testSourceLimit() {
+        LoginRateLimiter limiter = new LoginRateLimiter(3, 5, HOUR_MS, 100);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire("user" + i + "@example.com", "10.0.0.1"));
+        }
+
+        assertFalse(limiter.tryAcquire("fresh@example.com", "10.0.0.1"));
+        assertTrue(limiter.tryAcquire("fresh@example.com", "10.0.0.2"));
+        assertTrue(limiter.tryAcquire("fresh@example.com", null));
+        assertEquals(1, limiter.getSourceRejectionCount());
+    }
+
+    @Test
+    @DisplayName("A successful login clears the identifier's attempts")
+    void testSuccessResets() {
+        LoginRateLimiter limiter = new LoginRateLimiter(2, 100, HOUR_MS, 100);
+        assertTrue(limiter.tryAcquire("user@example.com", null));
+        assertTrue(limiter.tryAcquire("user@example.com", null));
+        assertFalse(limiter.tryAcquire("user@example.com", null));
+
+        limiter.recordSuccess("User@Example.com");
+        assertTrue(limiter.tryAcquire("user@example.com", null));
+    }
+
+    @Test
+    @DisplayName("The number of tracked keys stays bounded")
+    void testEviction() {
+        LoginRateLimiter limiter = new LoginRateLimiter(3, 3, HOUR_MS, 10);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("user" + i + "@example.com", "10.0." + i + ".1");
+        }
+
+        assertTrue(limiter.size() <= 20, limiter.toString());
+        assertEquals(180, limiter.getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("Flooding the map with throwaway identifiers does not reset a throttled one")
+    void testEvictionUnderAttack() {
+        LoginRateLimiter limiter = new LoginRateLimiter(3, 1_000_000, HOUR_MS, 100);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("victim@example.com", null));
+        }
+        assertFalse(limiter.tryAcquire("victim@example.com", null));
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(limiter.tryAcquire("throwaway" + i + "@example.com", null));
+        }
+
+        assertTrue(limiter.size() <= 100, limiter.toString());
+        assertEquals(9_901, limiter.getEvictionCount());
+        assertFalse(limiter.tryAcquire("victim@example.com", null));
+    }
+
+    @Test
+    @DisplayName("Invalid settings are rejected")
+    void testInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new LoginRateLimiter(0, 1, HOUR_MS, 1));
+        assertThrows(IllegalArgumentException.class, () -> new LoginRateLimiter(1, 1, 0, 1));
+    }
+}
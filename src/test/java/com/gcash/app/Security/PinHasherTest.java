@@ -0,0 +1,41 @@
+package com.gcash.app.Security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PinHasherTest {
+
+    // SHA-256("1234")
+    private static final String EXPECTED_HEX = "03ac674216f3e15c761ee1a5e255f067953623c8b388b4459e13f978d7c846f4";
+
+    @Test
+    @DisplayName("Test hex hash matches the stored format")
+    void testHashHex() {
+        assertEquals(EXPECTED_HEX, PinHasher.hashHex("1234"));
+        // The scratch digest is reset between calls
+        assertEquals(EXPECTED_HEX, PinHasher.hashHex("1234"));
+    }
+
+    @Test
+    @DisplayName("Test raw digest and comparison")
+    void testRawHash() {
+        byte[] hash = PinHasher.hash("1234");
+
+        assertEquals(PinHasher.HASH_LENGTH, hash.length);
+        assertEquals(EXPECTED_HEX, PinHasher.toHex(hash));
+        assertTrue(PinHasher.matches("1234", hash));
+        assertFalse(PinHasher.matches("4321", hash));
+        assertFalse(PinHasher.matches("1234", null));
+    }
+
+    @Test
+    @DisplayName("Test returned digests are not shared between calls")
+    void testHashIsCopied() {
+        byte[] first = PinHasher.hash("1234");
+        PinHasher.hash("9999");
+
+        assertEquals(EXPECTED_HEX, PinHasher.toHex(first));
+    }
+}
@@ -0,0 +1,61 @@
+package com.gcash.app.Security;
+
+import com.gcash.app.util.AppConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionManagerTest {
+
+    @Test
+    @DisplayName("Test session lifecycle")
+    void testSessionLifecycle() {
+        assertTrue(SessionManager.createSession(501));
+        assertTrue(SessionManager.isSessionValid(501));
+        assertTrue(SessionManager.invalidateSession(501));
+        assertFalse(SessionManager.isSessionValid(501));
+        assertFalse(SessionManager.createSession(0));
+    }
+
+    @Test
+    @DisplayName("Test if the sweeper removes abandoned sessions")
+    void testSweepRemovesExpiredSessions() {
+        SessionManager.createSession(502);
+        long afterTimeout = System.nanoTime()
+                + TimeUnit.MINUTES.toNanos(AppConfig.SESSION_TIMEOUT_MINUTES) + 1;
+
+        long sweepsBefore = SessionManager.getSweepCount();
+        assertTrue(SessionManager.sweep(afterTimeout) >= 1);
+
+        assertFalse(SessionManager.isSessionValid(502));
+        assertEquals(sweepsBefore + 1, SessionManager.getSweepCount());
+    }
+
+    @Test
+    @DisplayName("Test concurrent logins do not lose sessions")
+    void testConcurrentCreate() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int base = 10_000 + t * 1_000;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    SessionManager.createSession(base + i);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int userId = 10_000; userId < 18_000; userId++) {
+            assertTrue(SessionManager.isSessionValid(userId));
+            SessionManager.invalidateSession(userId);
+        }
+    }
+}
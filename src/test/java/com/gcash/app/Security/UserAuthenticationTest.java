@@ -1,6 +1,7 @@
 package com.gcash.app.Security;
 
 import com.gcash.app.Model.Users;
+import com.gcash.app.util.AppConfig;
 import com.gcash.app.util.DatabaseConnection;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +20,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
@@ -49,6 +51,7 @@ public class UserAuthenticationTest {
 
         // Mock the static session manager for all tests
         mockedSessionManager = Mockito.mockStatic(SessionManager.class);
+        UserAuthentication.getRateLimiter().clear();
     }
 
     @AfterEach
@@ -84,6 +87,40 @@ public class UserAuthenticationTest {
         assertEquals(-1, userId, "Login should fail for invalid credentials.");
     }
 
+    @Test
+    @DisplayName("Test Login by Phone Number Uses the Number Lookup")
+    void testLoginByPhoneNumber() throws SQLException {
+        when(connection.prepareStatement("SELECT id FROM users WHERE number = ? AND pin_hash = ?")).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("id")).thenReturn(7);
+
+        int userId = userAuthentication.login("09171234567", "1234");
+        assertEquals(7, userId, "Login should look the user up by number.");
+    }
+
+    @Test
+    @DisplayName("Test Login With Malformed Identifier Skips the Database")
+    void testLoginWithMalformedIdentifier() {
+        int userId = userAuthentication.login("not-an-identifier", "1234");
+
+        assertEquals(-1, userId, "Login should fail for an identifier that is neither email nor number.");
+        mockedDbConnection.verifyNoInteractions();
+    }
+
+    @Test
+    @DisplayName("Test Throttled Login Skips the Database")
+    void testThrottledLogin() {
+        for (int i = 0; i < AppConfig.MAX_LOGIN_ATTEMPTS; i++) {
+            assertTrue(UserAuthentication.getRateLimiter().tryAcquire("test@example.com", null));
+        }
+
+        int userId = userAuthentication.login("Test@Example.com", "1234", "10.0.0.1");
+
+        assertEquals(UserAuthentication.LOGIN_THROTTLED, userId, "Login should be throttled after too many attempts.");
+        mockedDbConnection.verifyNoInteractions();
+    }
+
     @Test
     @DisplayName("Test User Registration")
     void testRegistration() throws SQLException {
@@ -0,0 +1,152 @@
+package com.gcash.app.Server;
+
+import com.gcash.app.Security.UserAuthentication;
+import com.gcash.app.Service.BalanceService;
+import com.gcash.app.Service.UserService;
+import com.gcash.app.util.EmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the HTTP front end against an embedded H2 database
+ */
+public class GcashServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private GcashServer server;
+
+    @BeforeEach
+    void setUp() throws SQLException, IOException {
+        EmbeddedDatabase database = EmbeddedDatabase.create("server").install();
+        database.reset();
+        database.seed(2, 2, 1000);
+        BalanceService.getCache().clear();
+        UserService.getIndex().clear();
+        UserAuthentication.getRateLimiter().clear();
+
+        server = new GcashServer(0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private HttpResponse<String> post(String path, String token, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path))
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path)).GET();
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+
+    private String login(int userId) throws Exception {
+        HttpResponse<String> response = post("/login", null,
+                "{\"identifier\":\"" + EmbeddedDatabase.email(userId) + "\",\"pin\":\"" + EmbeddedDatabase.SEED_PIN + "\"}");
+        assertEquals(200, response.statusCode());
+        return Json.parseObject(response.body()).get("token");
+    }
+
+    @Test
+    @DisplayName("Register, log in, cash in, transfer and read the balance")
+    void testAccountFlow() throws Exception {
+        HttpResponse<String> registered = post("/register", null,
+                "{\"name\":\"New User\",\"email\":\"new@example.com\",\"number\":\"09170000000\",\"pin\":\"4321\"}");
+        assertEquals(201, registered.statusCode());
+        assertEquals("3", Json.parseObject(registered.body()).get("userId"));
+
+        String token = login(1);
+        assertEquals(200, post("/cashin", token, "{\"amount\":\"50.25\"}").statusCode());
+
+        HttpResponse<String> transfer = post("/transfer", token, "{\"to\":2,\"amount\":100}");
+        assertEquals(200, transfer.statusCode());
+        assertEquals("0", Json.parseObject(transfer.body()).get("code"));
+
+        HttpResponse<String> overdraft = post("/transfer", token, "{\"to\":2,\"amount\":\"99999\"}");
+        assertEquals(409, overdraft.statusCode());
+        assertEquals("1", Json.parseObject(overdraft.body()).get("code"));
+
+        HttpResponse<String> balance = get("/balance", token);
+        assertEquals(200, balance.statusCode());
+        assertEquals("950.25", Json.parseObject(balance.body()).get("amount"));
+    }
+
+    @Test
+    @DisplayName("History pages follow the returned cursor")
+    void testHistoryPaging() throws Exception {
+        String token = login(1);
+
+        HttpResponse<String> first = get("/history?limit=1", token);
+        assertEquals(200, first.statusCode());
+        assertEquals(1, count(first.body(), "\"id\":"));
+        String next = first.body().replaceAll(".*\"next\":\"([^\"]+)\".*", "$1");
+
+        HttpResponse<String> second = get("/history?limit=1&before=" + URLEncoder.encode(next, StandardCharsets.UTF_8), token);
+        assertEquals(200, second.statusCode());
+        assertEquals(1, count(second.body(), "\"id\":"));
+        assertTrue(second.body().endsWith("\"next\":null}"));
+    }
+
+    @Test
+    @DisplayName("Calls need a live token and reject bad input")
+    void testAuthenticationAndErrors() throws Exception {
+        assertEquals(401, get("/balance", null).statusCode());
+        assertEquals(401, get("/balance", "not-a-token").statusCode());
+        assertEquals(401, post("/login", null, "{\"identifier\":\"user1@example.com\",\"pin\":\"0000\"}").statusCode());
+
+        String token = login(1);
+        assertEquals(405, get("/transfer", token).statusCode());
+        assertEquals(400, post("/transfer", token, "{\"to\":").statusCode());
+        assertEquals(400, post("/cashin", token, "{\"amount\":\"abc\"}").statusCode());
+
+        Map<String, String> logout = Json.parseObject(post("/logout", token, "").body());
+        assertEquals("true", logout.get("ok"));
+        assertEquals(401, get("/balance", token).statusCode());
+    }
+
+    @Test
+    @DisplayName("A token stops working once the user logs in again")
+    void testTokenBoundToLogin() throws Exception {
+        String first = login(1);
+        String second = login(1);
+
+        assertEquals(401, get("/balance", first).statusCode());
+        assertEquals(200, get("/balance", second).statusCode());
+    }
+
+    private static int count(String text, String needle) {
+        int count = 0;
+        for (int i = text.indexOf(needle); i >= 0; i = text.indexOf(needle, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,42 @@
+package com.gcash.app.Server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonTest {
+
+    @Test
+    @DisplayName("Flat objects parse to text values")
+    void testParseObject() {
+        Map<String, String> fields = Json.parseObject(
+                " {\"to\": 2, \"amount\":\"10.50\", \"note\": \"a \\\"b\\\"\\n\\u0041\", \"flag\": true, \"x\": null} ");
+
+        assertEquals("2", fields.get("to"));
+        assertEquals("10.50", fields.get("amount"));
+        assertEquals("a \"b\"\nA", fields.get("note"));
+        assertEquals("true", fields.get("flag"));
+        assertTrue(fields.containsKey("x"));
+        assertNull(fields.get("x"));
+        assertTrue(Json.parseObject("{}").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Malformed or nested input is rejected")
+    void testRejectsMalformed() {
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\": 1"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\": {\"b\": 1}}"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\": 1} x"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("[1]"));
+    }
+
+    @Test
+    @DisplayName("Strings are escaped when quoted")
+    void testQuote() {
+        assertEquals("\"a\\\"b\\\\c\\n\\u0001\"", Json.quote(new StringBuilder(), "a\"b\\c\n\u0001").toString());
+        assertEquals("null", Json.quote(new StringBuilder(), null).toString());
+    }
+}
@@ -0,0 +1,51 @@
+package com.gcash.app.Server;
+
+import com.gcash.app.Security.SessionManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionTokensTest {
+
+    @Test
+    @DisplayName("Tokens of an earlier login are rejected and swept")
+    void testEarlierLoginIsRejected() {
+        SessionTokens tokens = new SessionTokens();
+        String old = tokens.issue(701, SessionManager.openSession(701));
+        String current = tokens.issue(701, SessionManager.openSession(701));
+
+        assertEquals(-1, tokens.resolve(old));
+        assertEquals(701, tokens.resolve(current));
+        assertEquals(1, tokens.size());
+    }
+
+    @Test
+    @DisplayName("The sweep removes tokens whose session ended without them being presented")
+    void testSweep() {
+        SessionTokens tokens = new SessionTokens();
+        tokens.issue(702, SessionManager.openSession(702));
+        String live = tokens.issue(703, SessionManager.openSession(703));
+        SessionManager.invalidateSession(702);
+
+        assertEquals(1, tokens.sweep());
+        assertEquals(1, tokens.size());
+        assertEquals(703, tokens.resolve(live));
+        SessionManager.invalidateSession(703);
+    }
+
+    @Test
+    @DisplayName("A token is bound to the session its login opened even if another login lands first")
+    void testTokenBoundToOwnSession() {
+        SessionTokens tokens = new SessionTokens();
+        long first = SessionManager.openSession(704);
+        long second = SessionManager.openSession(704); // A concurrent login of the same user
+
+        String stale = tokens.issue(704, first);
+        String current = tokens.issue(704, second);
+
+        assertEquals(-1, tokens.resolve(stale));
+        assertEquals(704, tokens.resolve(current));
+        SessionManager.invalidateSession(704);
+    }
+}
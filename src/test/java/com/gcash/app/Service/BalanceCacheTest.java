@@ -0,0 +1,64 @@
+package com.gcash.app.Service;
+
+import com.gcash.app.Model.CheckBalance;
+import com.gcash.app.Model.Money;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BalanceCacheTest {
+
+    @Test
+    @DisplayName("A load that overlaps an invalidation is not cached")
+    void testStaleLoadIsDiscarded() {
+        BalanceCache cache = new BalanceCache(10, 60000);
+
+        long stamp = cache.beginLoad(1);
+        cache.invalidate(1); // A transfer commits while the balance is being read
+        cache.put(stamp, new CheckBalance(1, Money.ofPesos(100), 1));
+
+        assertNull(cache.get(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Writes to other users do not discard a load")
+    void testOtherUsersWritesKeepLoad() {
+        BalanceCache cache = new BalanceCache(1000, 60000);
+
+        long stamp = cache.beginLoad(1);
+        for (int userId = 2; userId <= 100; userId++) {
+            cache.invalidate(userId);
+        }
+        cache.put(stamp, new CheckBalance(1, Money.ofPesos(100), 1));
+
+        assertEquals(Money.ofPesos(100), cache.get(1).getAmount());
+    }
+
+    @Test
+    @DisplayName("Expired entries are not served")
+    void testTtl() {
+        BalanceCache cache = new BalanceCache(10, 0);
+
+        cache.put(cache.beginLoad(1), new CheckBalance(1, Money.ofPesos(100), 1));
+
+        assertNull(cache.get(1));
+        assertEquals(1, cache.getExpirationCount());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("The cache never grows past its maximum size")
+    void testSizeBound() {
+        BalanceCache cache = new BalanceCache(3, 60000);
+
+        for (int userId = 1; userId <= 10; userId++) {
+            cache.put(cache.beginLoad(userId), new CheckBalance(userId, Money.ofPesos(userId), userId));
+        }
+
+        assertEquals(3, cache.size());
+        assertEquals(7, cache.getEvictionCount());
+        assertEquals(Money.ofPesos(10), cache.get(10).getAmount());
+    }
+}
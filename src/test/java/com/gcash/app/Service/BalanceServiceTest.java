@@ -1,6 +1,7 @@
 package com.gcash.app.Service;
 
 import com.gcash.app.Model.CheckBalance;
+import com.gcash.app.Model.Money;
 import com.gcash.app.util.DatabaseConnection;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,13 +13,17 @@ import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +44,8 @@ public class BalanceServiceTest {
     void setUp() {
         mockedDbConnection = Mockito.mockStatic(DatabaseConnection.class);
         mockedDbConnection.when(DatabaseConnection::getConnection).thenReturn(connection);
+        mockedDbConnection.when(() -> DatabaseConnection.getReadConnection(anyInt())).thenReturn(connection);
+        BalanceService.getCache().clear();
     }
 
     @AfterEach
@@ -54,13 +61,13 @@ public class BalanceServiceTest {
         when(preparedStatement.executeQuery()).thenReturn(resultSet);
         when(resultSet.next()).thenReturn(true);
         when(resultSet.getInt("id")).thenReturn(1);
-        when(resultSet.getDouble("amount")).thenReturn(1000.0);
+        when(resultSet.getBigDecimal("amount")).thenReturn(new BigDecimal("1000.00"));
         when(resultSet.getInt("user_id")).thenReturn(1);
 
         CheckBalance balance = BalanceService.checkBalance(1);
 
         assertNotNull(balance);
-        assertEquals(1000.0, balance.getAmount());
+        assertEquals(Money.ofPesos(1000), balance.getAmount());
         assertEquals(1, balance.getUser_id());
     }
 
@@ -75,4 +82,27 @@ public class BalanceServiceTest {
         CheckBalance balance = BalanceService.checkBalance(99);
         assertNull(balance);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Repeated balance checks are served from the cache until invalidated")
+    void testCheckBalanceUsesCache() throws SQLException {
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("id")).thenReturn(1);
+        when(resultSet.getBigDecimal("amount")).thenReturn(new BigDecimal("1000.00"));
+        when(resultSet.getInt("user_id")).thenReturn(1);
+
+        long hitsBefore = BalanceService.getCache().getHitCount();
+        BalanceService.checkBalance(1);
+        CheckBalance cached = BalanceService.checkBalance(1);
+
+        assertEquals(Money.ofPesos(1000), cached.getAmount());
+        assertEquals(hitsBefore + 1, BalanceService.getCache().getHitCount());
+        verify(connection, times(1)).prepareStatement(anyString());
+
+        BalanceService.invalidateBalance(1);
+        BalanceService.checkBalance(1);
+        verify(connection, times(2)).prepareStatement(anyString());
+    }
+}
@@ -0,0 +1,403 @@
+package com.gcash.app.Service;
+
+import com.gcash.app.Model.AccountSummary;
+import com.gcash.app.Model.CashinItem;
+import com.gcash.app.Model.CashinResult;
+import com.gcash.app.Model.ExportFilter;
+import com.gcash.app.Model.ExportFormat;
+import com.gcash.app.Model.Money;
+import com.gcash.app.Model.ReconciliationReport;
+import com.gcash.app.Model.TransactionPage;
+import com.gcash.app.Model.Users;
+import com.gcash.app.Security.UserAuthentication;
+import com.gcash.app.util.DatabaseConnection;
+import com.gcash.app.util.EmbeddedDatabase;
+import com.gcash.app.util.Metrics;
+import com.gcash.app.util.ServiceMetric;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the services against an embedded H2 database in MySQL mode to check the SQL itself
+ */
+public class ServiceIntegrationTest {
+
+    private static EmbeddedDatabase database;
+
+    @BeforeAll
+    static void setUpDatabase() throws SQLException {
+        database = EmbeddedDatabase.create("service-integration");
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database.install();
+        database.reset();
+        database.seed(3, 2, 1000);
+        BalanceService.getCache().clear();
+        UserService.getIndex().clear();
+        UserAuthentication.getRateLimiter().clear();
+    }
+
+    @Test
+    @DisplayName("Test cash in, transfer and balance against the database")
+    void testCashInAndTransfer() {
+        assertTrue(TransactionService.cashin(Money.parse("250.50"), 1));
+        assertEquals(0, TransactionService.cashTransfer(Money.ofPesos(300), 1, 2));
+        assertEquals(0, TransactionService.cashTransfer(Money.ofPesos(100), 3, 1));
+
+        assertEquals(Money.parse("1050.50"), BalanceService.checkBalance(1).getAmount());
+        assertEquals(Money.ofPesos(1300), BalanceService.checkBalance(2).getAmount());
+        assertEquals(Money.ofPesos(900), BalanceService.checkBalance(3).getAmount());
+    }
+
+    @Test
+    @DisplayName("Test transfer result codes against the database")
+    void testTransferResultCodes() {
+        assertEquals(1, TransactionService.cashTransfer(Money.ofPesos(5000), 1, 2));
+        assertEquals(2, TransactionService.cashTransfer(Money.ofPesos(10), 1, 99));
+        assertEquals(3, TransactionService.cashTransfer(Money.ofPesos(10), 1, 1));
+
+        assertEquals(Money.ofPesos(1000), BalanceService.checkBalance(1).getAmount());
+        assertEquals(Money.ofPesos(1000), BalanceService.checkBalance(2).getAmount());
+    }
+
+    @Test
+    @DisplayName("Test the transfer engine group-commits transfers without losing money")
+    void testTransferEngine() throws Exception {
+        TransferEngine engine = new TransferEngine(2, 16, 50, 5);
+        engine.start();
+
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 201; i++) {
+            int from = i % 3 + 1;
+            int to = (i + 1) % 3 + 1;
+            results.add(engine.submit(Money.ofPesos(10), from, to));
+        }
+        CompletableFuture<Integer> overdraft = engine.submit(Money.ofPesos(5000), 1, 2);
+        CompletableFuture<Integer> unknownUser = engine.submit(Money.ofPesos(10), 1, 99);
+        CompletableFuture<Integer> sameUser = engine.submit(Money.ofPesos(10), 2, 2);
+        engine.shutdown();
+
+        for (CompletableFuture<Integer> result : results) {
+            assertEquals(0, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, overdraft.get(5, TimeUnit.SECONDS));
+        assertEquals(2, unknownUser.get(5, TimeUnit.SECONDS));
+        assertEquals(3, sameUser.get(5, TimeUnit.SECONDS));
+        assertEquals(201, engine.getCommittedCount());
+        assertTrue(engine.getBatchCount() < 201);
+
+        // Each user sent and received the same total, so balances are unchanged
+        for (int userId = 1; userId <= 3; userId++) {
+            assertEquals(Money.ofPesos(1000), BalanceService.checkBalance(userId).getAmount());
+        }
+        assertEquals(4, engine.submit(Money.ofPesos(10), 1, 2).get());
+    }
+
+    @Test
+    @DisplayName("Test every transfer engine future completes across failures and a concurrent shutdown")
+    void testTransferEngineFuturesComplete() throws Exception {
+        // A missing URL makes borrowing a connection throw a NullPointerException on the writer thread
+        DatabaseConnection.configure(null, null, null);
+        TransferEngine failing = new TransferEngine(1, 16, 50, 5);
+        failing.start();
+        try {
+            assertEquals(4, failing.submit(Money.ofPesos(10), 1, 2).get(5, TimeUnit.SECONDS));
+        } finally {
+            failing.shutdown();
+            database.install();
+        }
+
+        TransferEngine engine = new TransferEngine(2, 4, 50, 5);
+        engine.start();
+        List<CompletableFuture<Integer>> results = Collections.synchronizedList(new ArrayList<>());
+        Thread[] submitters = new Thread[4];
+        for (int t = 0; t < submitters.length; t++) {
+            submitters[t] = new Thread(() -> {
+                for (int i = 0; i < 50; i++) {
+                    results.add(engine.submit(Money.ofPesos(1), 1, 2));
+                }
+            });
+            submitters[t].start();
+        }
+        engine.shutdown();
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+
+        int committed = 0;
+        for (CompletableFuture<Integer> result : results) {
+            int code = result.get(5, TimeUnit.SECONDS);
+            assertTrue(code == 0 || code == 4, "code " + code);
+            if (code == 0) {
+                committed++;
+            }
+        }
+        assertEquals(200, results.size());
+        assertEquals(committed, engine.getCommittedCount());
+        BalanceService.getCache().clear();
+        assertEquals(Money.ofPesos(1000 - committed), BalanceService.checkBalance(1).getAmount());
+    }
+
+    @Test
+    @DisplayName("Test batch cash-in reports a result per item across chunks")
+    void testCashinBatch() {
+        List<CashinItem> items = Arrays.asList(
+                new CashinItem(1, Money.ofPesos(100)),
+                new CashinItem(99, Money.ofPesos(100)),   // Unknown user
+                new CashinItem(2, Money.ZERO),            // Invalid amount
+                new CashinItem(1, Money.parse("0.50")),   // Same user twice in one chunk
+                new CashinItem(3, Money.ofPesos(25)));
+
+        List<CashinResult> results = TransactionService.cashinBatch(items, 2);
+
+        assertEquals(Arrays.asList(CashinResult.SUCCESS, CashinResult.INVALID_USER, CashinResult.INVALID_AMOUNT,
+                CashinResult.SUCCESS, CashinResult.SUCCESS), results);
+        assertEquals(Money.parse("1100.50"), BalanceService.checkBalance(1).getAmount());
+        assertEquals(Money.ofPesos(1000), BalanceService.checkBalance(2).getAmount());
+        assertEquals(Money.ofPesos(1025), BalanceService.checkBalance(3).getAmount());
+        assertEquals(4, TransactionService.viewUserAll(1).size());
+    }
+
+    @Test
+    @DisplayName("Test a failed batch cash-in chunk keeps the results of invalid items")
+    void testCashinBatchFailureKeepsInvalidResults() throws SQLException {
+        List<CashinItem> items = Arrays.asList(
+                new CashinItem(1, Money.ofPesos(100)),
+                new CashinItem(2, Money.ZERO),            // Invalid amount
+                new CashinItem(99, Money.ofPesos(100)),   // Unknown user
+                new CashinItem(3, Money.ofPesos(25)));
+
+        // Without the summary table the last step of each chunk fails
+        try (Connection conn = database.open();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE account_summary RENAME TO account_summary_hidden");
+        }
+        List<CashinResult> results;
+        try {
+            results = TransactionService.cashinBatch(items, 10);
+        } finally {
+            try (Connection conn = database.open();
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("ALTER TABLE account_summary_hidden RENAME TO account_summary");
+            }
+        }
+
+        assertEquals(Arrays.asList(CashinResult.DATABASE_ERROR, CashinResult.INVALID_AMOUNT,
+                CashinResult.INVALID_USER, CashinResult.DATABASE_ERROR), results);
+        assertEquals(Money.ofPesos(1000), BalanceService.checkBalance(1).getAmount());
+        assertEquals(Money.ofPesos(1000), BalanceService.checkBalance(3).getAmount());
+    }
+
+    @Test
+    @DisplayName("Test account summaries follow every write and match a rebuild from the history")
+    void testAccountSummary() {
+        assertTrue(TransactionService.cashin(Money.ofPesos(50), 1));
+        assertEquals(0, TransactionService.cashTransfer(Money.ofPesos(300), 1, 2));
+        assertEquals(0, TransactionService.cashTransfer(Money.ofPesos(100), 3, 1));
+        TransactionService.cashinBatch(Arrays.asList(
+                new CashinItem(1, Money.ofPesos(5)), new CashinItem(1, Money.ofPesos(5))));
+
+        AccountSummary summary = SummaryService.getSummary(1);
+        assertEquals(5, summary.getCashInCount());             // Two seeded, one single, two batched
+        assertEquals(Money.ofPesos(1060), summary.getCashInTotal());
+        assertEquals(Money.ofPesos(300), summary.getSentTotal());
+        assertEquals(Money.ofPesos(100), summary.getReceivedTotal());
+        assertEquals(7, summary.getTransactionCount());
+        assertEquals(BalanceService.checkBalance(1).getAmount(), summary.getRunningBalance());
+        assertEquals(1, SummaryService.getSummary(2).getReceivedCount());
+        assertEquals(0, SummaryService.getSummary(99).getTransactionCount());
+
+        assertEquals(3, SummaryService.rebuild(2));
+
+        AccountSummary rebuilt = SummaryService.getSummary(1);
+        assertEquals(summary.getCashInTotal(), rebuilt.getCashInTotal());
+        assertEquals(summary.getTransactionCount(), rebuilt.getTransactionCount());
+        assertEquals(summary.getRunningBalance(), rebuilt.getRunningBalance());
+        assertEquals(summary.getCashInThisMonth(), rebuilt.getCashInThisMonth());
+    }
+
+    @Test
+    @DisplayName("Test reconciliation finds balances that drifted from their transactions")
+    void testReconciliation() throws SQLException {
+        assertEquals(0, TransactionService.cashTransfer(Money.ofPesos(300), 1, 2));
+
+        ReconciliationReport clean = ReconciliationService.reconcile(2, 1);
+        assertTrue(clean.isConsistent());
+        assertEquals(3, clean.getAccountsChecked());
+        assertEquals(8, clean.getTransactionRows());
+        assertEquals(3, clean.getPartitions());
+
+        try (Connection conn = database.open();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE balance SET amount = amount + 5 WHERE user_id = 2");
+            stmt.executeUpdate("DELETE FROM balance WHERE user_id = 3");
+        }
+
+        ReconciliationReport drifted = ReconciliationService.reconcile(2, 2);
+        assertFalse(drifted.isConsistent());
+        assertEquals(2, drifted.getMismatchCount());
+        ReconciliationReport.Mismatch first = drifted.getMismatches().get(0);
+        assertEquals(2, first.getUserId());
+        assertEquals(Money.ofPesos(1305), first.getBalance());
+        assertEquals(Money.ofPesos(1300), first.getLedgerTotal());
+        assertEquals(Money.ofPesos(5), first.getDifference());
+        assertNull(drifted.getMismatches().get(1).getBalance());
+    }
+
+    @Test
+    @DisplayName("Test CSV and binary exports with filters and parallel parts")
+    void testExport(@TempDir Path dir) throws IOException {
+        assertEquals(0, TransactionService.cashTransfer(Money.ofPesos(300), 1, 2));
+
+        Path csv = dir.resolve("all.csv");
+        assertEquals(8, ExportService.export(csv, ExportFormat.CSV, ExportFilter.all(), 2));
+        List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        assertEquals(9, lines.size());
+        assertEquals("id,amount,name,kind,account_id,date,transfer_to,transfer_from", lines.get(0));
+        assertTrue(lines.get(lines.size() - 1).contains(",3,"), "Parts are appended in account order");
+        assertFalse(Files.exists(dir.resolve("all.csv.part0")));
+
+        Path binary = dir.resolve("account1.bin");
+        assertEquals(3, ExportService.export(binary, ExportFormat.BINARY, ExportFilter.account(1), 4));
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(binary))) {
+            byte[] magic = new byte[4];
+            in.readFully(magic);
+            assertEquals("GCTX", new String(magic, StandardCharsets.US_ASCII));
+            assertEquals(1, in.readShort());
+
+            long centavos = 0;
+            for (int i = 0; i < 3; i++) {
+                in.readInt();
+                centavos += in.readLong();
+                in.readByte();
+                assertEquals(1, in.readInt());
+                in.readLong();
+                in.readInt();
+                in.readInt();
+                in.skipNBytes(in.readShort());
+            }
+            assertEquals(-1, in.read());
+            assertEquals(Money.ofPesos(700), Money.ofCentavos(centavos));
+        }
+
+        LocalDateTime tomorrow = LocalDate.now().plusDays(1).atStartOfDay();
+        assertEquals(0, ExportService.export(dir.resolve("none.csv"), ExportFormat.CSV,
+                new ExportFilter(tomorrow, null, null, null), 1));
+        assertEquals(1, Files.readAllLines(dir.resolve("none.csv")).size());
+    }
+
+    @Test
+    @DisplayName("Test service metrics count outcomes and attribute SQL time")
+    void testServiceMetrics() {
+        ServiceMetric transfers = Metrics.get("TransactionService.cashTransfer");
+        long ok = transfers.getCount(0);
+        long insufficient = transfers.getCount(1);
+        long sqlSamples = transfers.getSqlLatency().getCount();
+
+        assertEquals(0, TransactionService.cashTransfer(Money.ofPesos(300), 1, 2));
+        assertEquals(1, TransactionService.cashTransfer(Money.ofPesos(5000), 1, 2));
+
+        assertEquals(ok + 1, transfers.getCount(0));
+        assertEquals(insufficient + 1, transfers.getCount(1));
+        assertEquals(sqlSamples + 2, transfers.getSqlLatency().getCount());
+        assertTrue(transfers.getSqlLatency().getMaxNanos() > 0);
+
+        ServiceMetric balances = Metrics.get("BalanceService.checkBalance");
+        long misses = balances.getCount(1);
+        long hits = balances.getCount(0);
+        BalanceService.checkBalance(3);
+        BalanceService.checkBalance(3);
+        assertEquals(misses + 1, balances.getCount(1));
+        assertEquals(hits + 1, balances.getCount(0));
+    }
+
+    @Test
+    @DisplayName("Test history pages walk the whole history exactly once")
+    void testHistoryPaging() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(TransactionService.cashin(Money.ofPesos(1), 1));
+        }
+
+        int seen = 0;
+        TransactionPage page = TransactionService.viewUserPage(1, null, 3);
+        while (true) {
+            seen += page.getTransactions().size();
+            if (!page.hasMore()) {
+                break;
+            }
+            page = TransactionService.viewUserPage(1, page.getNextCursor(), 3);
+        }
+
+        assertEquals(7, seen);
+        assertEquals(7, TransactionService.viewUserAll(1).size());
+        assertEquals(7, TransactionService.streamUserAll(1, t -> { }));
+    }
+
+    @Test
+    @DisplayName("Test registration and login against the database")
+    void testRegisterAndLogin() {
+        UserAuthentication auth = new UserAuthentication();
+
+        int userId = auth.register(new Users("New User", "new@example.com", "09170000001", "4321"));
+
+        assertTrue(userId > 3);
+        assertEquals(userId, auth.login("new@example.com", "4321"));
+        assertEquals(userId, auth.login("09170000001", "4321"));
+        assertEquals(1, auth.login(EmbeddedDatabase.email(1), EmbeddedDatabase.SEED_PIN));
+        assertEquals(-1, auth.login("new@example.com", "0000"));
+
+        assertFalse(auth.changePin(userId, "0000", "5678"));
+        assertTrue(auth.changePin(userId, "4321", "5678"));
+        assertEquals(-1, auth.login("new@example.com", "4321"));
+        assertEquals(userId, auth.login("new@example.com", "5678"));
+    }
+
+    @Test
+    @DisplayName("Test the user index answers existence checks and remembers unknown users")
+    void testUserIndex() {
+        UserIndex index = UserService.getIndex();
+        assertEquals(3, UserService.load());
+        assertEquals(3, index.size());
+
+        long misses = index.getMissCount();
+        assertTrue(TransactionService.cashin(Money.ofPesos(10), 1));
+        assertEquals(0, TransactionService.cashTransfer(Money.ofPesos(10), 1, 2));
+        assertEquals(misses, index.getMissCount());
+
+        // The first lookup of an unknown user queries, the second is answered from the index
+        assertFalse(TransactionService.cashin(Money.ofPesos(10), 99));
+        assertEquals(misses + 1, index.getMissCount());
+        long missingHits = index.getMissingHitCount();
+        assertEquals(2, TransactionService.cashTransfer(Money.ofPesos(10), 1, 99));
+        assertEquals(misses + 1, index.getMissCount());
+        assertEquals(missingHits + 1, index.getMissingHitCount());
+
+        int userId = new UserAuthentication().register(new Users("New User", "new@example.com", "09170000002", "4321"));
+        assertTrue(index.contains(userId));
+        assertTrue(TransactionService.cashin(Money.ofPesos(10), userId));
+    }
+}
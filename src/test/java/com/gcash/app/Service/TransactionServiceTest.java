@@ -1,19 +1,28 @@
 package com.gcash.app.Service;
 
+import com.gcash.app.Model.Money;
+import com.gcash.app.Model.TransactionKind;
+import com.gcash.app.Model.TransactionPage;
 import com.gcash.app.Model.Transactions;
+import com.gcash.app.util.AppConfig;
 import com.gcash.app.util.DatabaseConnection;
+import com.gcash.app.util.SqlStatements;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,11 +34,9 @@ public class TransactionServiceTest {
     @Mock
     private Connection connection;
     @Mock
-    private PreparedStatement checkUserPs, checkBalancePs, updateBalancePs, insertTransactionPs, checkUsersPs, checkRecipientPs, createBalancePs, senderTransactionPs, recipientTransactionPs;
+    private PreparedStatement checkUserPs, checkBalancePs, updateBalancePs, insertTransactionPs, checkUsersPs, checkRecipientPs, createBalancePs, senderTransactionPs, recipientTransactionPs, summaryPs;
     @Mock
     private ResultSet userRs, balanceRs, generatedKeysRs, usersRs, recipientRs;
-    @Mock
-    private Statement statement;
 
     private MockedStatic<DatabaseConnection> mockedDbConnection;
 
@@ -37,7 +44,9 @@ public class TransactionServiceTest {
     void setUp() throws SQLException {
         mockedDbConnection = Mockito.mockStatic(DatabaseConnection.class);
         mockedDbConnection.when(DatabaseConnection::getConnection).thenReturn(connection);
-        // Removed statement stub from here
+        mockedDbConnection.when(() -> DatabaseConnection.getReadConnection(anyInt())).thenReturn(connection);
+        mockedDbConnection.when(DatabaseConnection::getReadConnection).thenReturn(connection);
+        UserService.getIndex().clear();
     }
 
     @AfterEach
@@ -60,14 +69,18 @@ public class TransactionServiceTest {
         when(connection.prepareStatement("UPDATE balance SET amount = amount + ? WHERE user_id = ?")).thenReturn(updateBalancePs);
         when(updateBalancePs.executeUpdate()).thenReturn(1);
 
-        when(connection.prepareStatement("INSERT INTO transaction (amount, name, account_id, date) VALUES (?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)).thenReturn(insertTransactionPs);
+        when(connection.prepareStatement(SqlStatements.TRANSACTION_INSERT, Statement.RETURN_GENERATED_KEYS)).thenReturn(insertTransactionPs);
         when(insertTransactionPs.executeUpdate()).thenReturn(1);
 
+        when(connection.prepareStatement(SqlStatements.SUMMARY_APPLY)).thenReturn(summaryPs);
+
         // When
-        boolean result = TransactionService.cashin(100.0, 1);
+        boolean result = TransactionService.cashin(Money.ofPesos(100), 1);
 
         // Then
         assertTrue(result);
+        verify(summaryPs).setInt(2, 1); // One cash-in counted
+        verify(summaryPs).executeUpdate();
         verify(connection).commit();
     }
 
@@ -78,32 +91,114 @@ public class TransactionServiceTest {
         when(connection.prepareStatement("SELECT id FROM users WHERE id IN (?, ?)")).thenReturn(checkUsersPs);
         when(checkUsersPs.executeQuery()).thenReturn(usersRs);
         when(usersRs.next()).thenReturn(true, true, false); // Both users exist
+        when(usersRs.getInt("id")).thenReturn(1, 2);
 
-        when(connection.prepareStatement("SELECT amount FROM balance WHERE user_id = ?")).thenReturn(checkBalancePs);
-        when(checkBalancePs.executeQuery()).thenReturn(balanceRs);
-        when(balanceRs.next()).thenReturn(true); // Sender has balance
-        when(balanceRs.getDouble("amount")).thenReturn(1000.0);
+        when(connection.prepareStatement("UPDATE balance SET amount = amount - ? WHERE user_id = ? AND amount >= ?")).thenReturn(updateBalancePs);
+        when(updateBalancePs.executeUpdate()).thenReturn(1); // Sender has enough balance
+
+        when(connection.prepareStatement("INSERT INTO balance (amount, user_id) VALUES (?, ?) " +
+                "ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount)")).thenReturn(createBalancePs);
+        when(createBalancePs.executeUpdate()).thenReturn(1); // Recipient balance record created
+
+        when(connection.prepareStatement(SqlStatements.TRANSACTION_INSERT_TRANSFER)).thenReturn(senderTransactionPs);
+        when(senderTransactionPs.executeBatch()).thenReturn(new int[]{1, 1});
+
+        when(connection.prepareStatement(SqlStatements.SUMMARY_APPLY)).thenReturn(summaryPs);
+
+        // When
+        int result = TransactionService.cashTransfer(Money.ofPesos(500), 1, 2);
+
+        // Then
+        assertEquals(0, result);
+        verify(senderTransactionPs, times(2)).addBatch();
+        verify(summaryPs, times(2)).addBatch();
+        verify(connection).commit();
+    }
 
-        when(connection.prepareStatement("UPDATE balance SET amount = amount - ? WHERE user_id = ?")).thenReturn(updateBalancePs);
+    @Test
+    @DisplayName("Test if transfer is rejected when the guarded debit matches no row")
+    void testCashTransferInsufficientFunds() throws SQLException {
+        // Given
+        when(connection.prepareStatement("SELECT id FROM users WHERE id IN (?, ?)")).thenReturn(checkUsersPs);
+        when(checkUsersPs.executeQuery()).thenReturn(usersRs);
+        when(usersRs.next()).thenReturn(true, true, false); // Both users exist
+        when(usersRs.getInt("id")).thenReturn(1, 2);
+
+        when(connection.prepareStatement("UPDATE balance SET amount = amount - ? WHERE user_id = ? AND amount >= ?")).thenReturn(updateBalancePs);
+        when(updateBalancePs.executeUpdate()).thenReturn(0); // Balance lower than the amount
+
+        // When
+        int result = TransactionService.cashTransfer(Money.ofPesos(500), 1, 2);
+
+        // Then
+        assertEquals(1, result);
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+    }
+
+    @Test
+    @DisplayName("Test if balance rows are locked lowest user ID first")
+    void testCashTransferLocksInUserIdOrder() throws SQLException {
+        // Given
+        when(connection.prepareStatement("SELECT id FROM users WHERE id IN (?, ?)")).thenReturn(checkUsersPs);
+        when(checkUsersPs.executeQuery()).thenReturn(usersRs);
+        when(usersRs.next()).thenReturn(true, true, false);
+        when(usersRs.getInt("id")).thenReturn(1, 2);
+
+        when(connection.prepareStatement("UPDATE balance SET amount = amount - ? WHERE user_id = ? AND amount >= ?")).thenReturn(updateBalancePs);
         when(updateBalancePs.executeUpdate()).thenReturn(1);
 
-        when(connection.prepareStatement("SELECT id FROM balance WHERE user_id = ?")).thenReturn(checkRecipientPs);
-        when(checkRecipientPs.executeQuery()).thenReturn(recipientRs);
-        when(recipientRs.next()).thenReturn(false); // Recipient has no balance record
+        when(connection.prepareStatement("INSERT INTO balance (amount, user_id) VALUES (?, ?) " +
+                "ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount)")).thenReturn(createBalancePs);
+        when(createBalancePs.executeUpdate()).thenReturn(2);
 
-        when(connection.prepareStatement("INSERT INTO balance (amount, user_id) VALUES (?, ?)")).thenReturn(createBalancePs);
-        when(createBalancePs.executeUpdate()).thenReturn(1);
+        when(connection.prepareStatement(SqlStatements.TRANSACTION_INSERT_TRANSFER)).thenReturn(senderTransactionPs);
+        when(senderTransactionPs.executeBatch()).thenReturn(new int[]{1, 1});
 
-        when(connection.prepareStatement("INSERT INTO transaction (amount, name, account_id, date, transferToID, transferFromID) " +
-                "VALUES (?, ?, ?, ?, ?, ?)")).thenReturn(senderTransactionPs).thenReturn(recipientTransactionPs);
-        when(senderTransactionPs.executeUpdate()).thenReturn(1);
-        when(recipientTransactionPs.executeUpdate()).thenReturn(1);
+        when(connection.prepareStatement(SqlStatements.SUMMARY_APPLY)).thenReturn(summaryPs);
 
         // When
-        int result = TransactionService.cashTransfer(500.0, 1, 2);
+        int result = TransactionService.cashTransfer(Money.ofPesos(500), 2, 1);
 
         // Then
         assertEquals(0, result);
+        InOrder lockOrder = inOrder(createBalancePs, updateBalancePs);
+        lockOrder.verify(createBalancePs).executeUpdate(); // Recipient #1 first
+        lockOrder.verify(updateBalancePs).executeUpdate(); // Then sender #2
+    }
+
+    @Test
+    @DisplayName("Test if a deadlocked transfer is retried")
+    void testCashTransferRetriesDeadlock() throws SQLException {
+        // Given
+        when(connection.prepareStatement("SELECT id FROM users WHERE id IN (?, ?)")).thenReturn(checkUsersPs);
+        when(checkUsersPs.executeQuery()).thenReturn(usersRs);
+        when(usersRs.next()).thenReturn(true, true, false); // The retry finds both users in the index
+        when(usersRs.getInt("id")).thenReturn(1, 2);
+
+        when(connection.prepareStatement("UPDATE balance SET amount = amount - ? WHERE user_id = ? AND amount >= ?")).thenReturn(updateBalancePs);
+        when(updateBalancePs.executeUpdate())
+                .thenThrow(new SQLTransactionRollbackException("Deadlock found", "40001", 1213))
+                .thenReturn(1);
+
+        when(connection.prepareStatement("INSERT INTO balance (amount, user_id) VALUES (?, ?) " +
+                "ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount)")).thenReturn(createBalancePs);
+        when(createBalancePs.executeUpdate()).thenReturn(2);
+
+        when(connection.prepareStatement(SqlStatements.TRANSACTION_INSERT_TRANSFER)).thenReturn(senderTransactionPs);
+        when(senderTransactionPs.executeBatch()).thenReturn(new int[]{1, 1});
+
+        when(connection.prepareStatement(SqlStatements.SUMMARY_APPLY)).thenReturn(summaryPs);
+
+        long retriesBefore = TransactionService.getTransferRetryCount();
+
+        // When
+        int result = TransactionService.cashTransfer(Money.ofPesos(500), 1, 2);
+
+        // Then
+        assertEquals(0, result);
+        assertEquals(retriesBefore + 1, TransactionService.getTransferRetryCount());
+        verify(connection).rollback();
         verify(connection).commit();
     }
 
@@ -111,13 +206,13 @@ public class TransactionServiceTest {
     @DisplayName("Test if transactions are displayed properly")
     void testViewAllTransactions() throws SQLException {
         // Given
-        // Moved statement stub here
-        when(connection.createStatement()).thenReturn(statement);
-        when(statement.executeQuery(anyString())).thenReturn(userRs);
+        when(connection.prepareStatement(SqlStatements.TRANSACTION_ALL)).thenReturn(checkBalancePs);
+        when(checkBalancePs.executeQuery()).thenReturn(userRs);
         when(userRs.next()).thenReturn(true, true, false);
         when(userRs.getInt("id")).thenReturn(101, 102);
-        when(userRs.getDouble("amount")).thenReturn(500.0, -200.0);
+        when(userRs.getBigDecimal("amount")).thenReturn(new BigDecimal("500.00"), new BigDecimal("-200.00"));
         when(userRs.getString("name")).thenReturn("Cash In", "Transfer to User #2");
+        when(userRs.getInt("kind")).thenReturn(1, 2);
         when(userRs.getInt("account_id")).thenReturn(1);
         when(userRs.getTimestamp("date")).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
         when(userRs.getObject("transferToID", Integer.class)).thenReturn(null, 2);
@@ -131,7 +226,60 @@ public class TransactionServiceTest {
         assertEquals(2, transactions.size());
         assertEquals(101, transactions.get(0).getId());
         assertEquals("Cash In", transactions.get(0).getName());
+        assertEquals(Money.ofPesos(500), transactions.get(0).getAmount());
         assertEquals(102, transactions.get(1).getId());
         assertEquals("Transfer to User #2", transactions.get(1).getName());
+        assertEquals(TransactionKind.TRANSFER_OUT, transactions.get(1).getKind());
+    }
+
+    @Test
+    @DisplayName("Test if user history pages stop at the page size and return a cursor")
+    void testViewUserPage() throws SQLException {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        when(connection.prepareStatement(anyString())).thenReturn(checkBalancePs);
+        when(checkBalancePs.executeQuery()).thenReturn(userRs);
+        when(userRs.next()).thenReturn(true, true, true); // One row more than the page size
+        when(userRs.getInt("id")).thenReturn(103, 102);
+        when(userRs.getBigDecimal("amount")).thenReturn(new BigDecimal("50.00"));
+        when(userRs.getString("name")).thenReturn("Cash In");
+        when(userRs.getInt("kind")).thenReturn(1);
+        when(userRs.getInt("account_id")).thenReturn(1);
+        when(userRs.getTimestamp("date")).thenReturn(Timestamp.valueOf(now));
+
+        // When
+        TransactionPage page = TransactionService.viewUserPage(1, null, 2);
+
+        // Then
+        assertEquals(2, page.getTransactions().size());
+        assertTrue(page.hasMore());
+        assertEquals(102, page.getNextCursor().getId());
+        verify(checkBalancePs).setInt(2, 3);
+    }
+
+    @Test
+    @DisplayName("Test if streamed history is handed to the consumer row by row")
+    void testStreamUserAll() throws SQLException {
+        // Given
+        when(connection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenReturn(checkBalancePs);
+        when(checkBalancePs.executeQuery()).thenReturn(userRs);
+        when(userRs.next()).thenReturn(true, true, false);
+        when(userRs.getInt("id")).thenReturn(101, 102);
+        when(userRs.getBigDecimal("amount")).thenReturn(new BigDecimal("500.00"), new BigDecimal("-200.00"));
+        when(userRs.getString("name")).thenReturn("Cash In", "Transfer to User #2");
+        when(userRs.getInt("kind")).thenReturn(1, 2);
+        when(userRs.getInt("account_id")).thenReturn(1);
+        when(userRs.getTimestamp("date")).thenReturn(Timestamp.valueOf(LocalDateTime.now()));
+
+        List<Integer> seen = new ArrayList<>();
+
+        // When
+        long count = TransactionService.streamUserAll(1, t -> seen.add(t.getId()));
+
+        // Then
+        assertEquals(2, count);
+        assertEquals(Arrays.asList(101, 102), seen);
+        verify(checkBalancePs).setFetchSize(AppConfig.HISTORY_FETCH_SIZE);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package com.gcash.app.Service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserIndexTest {
+
+    @Test
+    @DisplayName("Added IDs are found across bitmap growth, others are not")
+    void testContains() {
+        UserIndex index = new UserIndex(1 << 20, 10, 60000);
+        for (int id = 1; id <= 1000; id += 3) {
+            index.add(id);
+        }
+        index.add(1 << 20);
+        index.add((1 << 20) + 1); // Above the bitmap limit, always looked up
+
+        assertTrue(index.contains(1));
+        assertTrue(index.contains(997));
+        assertTrue(index.contains(1 << 20));
+        assertFalse(index.contains(2));
+        assertFalse(index.contains((1 << 20) + 1));
+        assertFalse(index.contains(0));
+        assertEquals(335, index.size());
+    }
+
+    @Test
+    @DisplayName("An ID added while it was being looked up is not remembered as missing")
+    void testStaleMissingIsDiscarded() {
+        UserIndex index = new UserIndex(1000, 10, 60000);
+
+        long stamp = index.beginLookup();
+        index.add(5); // The user registers while the query runs
+        index.addMissing(stamp, 6);
+
+        assertFalse(index.isKnownMissing(6));
+        index.addMissing(index.beginLookup(), 6);
+        assertTrue(index.isKnownMissing(6));
+
+        index.add(6);
+        assertFalse(index.isKnownMissing(6));
+        assertTrue(index.contains(6));
+    }
+
+    @Test
+    @DisplayName("Missing IDs expire and their number stays bounded")
+    void testMissingTtlAndBound() {
+        UserIndex expiring = new UserIndex(1000, 10, 0);
+        expiring.addMissing(expiring.beginLookup(), 7);
+        assertFalse(expiring.isKnownMissing(7));
+
+        UserIndex bounded = new UserIndex(1000, 3, 60000);
+        for (int id = 100; id < 110; id++) {
+            bounded.addMissing(bounded.beginLookup(), id);
+        }
+        assertEquals(3, bounded.getMissingSize());
+        assertTrue(bounded.isKnownMissing(109));
+    }
+}
@@ -0,0 +1,421 @@
+package com.gcash.app.load;
+
+import com.gcash.app.Model.CheckBalance;
+import com.gcash.app.Model.Money;
+import com.gcash.app.Model.Users;
+import com.gcash.app.Security.UserAuthentication;
+import com.gcash.app.Service.BalanceService;
+import com.gcash.app.Service.TransactionService;
+import com.gcash.app.Service.UserService;
+import com.gcash.app.util.DatabaseConnection;
+import com.gcash.app.util.EmbeddedDatabase;
+import com.gcash.app.util.LatencyHistogram;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Soak test for the service layer: registers synthetic wallets through UserAuthentication,
+ * then runs a weighted mix of cash-in, transfer, balance and history calls from many threads
+ * against an embedded H2 database. Prints throughput, latency percentiles and result codes,
+ * then checks that no money was created or lost.
+ *
+ * <pre>
+ * mvn -Pload test-compile exec:exec -Dload.args="users=1000 threads=32 seconds=60 maxP99Ms=50"
+ * </pre>
+ *
+ * Options (key=value): users, threads, seconds, warmupSeconds, startingPesos, hotUsers
+ * (0 = pick users uniformly, k = send every transfer to one of the first k users),
+ * mix (e.g. cashin:10,transfer:50,balance:30,history:10), quiet (silence service output),
+ * and the release gates minOpsPerSecond and maxP99Ms. The exit status is 1 if a gate or
+ * the conservation check fails.
+ */
+public class LoadGenerator {
+
+    enum Operation {
+        CASHIN, TRANSFER, BALANCE, HISTORY
+    }
+
+    /**
+     * Run settings, parsed from key=value arguments
+     */
+    static final class Config {
+        int users = 1000;
+        int threads = 16;
+        int seconds = 30;
+        int warmupSeconds = 5;
+        long startingPesos = 10_000;
+        int hotUsers = 0;
+        boolean quiet = true;
+        double minOpsPerSecond = 0;
+        double maxP99Ms = 0;
+        final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+
+        Config() {
+            mix.put(Operation.CASHIN, 10);
+            mix.put(Operation.TRANSFER, 50);
+            mix.put(Operation.BALANCE, 30);
+            mix.put(Operation.HISTORY, 10);
+        }
+
+        static Config parse(String[] args) {
+            Config config = new Config();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq <= 0) {
+                    throw new IllegalArgumentException("Expected key=value but got '" + arg + "'");
+                }
+                String key = arg.substring(0, eq);
+                String value = arg.substring(eq + 1);
+
+                switch (key) {
+                    case "users":
+                        config.users = Integer.parseInt(value);
+                        break;
+                    case "threads":
+                        config.threads = Integer.parseInt(value);
+                        break;
+                    case "seconds":
+                        config.seconds = Integer.parseInt(value);
+                        break;
+                    case "warmupSeconds":
+                        config.warmupSeconds = Integer.parseInt(value);
+                        break;
+                    case "startingPesos":
+                        config.startingPesos = Long.parseLong(value);
+                        break;
+                    case "hotUsers":
+                        config.hotUsers = Integer.parseInt(value);
+                        break;
+                    case "quiet":
+                        config.quiet = Boolean.parseBoolean(value);
+                        break;
+                    case "minOpsPerSecond":
+                        config.minOpsPerSecond = Double.parseDouble(value);
+                        break;
+                    case "maxP99Ms":
+                        config.maxP99Ms = Double.parseDouble(value);
+                        break;
+                    case "mix":
+                        config.mix.clear();
+                        for (String part : value.split(",")) {
+                            String[] weight = part.split(":");
+                            config.mix.put(Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)),
+                                    Integer.parseInt(weight[1].trim()));
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option '" + key + "'");
+                }
+            }
+
+            if (config.users < 2 || config.threads < 1 || config.seconds < 1) {
+                throw new IllegalArgumentException("Need at least 2 users, 1 thread and 1 second");
+            }
+            return config;
+        }
+    }
+
+    /**
+     * Latency and results of one operation type
+     */
+    static final class OperationStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        // Index = result code; cash-in and balance use 0 = ok, 1 = failed
+        final AtomicLongArray codes = new AtomicLongArray(5);
+
+        void reset() {
+            latency.reset();
+            for (int i = 0; i < codes.length(); i++) {
+                codes.set(i, 0);
+            }
+        }
+    }
+
+    /**
+     * Outcome of a run
+     */
+    static final class Report {
+        final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        double elapsedSeconds;
+        Money expectedTotal;
+        Money balanceTotal;
+        Money ledgerTotal;
+        int negativeBalances;
+
+        long totalOperations() {
+            long total = 0;
+            for (OperationStats s : stats.values()) {
+                total += s.latency.getCount();
+            }
+            return total;
+        }
+
+        double opsPerSecond() {
+            return totalOperations() / elapsedSeconds;
+        }
+
+        long worstP99Nanos() {
+            long worst = 0;
+            for (OperationStats s : stats.values()) {
+                worst = Math.max(worst, s.latency.getPercentileNanos(99));
+            }
+            return worst;
+        }
+
+        /**
+         * Balances add up to everything cashed in, the ledger rows agree, and nobody is overdrawn
+         */
+        boolean isConserved() {
+            return expectedTotal.equals(balanceTotal) && balanceTotal.equals(ledgerTotal) && negativeBalances == 0;
+        }
+
+        void print(PrintStream out) {
+            out.printf("%-9s %10s %10s %10s %10s %10s %10s %10s  %s%n",
+                    "operation", "count", "ops/s", "mean(us)", "p50(us)", "p99(us)", "p99.9(us)", "max(us)", "codes");
+            for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+                LatencyHistogram latency = entry.getValue().latency;
+                out.printf("%-9s %10d %10.0f %10.0f %10d %10d %10d %10d  %s%n",
+                        entry.getKey().name().toLowerCase(Locale.ROOT),
+                        latency.getCount(),
+                        latency.getCount() / elapsedSeconds,
+                        latency.getMeanNanos() / 1000,
+                        latency.getPercentileNanos(50) / 1000,
+                        latency.getPercentileNanos(99) / 1000,
+                        latency.getPercentileNanos(99.9) / 1000,
+                        latency.getMaxNanos() / 1000,
+                        codes(entry.getValue().codes));
+            }
+            out.printf("total     %10d %10.0f over %.1fs%n", totalOperations(), opsPerSecond(), elapsedSeconds);
+            out.println("conservation: expected=" + expectedTotal + " balances=" + balanceTotal
+                    + " ledger=" + ledgerTotal + " negative=" + negativeBalances
+                    + (isConserved() ? " OK" : " FAILED"));
+        }
+
+        private static String codes(AtomicLongArray codes) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < codes.length(); i++) {
+                if (codes.get(i) > 0) {
+                    sb.append(sb.length() == 0 ? "" : " ").append(i).append('=').append(codes.get(i));
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    private final Config config;
+    private final Operation[] schedule;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final LongAdder cashedInCentavos = new LongAdder();
+    private final UserAuthentication auth = new UserAuthentication();
+    private volatile boolean recording;
+
+    LoadGenerator(Config config) {
+        this.config = config;
+
+        // Expand the weights into a table so picking an operation is one random index
+        List<Operation> table = new ArrayList<>();
+        for (Map.Entry<Operation, Integer> weight : config.mix.entrySet()) {
+            for (int i = 0; i < weight.getValue(); i++) {
+                table.add(weight.getKey());
+            }
+            stats.put(weight.getKey(), new OperationStats());
+        }
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("The operation mix is empty");
+        }
+        this.schedule = table.toArray(new Operation[0]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.parse(args);
+        PrintStream out = System.out;
+
+        Report report = new LoadGenerator(config).run();
+        report.print(out);
+
+        boolean passed = report.isConserved();
+        if (config.minOpsPerSecond > 0 && report.opsPerSecond() < config.minOpsPerSecond) {
+            out.printf("GATE FAILED: %.0f ops/s is below %.0f%n", report.opsPerSecond(), config.minOpsPerSecond);
+            passed = false;
+        }
+        if (config.maxP99Ms > 0 && report.worstP99Nanos() > config.maxP99Ms * 1_000_000) {
+            out.printf("GATE FAILED: p99 of %.1fms is above %.1fms%n",
+                    report.worstP99Nanos() / 1e6, config.maxP99Ms);
+            passed = false;
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Set up a fresh database, register the users, run the mix and check the totals
+     * @return The report
+     */
+    Report run() throws Exception {
+        EmbeddedDatabase database = EmbeddedDatabase.create("load-" + System.nanoTime()).install();
+        BalanceService.getCache().clear();
+        UserService.getIndex().clear();
+
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        if (config.quiet) {
+            PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+            System.setOut(discard);
+            System.setErr(discard);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(config.threads);
+        Report report = new Report();
+        try {
+            registerUsers(executor);
+
+            recording = false;
+            runFor(executor, config.warmupSeconds);
+
+            for (OperationStats s : stats.values()) {
+                s.reset();
+            }
+            recording = true;
+            long start = System.nanoTime();
+            runFor(executor, config.seconds);
+            report.elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        } finally {
+            executor.shutdownNow();
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+        }
+
+        report.stats.putAll(stats);
+        checkConservation(database, report);
+        DatabaseConnection.shutdown();
+        return report;
+    }
+
+    private void registerUsers(ExecutorService executor) throws Exception {
+        List<Future<?>> registrations = new ArrayList<>();
+        for (int t = 0; t < config.threads; t++) {
+            int first = t + 1;
+            registrations.add(executor.submit(() -> {
+                for (int i = first; i <= config.users; i += config.threads) {
+                    int userId = auth.register(new Users("Load User " + i, EmbeddedDatabase.email(i),
+                            EmbeddedDatabase.number(i), EmbeddedDatabase.SEED_PIN));
+                    if (userId <= 0) {
+                        throw new IllegalStateException("Could not register user " + i);
+                    }
+                    Money opening = Money.ofPesos(config.startingPesos);
+                    if (TransactionService.cashin(opening, userId)) {
+                        cashedInCentavos.add(opening.getCentavos());
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> registration : registrations) {
+            registration.get();
+        }
+    }
+
+    private void runFor(ExecutorService executor, int seconds) throws Exception {
+        if (seconds <= 0) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < config.threads; t++) {
+            workers.add(executor.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    runOne();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+    }
+
+    /**
+     * Run one randomly chosen operation and record its latency and result
+     */
+    private void runOne() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation operation = schedule[random.nextInt(schedule.length)];
+        int userId = random.nextInt(config.users) + 1;
+        int code;
+
+        long start = System.nanoTime();
+        switch (operation) {
+            case CASHIN: {
+                Money amount = Money.ofCentavos(random.nextLong(100, 100_000));
+                boolean ok = TransactionService.cashin(amount, userId);
+                if (ok) {
+                    cashedInCentavos.add(amount.getCentavos());
+                }
+                code = ok ? 0 : 1;
+                break;
+            }
+            case TRANSFER: {
+                int to = config.hotUsers > 0
+                        ? random.nextInt(Math.min(config.hotUsers, config.users)) + 1
+                        : random.nextInt(config.users) + 1;
+                Money amount = Money.ofCentavos(random.nextLong(100, 500_000));
+                code = TransactionService.cashTransfer(amount, userId, to);
+                break;
+            }
+            case BALANCE: {
+                CheckBalance balance = BalanceService.checkBalance(userId);
+                code = balance != null ? 0 : 1;
+                break;
+            }
+            case HISTORY:
+                TransactionService.viewUserAll(userId);
+                code = 0;
+                break;
+            default:
+                throw new IllegalStateException("Unknown operation " + operation);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (recording) {
+            OperationStats s = stats.get(operation);
+            s.latency.record(elapsed);
+            s.codes.incrementAndGet(code);
+        }
+    }
+
+    private void checkConservation(EmbeddedDatabase database, Report report) throws SQLException {
+        report.expectedTotal = Money.ofCentavos(cashedInCentavos.sum());
+
+        try (Connection conn = database.open();
+             Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT COALESCE(SUM(amount), 0), SUM(CASE WHEN amount < 0 THEN 1 ELSE 0 END) FROM balance")) {
+                rs.next();
+                report.balanceTotal = Money.fromBigDecimal(rs.getBigDecimal(1));
+                report.negativeBalances = rs.getInt(2);
+            }
+            // Cash-in rows are positive and the two rows of a transfer cancel out
+            try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(SUM(amount), 0) FROM transaction")) {
+                rs.next();
+                report.ledgerTotal = Money.fromBigDecimal(rs.getBigDecimal(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.gcash.app.load;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Short run of the load generator, so the harness itself stays working
+ */
+public class LoadGeneratorTest {
+
+    @Test
+    @DisplayName("A short mixed run keeps the ledger balanced")
+    void testShortRunConservesMoney() throws Exception {
+        LoadGenerator.Config config = LoadGenerator.Config.parse(new String[]{
+                "users=20", "threads=4", "seconds=1", "warmupSeconds=0", "hotUsers=3"});
+
+        LoadGenerator.Report report = new LoadGenerator(config).run();
+
+        assertTrue(report.totalOperations() > 0);
+        assertTrue(report.isConserved(), "expected=" + report.expectedTotal + " balances=" + report.balanceTotal
+                + " ledger=" + report.ledgerTotal + " negative=" + report.negativeBalances);
+        assertEquals(0, report.stats.get(LoadGenerator.Operation.TRANSFER).codes.get(4));
+    }
+
+    @Test
+    @DisplayName("Options are validated")
+    void testParse() {
+        LoadGenerator.Config config = LoadGenerator.Config.parse(new String[]{"mix=transfer:3,balance:1"});
+        assertEquals(2, config.mix.size());
+        assertEquals(3, config.mix.get(LoadGenerator.Operation.TRANSFER));
+
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.Config.parse(new String[]{"bogus=1"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.Config.parse(new String[]{"users=1"}));
+    }
+}
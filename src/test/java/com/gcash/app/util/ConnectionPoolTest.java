@@ -0,0 +1,188 @@
+package com.gcash.app.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ConnectionPoolTest {
+
+    @Mock
+    private Connection firstPhysical, secondPhysical;
+
+    @Mock
+    private PreparedStatement firstStatement, secondStatement;
+
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Closing a pooled connection returns it for reuse")
+    void testConnectionIsReused() throws SQLException {
+        AtomicInteger opened = new AtomicInteger();
+        pool = new ConnectionPool(() -> {
+            opened.incrementAndGet();
+            return firstPhysical;
+        }, 0, 2, 1000, 60000, 0, 60000);
+
+        Connection conn = pool.borrow();
+        assertEquals(1, pool.getActiveCount());
+        conn.close();
+        assertTrue(conn.isClosed());
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+
+        pool.borrow().close();
+
+        assertEquals(1, opened.get());
+        assertEquals(2, pool.getBorrowLatency().getCount());
+        verify(firstPhysical, never()).close();
+    }
+
+    @Test
+    @DisplayName("Borrowing from an exhausted pool times out")
+    void testBorrowTimesOut() throws SQLException {
+        pool = new ConnectionPool(() -> firstPhysical, 0, 1, 50, 60000, 0, 60000);
+
+        Connection held = pool.borrow();
+        assertThrows(SQLException.class, () -> pool.borrow());
+        assertEquals(1, pool.getTimeoutCount());
+
+        held.close();
+        assertNotNull(pool.borrow());
+    }
+
+    @Test
+    @DisplayName("Invalid idle connections are replaced on borrow")
+    void testInvalidConnectionIsReplaced() throws SQLException {
+        Connection[] physicals = {firstPhysical, secondPhysical};
+        AtomicInteger opened = new AtomicInteger();
+        pool = new ConnectionPool(() -> physicals[opened.getAndIncrement()], 0, 1, 1000, 60000, 0, 0);
+
+        pool.borrow().close();
+        when(firstPhysical.isValid(anyInt())).thenReturn(false);
+
+        Connection conn = pool.borrow();
+        conn.getAutoCommit();
+
+        verify(firstPhysical).close();
+        verify(secondPhysical).getAutoCommit();
+        assertEquals(1, pool.getTotalCount());
+    }
+
+    @Test
+    @DisplayName("Maintenance evicts idle connections down to the minimum size")
+    void testIdleEviction() throws SQLException {
+        Connection[] physicals = {firstPhysical, secondPhysical};
+        AtomicInteger opened = new AtomicInteger();
+        pool = new ConnectionPool(() -> physicals[opened.getAndIncrement()], 1, 2, 1000, 0, 0, 60000);
+
+        Connection a = pool.borrow();
+        Connection b = pool.borrow();
+        a.close();
+        b.close();
+        assertEquals(2, pool.getIdleCount());
+
+        pool.runMaintenance();
+
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, pool.getDestroyedCount());
+    }
+
+    @Test
+    @DisplayName("Prepared statements are reused across borrows of the same connection")
+    void testStatementCacheHit() throws SQLException {
+        pool = new ConnectionPool(() -> firstPhysical, 0, 1, 1000, 60000, 0, 60000, 8);
+        when(firstPhysical.prepareStatement(SqlStatements.USER_EXISTS)).thenReturn(firstStatement);
+
+        for (int i = 0; i < 4; i++) {
+            try (Connection conn = pool.borrow();
+                 PreparedStatement pstmt = conn.prepareStatement(SqlStatements.USER_EXISTS)) {
+                pstmt.setInt(1, i + 1);
+                assertSame(conn, pstmt.getConnection());
+            }
+        }
+
+        verify(firstPhysical, times(1)).prepareStatement(SqlStatements.USER_EXISTS);
+        verify(firstStatement, times(4)).clearParameters();
+        verify(firstStatement, never()).close();
+        assertEquals(3, pool.getStatementCacheHitCount());
+        assertEquals(1, pool.getStatementCacheMissCount());
+        assertEquals(0.75, pool.getStatementCacheHitRate(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Statements with changed settings are closed instead of cached")
+    void testStatefulStatementIsNotReused() throws SQLException {
+        pool = new ConnectionPool(() -> firstPhysical, 0, 1, 1000, 60000, 0, 60000, 8);
+        when(firstPhysical.prepareStatement(SqlStatements.TRANSACTION_BY_ACCOUNT))
+                .thenReturn(firstStatement, secondStatement);
+
+        try (Connection conn = pool.borrow()) {
+            PreparedStatement pstmt = conn.prepareStatement(SqlStatements.TRANSACTION_BY_ACCOUNT);
+            pstmt.setFetchSize(500);
+            pstmt.close();
+
+            conn.prepareStatement(SqlStatements.TRANSACTION_BY_ACCOUNT).close();
+        }
+
+        verify(firstPhysical, times(2)).prepareStatement(SqlStatements.TRANSACTION_BY_ACCOUNT);
+        verify(firstStatement).close();
+        verify(secondStatement, never()).close();
+        assertEquals(0, pool.getStatementCacheHitCount());
+    }
+
+    @Test
+    @DisplayName("Statements left open are reset when the connection is returned")
+    void testOpenStatementIsResetOnReturn() throws SQLException {
+        pool = new ConnectionPool(() -> firstPhysical, 0, 1, 1000, 60000, 0, 60000, 8);
+        when(firstPhysical.prepareStatement(SqlStatements.USER_EXISTS)).thenReturn(firstStatement);
+
+        Connection conn = pool.borrow();
+        PreparedStatement leaked = conn.prepareStatement(SqlStatements.USER_EXISTS);
+        conn.close();
+
+        verify(firstStatement).clearParameters();
+        assertTrue(leaked.isClosed());
+        assertThrows(SQLException.class, () -> leaked.setInt(1, 1));
+
+        try (Connection next = pool.borrow()) {
+            next.prepareStatement(SqlStatements.USER_EXISTS).close();
+        }
+        assertEquals(1, pool.getStatementCacheHitCount());
+    }
+
+    @Test
+    @DisplayName("The least recently used statement is evicted when the cache is full")
+    void testStatementEviction() throws SQLException {
+        pool = new ConnectionPool(() -> firstPhysical, 0, 1, 1000, 60000, 0, 60000, 1);
+        when(firstPhysical.prepareStatement(SqlStatements.USER_EXISTS)).thenReturn(firstStatement);
+        when(firstPhysical.prepareStatement(SqlStatements.TRANSACTION_BY_ID)).thenReturn(secondStatement);
+
+        try (Connection conn = pool.borrow()) {
+            conn.prepareStatement(SqlStatements.USER_EXISTS).close();
+            conn.prepareStatement(SqlStatements.TRANSACTION_BY_ID).close();
+        }
+
+        verify(firstStatement).close();
+        verify(secondStatement, never()).close();
+        assertEquals(1, pool.getStatementCacheEvictionCount());
+    }
+}
@@ -0,0 +1,185 @@
+package com.gcash.app.util;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.gcash.app.Model.TransactionKind;
+import com.gcash.app.Security.PinHasher;
+
+/**
+ * In-memory H2 database in MySQL mode with the application schema, for
+ * integration tests, benchmarks and load runs that cannot reach MySQL.
+ */
+public class EmbeddedDatabase {
+    public static final String USER = "sa";
+    public static final String PASSWORD = "";
+    public static final String SEED_PIN = "1234";
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    private final String url;
+
+    private EmbeddedDatabase(String url) {
+        this.url = url;
+    }
+
+    /**
+     * Create (or reuse) a named in-memory database and apply the schema
+     * @param name Database name; the same name in one JVM shares the data
+     * @return The database
+     * @throws SQLException If the schema cannot be applied
+     */
+    public static EmbeddedDatabase create(String name) throws SQLException {
+        EmbeddedDatabase database = new EmbeddedDatabase(url(name));
+
+        try (Connection conn = database.open();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("RUNSCRIPT FROM 'classpath:/db/h2-schema.sql'");
+        }
+        return database;
+    }
+
+    /**
+     * @param name Database name
+     * @return JDBC URL of the named in-memory database
+     */
+    public static String url(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    }
+
+    /**
+     * Route DatabaseConnection.getConnection() to this database
+     * @return This database
+     */
+    public EmbeddedDatabase install() {
+        DatabaseConnection.configure(url, USER, PASSWORD);
+        return this;
+    }
+
+    /**
+     * Route writes to this database and reads to the given replicas
+     * @param replicaUrls JDBC URLs of the replicas
+     * @return This database
+     */
+    public EmbeddedDatabase installWithReplicas(String... replicaUrls) {
+        DatabaseConnection.configure(url, USER, PASSWORD, List.of(replicaUrls));
+        return this;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Connection open() throws SQLException {
+        return DriverManager.getConnection(url, USER, PASSWORD);
+    }
+
+    /**
+     * Insert users with predictable credentials, a starting balance and a cash-in history.
+     * Account summaries match the seeded history.
+     * User i (1-based) has email user{i}@example.com, number 09{i padded to 9 digits} and PIN 1234.
+     * @param users Number of users to create
+     * @param transactionsPerUser Cash-in rows to insert per user
+     * @param startingPesos Balance of every user, split evenly across the cash-in rows
+     * @throws SQLException If seeding fails
+     */
+    public void seed(int users, int transactionsPerUser, long startingPesos) throws SQLException {
+        byte[] pinHash = PinHasher.hash(SEED_PIN);
+        long centavosPerRow = transactionsPerUser == 0 ? 0 : startingPesos * 100 / transactionsPerUser;
+        long balanceCentavos = centavosPerRow * transactionsPerUser;
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+
+        try (Connection conn = open()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement insertUser = conn.prepareStatement(
+                         "INSERT INTO users (id, name, email, number, pin, pin_hash) VALUES (?, ?, ?, ?, ?, ?)");
+                 PreparedStatement insertBalance = conn.prepareStatement(
+                         "INSERT INTO balance (amount, user_id) VALUES (?, ?)");
+                 PreparedStatement insertTransaction = conn.prepareStatement(
+                         SqlStatements.TRANSACTION_INSERT);
+                 PreparedStatement insertSummary = conn.prepareStatement(SqlStatements.SUMMARY_INSERT)) {
+
+                for (int userId = 1; userId <= users; userId++) {
+                    insertUser.setInt(1, userId);
+                    insertUser.setString(2, "User " + userId);
+                    insertUser.setString(3, email(userId));
+                    insertUser.setString(4, number(userId));
+                    insertUser.setString(5, PinHasher.toHex(pinHash));
+                    insertUser.setBytes(6, pinHash);
+                    insertUser.addBatch();
+
+                    insertBalance.setBigDecimal(1, BigDecimal.valueOf(balanceCentavos, 2));
+                    insertBalance.setInt(2, userId);
+                    insertBalance.addBatch();
+
+                    for (int t = 0; t < transactionsPerUser; t++) {
+                        insertTransaction.setBigDecimal(1, BigDecimal.valueOf(centavosPerRow, 2));
+                        insertTransaction.setString(2, "Cash In");
+                        insertTransaction.setInt(3, userId);
+                        insertTransaction.setObject(4, start.plusSeconds(t));
+                        insertTransaction.setInt(5, TransactionKind.CASH_IN.getCode());
+                        insertTransaction.addBatch();
+                    }
+
+                    if (transactionsPerUser > 0) {
+                        insertSummary.setInt(1, userId);
+                        insertSummary.setInt(2, transactionsPerUser);
+                        insertSummary.setBigDecimal(3, BigDecimal.valueOf(balanceCentavos, 2));
+                        insertSummary.setInt(4, 0);
+                        insertSummary.setBigDecimal(5, BigDecimal.ZERO);
+                        insertSummary.setInt(6, 0);
+                        insertSummary.setBigDecimal(7, BigDecimal.ZERO);
+                        insertSummary.setInt(8, start.getYear() * 100 + start.getMonthValue());
+                        insertSummary.setBigDecimal(9, BigDecimal.valueOf(balanceCentavos, 2));
+                        insertSummary.setObject(10, start.plusSeconds(transactionsPerUser - 1));
+                        insertSummary.addBatch();
+                    }
+
+                    if (userId % SEED_BATCH_SIZE == 0 || userId == users) {
+                        insertUser.executeBatch();
+                        insertBalance.executeBatch();
+                        insertTransaction.executeBatch();
+                        insertSummary.executeBatch();
+                        conn.commit();
+                    }
+                }
+            }
+
+            try (Statement stmt = conn.createStatement()) {
+                // Keep generated keys clear of the explicitly numbered seed users
+                stmt.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH " + (users + 1));
+            }
+            conn.commit();
+        }
+    }
+
+    /**
+     * Remove all rows, keeping the schema
+     * @throws SQLException If truncation fails
+     */
+    public void reset() throws SQLException {
+        try (Connection conn = open();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("TRUNCATE TABLE transaction RESTART IDENTITY");
+            stmt.execute("TRUNCATE TABLE balance RESTART IDENTITY");
+            stmt.execute("TRUNCATE TABLE users RESTART IDENTITY");
+            stmt.execute("TRUNCATE TABLE ledger_checkpoint");
+            stmt.execute("TRUNCATE TABLE account_summary");
+        }
+    }
+
+    public static String email(int userId) {
+        return "user" + userId + "@example.com";
+    }
+
+    public static String number(int userId) {
+        return String.format("09%09d", userId);
+    }
+}
@@ -0,0 +1,82 @@
+package com.gcash.app.util;
+
+import com.gcash.app.Model.Money;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventLogTest {
+
+    @Test
+    @DisplayName("Events from many threads are written as key=value lines")
+    void testConcurrentWrites(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("events.log");
+        EventLog log = new EventLog(file, 64, EventLog.OverflowPolicy.BLOCK, 4096, 16, 1 << 20, 2);
+        log.start();
+
+        List<CompletableFuture<Void>> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            writers.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 500; i++) {
+                    log.event(EventLog.Level.INFO, "transfer.ok").with("thread", thread).with("seq", i)
+                            .with("amount", Money.ofPesos(300)).log();
+                }
+            }));
+        }
+        writers.forEach(CompletableFuture::join);
+        log.event(EventLog.Level.ERROR, "transfer.error").with("error", "Deadlock found, \"retry\"").log();
+        log.close();
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(2001, lines.size());
+        assertEquals(0, log.getDroppedCount());
+        assertTrue(lines.get(0).matches("ts=\\S+ level=INFO event=transfer\\.ok thread=\\d seq=\\d+ amount=300\\.00"),
+                lines.get(0));
+        assertTrue(lines.get(2000).endsWith("level=ERROR event=transfer.error error=\"Deadlock found, \\\"retry\\\"\""),
+                lines.get(2000));
+    }
+
+    @Test
+    @DisplayName("A full ring drops events under the DROP policy")
+    void testDropWhenFull(@TempDir Path dir) {
+        // Not started, so nothing drains the ring
+        EventLog log = new EventLog(dir.resolve("events.log"), 8, EventLog.OverflowPolicy.DROP, 4096, 16, 1 << 20, 2);
+        for (int i = 0; i < 11; i++) {
+            log.event(EventLog.Level.INFO, "cashin.ok").with("user", i).log();
+        }
+
+        assertEquals(8, log.getPendingCount());
+        assertEquals(3, log.getDroppedCount());
+    }
+
+    @Test
+    @DisplayName("The file is rolled when it reaches the size limit")
+    void testRolling(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("events.log");
+        EventLog log = new EventLog(file, 16, EventLog.OverflowPolicy.BLOCK, 256, 4, 300, 2);
+        log.start();
+        for (int i = 0; i < 40; i++) {
+            log.event(EventLog.Level.INFO, "cashin.ok").with("user", i).log();
+            log.flush();
+        }
+        log.close();
+
+        assertTrue(Files.exists(dir.resolve("events.log.1")));
+        assertTrue(Files.exists(dir.resolve("events.log.2")));
+        assertFalse(Files.exists(dir.resolve("events.log.3")));
+        assertTrue(Files.size(file) <= 300);
+        List<String> last = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertTrue(last.get(last.size() - 1).endsWith("user=39"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.gcash.app.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvictionSamplerTest {
+
+    @Test
+    @DisplayName("Samples come from the whole map, not the first buckets")
+    void testSamplesSpreadAcrossTheMap() {
+        ConcurrentHashMap<Integer, Long> map = new ConcurrentHashMap<>();
+        for (int key = 0; key < 1024; key++) {
+            map.put(key, 0L);
+        }
+
+        Set<Integer> victims = new HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            victims.add(EvictionSampler.selectVictim(map, used -> used));
+        }
+
+        // Integer keys hash to their own bucket, so victims from every part of the table span the key range
+        assertTrue(victims.size() >= 32, "Only " + victims.size() + " distinct victims");
+        assertTrue(victims.stream().anyMatch(key -> key < 128));
+        assertTrue(victims.stream().anyMatch(key -> key >= 896));
+    }
+
+    @Test
+    @DisplayName("The least recently used sampled entry is chosen, and protected entries are passed over")
+    void testVictimChoice() {
+        ConcurrentHashMap<Integer, Long> map = new ConcurrentHashMap<>();
+        map.put(1, 300L);
+        map.put(2, 100L);
+        map.put(3, 200L);
+
+        assertEquals(2, EvictionSampler.selectVictim(map, used -> used));
+        assertEquals(3, EvictionSampler.selectVictim(map, used -> used, used -> used == 100L));
+        assertEquals(2, EvictionSampler.selectVictim(map, used -> used, used -> true));
+        assertNull(EvictionSampler.selectVictim(new ConcurrentHashMap<Integer, Long>(), used -> used));
+    }
+
+    @Test
+    @DisplayName("A map of protected entries is sampled a bounded number of times, not scanned")
+    void testAllProtectedIsBounded() {
+        ConcurrentHashMap<Integer, Long> map = new ConcurrentHashMap<>();
+        for (int key = 0; key < 100_000; key++) {
+            map.put(key, (long) key);
+        }
+
+        AtomicInteger inspected = new AtomicInteger();
+        Integer victim = EvictionSampler.selectVictim(map, used -> used, used -> inspected.incrementAndGet() > 0);
+
+        assertNotNull(victim);
+        assertTrue(inspected.get() <= EvictionSampler.MAX_ROUNDS * EvictionSampler.SAMPLE_SIZE, inspected + " entries inspected");
+    }
+}
@@ -0,0 +1,50 @@
+package com.gcash.app.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Percentiles are within one sub-bucket of the true value")
+    void testPercentilePrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        assertEquals(10000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMaxNanos());
+        assertWithin(5_000_000, histogram.getPercentileNanos(50));
+        assertWithin(9_900_000, histogram.getPercentileNanos(99));
+        assertWithin(9_990_000, histogram.getPercentileNanos(99.9));
+    }
+
+    @Test
+    @DisplayName("Every value falls inside its bucket's bounds")
+    void testBucketBounds() {
+        long[] values = {0, 1, 15, 16, 17, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long value : values) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+
+            int bucket = -1;
+            for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+                if (histogram.getBucketCount(i) == 1) {
+                    bucket = i;
+                }
+            }
+            assertTrue(bucket >= 0, "No bucket for " + value);
+            long lower = bucket == 0 ? 0 : LatencyHistogram.upperBound(bucket - 1);
+            assertTrue(value >= lower, value + " below bucket " + bucket);
+            assertTrue(value < LatencyHistogram.upperBound(bucket) || value == Long.MAX_VALUE,
+                    value + " above bucket " + bucket);
+        }
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 16, "expected ~" + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,57 @@
+package com.gcash.app.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+
+    @Test
+    @DisplayName("Calls are counted by outcome and SQL time is split from the total")
+    void testRecord() {
+        ServiceMetric metric = Metrics.register("MetricsTest.record", "ok", "failed");
+        assertSame(metric, Metrics.register("MetricsTest.record", "ok", "failed"));
+
+        long start = System.nanoTime() - 5_000;
+        long sqlStart = SqlTimer.current();
+        SqlTimer.add(2_000);
+        metric.record(0, start, sqlStart);
+        metric.record(1, System.nanoTime(), SqlTimer.current());
+
+        assertEquals(1, metric.getCount(0));
+        assertEquals(1, metric.getCount(1));
+        assertEquals(2, metric.getTotalCount());
+        assertEquals(2_000, metric.getSqlLatency().getMaxNanos());
+        assertTrue(metric.getLatency().getMaxNanos() >= 5_000);
+        assertTrue(Metrics.report().contains("MetricsTest.record calls=2 [ok=1 failed=1]"));
+
+        Metrics.reset();
+        assertEquals(0, metric.getTotalCount());
+        assertFalse(Metrics.report().contains("MetricsTest.record"));
+    }
+
+    @Test
+    @DisplayName("Counters and latencies are readable through JMX")
+    void testMBean() throws Exception {
+        ServiceMetric metric = Metrics.register("MetricsTest.jmx", "ok");
+        metric.record(0, System.nanoTime(), SqlTimer.current());
+        Metrics.registerMBean();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        TabularData counters = (TabularData) server.getAttribute(name, "Counters");
+        CompositeData row = counters.get(new Object[]{"MetricsTest.jmx.ok"});
+        assertEquals(metric.getCount(0), row.get("value"));
+
+        TabularData latencies = (TabularData) server.getAttribute(name, "LatencyNanos");
+        assertNotNull(latencies.get(new Object[]{"MetricsTest.jmx.sqlP99"}));
+        assertTrue(((String) server.getAttribute(name, "Report")).contains("MetricsTest.jmx"));
+    }
+}
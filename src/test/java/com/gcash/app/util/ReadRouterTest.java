@@ -0,0 +1,93 @@
+package com.gcash.app.util;
+
+import com.gcash.app.Model.Money;
+import com.gcash.app.Service.BalanceService;
+import com.gcash.app.Service.TransactionService;
+import com.gcash.app.Service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadRouterTest {
+    private static final int REPLICA = 0;
+    private static final int RECENT_WRITE = 2;
+    private static final int FAILOVER = 3;
+
+    private EmbeddedDatabase primary;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = EmbeddedDatabase.create("router-primary");
+        primary.reset();
+        primary.seed(2, 1, 1000);
+        BalanceService.getCache().clear();
+        UserService.getIndex().clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        DatabaseConnection.shutdown();
+    }
+
+    @Test
+    @DisplayName("Reads go to the replica except for a user who just wrote")
+    void testReadYourWrites() throws SQLException {
+        // A replica that has not caught up: every balance is 500 instead of 1000
+        EmbeddedDatabase replica = EmbeddedDatabase.create("router-replica");
+        replica.reset();
+        replica.seed(2, 1, 500);
+        primary.installWithReplicas(replica.getUrl());
+
+        assertEquals(Money.ofPesos(500), BalanceService.checkBalance(1).getAmount());
+        assertEquals(0, BalanceService.getCache().size()); // Replica reads are not cached
+        ServiceMetric routes = Metrics.get("DatabaseConnection.readRoute");
+        long replicaReads = routes.getCount(REPLICA);
+        long recentWriteReads = routes.getCount(RECENT_WRITE);
+
+        assertTrue(TransactionService.cashin(Money.ofPesos(100), 1));
+
+        assertEquals(Money.ofPesos(1100), BalanceService.checkBalance(1).getAmount());
+        assertEquals(2, TransactionService.viewUserAll(1).size());
+        assertEquals(Money.ofPesos(500), BalanceService.checkBalance(2).getAmount());
+        assertEquals(1, BalanceService.getCache().size());
+        assertEquals(1, TransactionService.viewUserAll(2).size());
+        assertEquals(recentWriteReads + 2, routes.getCount(RECENT_WRITE));
+        assertEquals(replicaReads + 2, routes.getCount(REPLICA));
+
+        // The new transaction is missing on the replica, so the lookup falls back to the primary
+        assertEquals(Money.ofPesos(100), TransactionService.viewTransaction(3).getAmount());
+    }
+
+    @Test
+    @DisplayName("Reads fail over to the primary while the replica is down")
+    void testFailover() throws SQLException {
+        // IFEXISTS makes connections fail until the replica database is created
+        primary.installWithReplicas(EmbeddedDatabase.url("router-late") + ";IFEXISTS=TRUE");
+        ReadRouter router = DatabaseConnection.getRouter();
+
+        assertEquals(Money.ofPesos(1000), BalanceService.checkBalance(1).getAmount());
+        ServiceMetric routes = Metrics.get("DatabaseConnection.readRoute");
+        long failovers = routes.getCount(FAILOVER);
+        assertEquals(0, router.getHealthyReplicaCount());
+        assertEquals(1, router.getFailoverCount());
+
+        // Down replicas are skipped until a health check passes
+        BalanceService.getCache().clear();
+        assertEquals(Money.ofPesos(1000), BalanceService.checkBalance(1).getAmount());
+        assertEquals(failovers, routes.getCount(FAILOVER));
+
+        EmbeddedDatabase replica = EmbeddedDatabase.create("router-late");
+        replica.reset();
+        replica.seed(2, 1, 500);
+        router.checkHealth();
+        assertEquals(1, router.getHealthyReplicaCount());
+
+        BalanceService.getCache().clear();
+        assertEquals(Money.ofPesos(500), BalanceService.checkBalance(1).getAmount());
+    }
+}
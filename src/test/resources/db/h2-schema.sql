@@ -0,0 +1,51 @@
+-- Schema of gcashdatabase for an embedded H2 database in MySQL mode.
+-- Mirrors the MySQL tables after all scripts in src/main/resources/db/migration.
+CREATE TABLE IF NOT EXISTS users (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    number VARCHAR(20) NOT NULL,
+    pin VARCHAR(64) NOT NULL,
+    pin_hash BINARY(32) NOT NULL,
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_number UNIQUE (number)
+);
+
+CREATE TABLE IF NOT EXISTS balance (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    amount DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    user_id INT NOT NULL,
+    CONSTRAINT uk_balance_user_id UNIQUE (user_id)
+);
+
+CREATE TABLE IF NOT EXISTS transaction (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    amount DECIMAL(15, 2) NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    kind TINYINT NOT NULL DEFAULT 0,
+    account_id INT NOT NULL,
+    date DATETIME NOT NULL,
+    transferToID INT,
+    transferFromID INT
+);
+
+CREATE INDEX IF NOT EXISTS idx_transaction_account_date_id ON transaction (account_id, date, id);
+CREATE INDEX IF NOT EXISTS idx_transaction_date_id ON transaction (date, id);
+
+CREATE TABLE IF NOT EXISTS ledger_checkpoint (
+    shard_id INT NOT NULL PRIMARY KEY,
+    sequence BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS account_summary (
+    user_id INT NOT NULL PRIMARY KEY,
+    cashin_count INT NOT NULL DEFAULT 0,
+    cashin_total DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    sent_count INT NOT NULL DEFAULT 0,
+    sent_total DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    received_count INT NOT NULL DEFAULT 0,
+    received_total DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    month_key INT NOT NULL,
+    month_cashin_total DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    last_activity DATETIME NOT NULL
+);